@@ -0,0 +1,64 @@
+package com.mhsnodgrass.rectangleparser.benchmark;
+
+import com.mhsnodgrass.rectangleparser.model.Rectangle;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/** Builds the random Rectangles and XML files used by the benchmarks, seeded so every run sees the same data.
+ * @author Matthew Snodgrass
+ */
+final class BenchmarkData {
+    static final long SEED = 42L;
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Creates Rectangles with unique Ids (0 to count - 1), random sizes up to maxSize, and top left corners spread over a square
+     * @param count Number of Rectangles
+     * @param maxSize Largest height and width
+     * @param spread Width and height of the square the corners are placed in
+     * @param random Source of the random values
+     * @return A List of Rectangles
+     */
+    static List<Rectangle> randomRectangles(int count, int maxSize, int spread, Random random) {
+        List<Rectangle> rectangles = new ArrayList<>(count);
+        for (int id = 0; id < count; id++) {
+            rectangles.add(new Rectangle(id, random.nextInt(maxSize) + 1, random.nextInt(maxSize) + 1,
+                    random.nextInt(spread) - spread / 2, random.nextInt(spread) - spread / 2));
+        }
+        return rectangles;
+    }
+
+    /**
+     * Writes Rectangles to a temporary XML file in the same layout as `rectangles.xml`, the file is deleted on exit
+     * @param rectangles Rectangles to write
+     * @return The XML file
+     * @throws IOException If the file can not be written
+     */
+    static File writeXml(List<Rectangle> rectangles) throws IOException {
+        File xmlFile = File.createTempFile("rectangles-benchmark", ".xml");
+        xmlFile.deleteOnExit();
+
+        try (PrintWriter writer = new PrintWriter(xmlFile, "UTF-8")) {
+            writer.println("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+            writer.println("<rectangles>");
+            for (Rectangle rect : rectangles) {
+                writer.println("    <rectangle>");
+                writer.println("        <id>" + rect.getId() + "</id>");
+                writer.println("        <height>" + rect.getHeight() + "</height>");
+                writer.println("        <width>" + rect.getWidth() + "</width>");
+                writer.println("        <x>" + rect.getX() + "</x>");
+                writer.println("        <y>" + rect.getY() + "</y>");
+                writer.println("    </rectangle>");
+            }
+            writer.println("</rectangles>");
+        }
+        return xmlFile;
+    }
+}
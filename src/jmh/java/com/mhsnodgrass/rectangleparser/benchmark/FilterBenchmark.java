@@ -0,0 +1,82 @@
+package com.mhsnodgrass.rectangleparser.benchmark;
+
+import com.mhsnodgrass.rectangleparser.RectangleParser;
+import com.mhsnodgrass.rectangleparser.model.Rectangle;
+import com.mhsnodgrass.rectangleparser.model.RectangleStore;
+import com.mhsnodgrass.rectangleparser.util.ParserMetrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/** Finding two Rectangles by Id, with the List scan and with the Id index of the {@link RectangleStore}.
+ * <p>The Ids asked for are random, so on average the scan has to walk most of the List</p>
+ * <p>RectangleParser is created directly (no Spring), and given its ParserMetrics by hand the way Launcher wires it</p>
+ * @author Matthew Snodgrass
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FilterBenchmark {
+    private static final int QUERIES = 1024;
+
+    @Param({"1000", "100000"})
+    private int count;
+
+    private final RectangleParser rectangleParser = new RectangleParser();
+    private List<Rectangle> rectangles;
+    private RectangleStore store;
+    private int[] ids;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void createRectangles() {
+        ReflectionTestUtils.setField(rectangleParser, "parserMetrics", new ParserMetrics());
+
+        Random random = new Random(BenchmarkData.SEED);
+        rectangles = BenchmarkData.randomRectangles(count, 1000, 100000, random);
+        store = new RectangleStore(count);
+        for (Rectangle rect : rectangles) {
+            store.add(rect.getId(), rect.getHeight(), rect.getWidth(), rect.getX(), rect.getY());
+        }
+
+        ids = new int[QUERIES * 2];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = random.nextInt(count);
+        }
+    }
+
+    @Benchmark
+    public List<Rectangle> filterRectanglesListByIds() {
+        int i = nextQuery();
+        return rectangleParser.filterRectanglesListByIds(rectangles, ids[i], ids[i + 1]);
+    }
+
+    @Benchmark
+    public List<Rectangle> filterRectangleStoreByIds() {
+        int i = nextQuery();
+        return rectangleParser.filterRectangleStoreByIds(store, ids[i], ids[i + 1]);
+    }
+
+    // Helper functions
+    private int nextQuery() {
+        next = (next + 2) & (QUERIES * 2 - 1);
+        return next;
+    }
+}
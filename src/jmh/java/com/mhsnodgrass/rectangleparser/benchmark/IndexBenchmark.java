@@ -0,0 +1,120 @@
+package com.mhsnodgrass.rectangleparser.benchmark;
+
+import com.mhsnodgrass.rectangleparser.analysis.PlaneSweep;
+import com.mhsnodgrass.rectangleparser.index.GridIndex;
+import com.mhsnodgrass.rectangleparser.index.RTree;
+import com.mhsnodgrass.rectangleparser.index.SpatialIndex;
+import com.mhsnodgrass.rectangleparser.model.Rectangle;
+import com.mhsnodgrass.rectangleparser.model.RectangleStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/** Window searches and the intersecting pair join over a dense layout of small Rectangles, with the {@link RTree} and the {@link GridIndex},
+ * and the 10 nearest Rectangles to one Rectangle with the best-first search of the {@link RTree}.
+ * <p>The Rectangles are up to 10 a side spread over a square that holds about one Rectangle per 100 square units, the layout the grid is meant for.
+ * The pair join is also run with the {@link PlaneSweep} used when no grid is asked for</p>
+ * @author Matthew Snodgrass
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IndexBenchmark {
+    private static final int QUERIES = 1024;
+
+    @Param({"10000", "1000000"})
+    private int count;
+
+    private RectangleStore store;
+    private RTree rTree;
+    private GridIndex grid;
+    private int[] windows;
+    private int[] slots;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void createRectangles() {
+        Random random = new Random(BenchmarkData.SEED);
+        int spread = (int) Math.sqrt(count * 100.0);
+        store = new RectangleStore(count);
+        for (Rectangle rect : BenchmarkData.randomRectangles(count, 10, spread, random)) {
+            store.add(rect.getId(), rect.getHeight(), rect.getWidth(), rect.getX(), rect.getY());
+        }
+        rTree = RTree.build(store);
+        grid = GridIndex.build(store);
+
+        windows = new int[QUERIES * 2];
+        for (int i = 0; i < windows.length; i++) {
+            windows[i] = random.nextInt(spread) - spread / 2;
+        }
+        slots = new int[QUERIES];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = random.nextInt(count);
+        }
+    }
+
+    @Benchmark
+    public RTree buildRTree() {
+        return RTree.build(store);
+    }
+
+    @Benchmark
+    public GridIndex buildGrid() {
+        return GridIndex.build(store);
+    }
+
+    @Benchmark
+    public int windowRTree() {
+        return window(rTree);
+    }
+
+    @Benchmark
+    public int windowGrid() {
+        return window(grid);
+    }
+
+    @Benchmark
+    public int[] nearestRTree() {
+        next = (next + 1) & (QUERIES - 1);
+        int slot = slots[next];
+        int x = store.getX(slot);
+        int y = store.getY(slot);
+        return rTree.nearest(x, y - store.getHeight(slot), x + store.getWidth(slot), y, 10, other -> other != slot);
+    }
+
+    @Benchmark
+    public long joinSweep() {
+        return PlaneSweep.forEachIntersectingPair(store, (a, b) -> { });
+    }
+
+    @Benchmark
+    public long joinGrid() {
+        return GridIndex.build(store).forEachIntersectingPair(store, (a, b) -> { });
+    }
+
+    // Helper functions
+    // Counts the Rectangles in a 50 by 50 window
+    private int window(SpatialIndex index) {
+        next = (next + 2) & (QUERIES * 2 - 1);
+        int x = windows[next];
+        int y = windows[next + 1];
+        int[] found = new int[1];
+        index.search(x, y - 50, x + 50, y, slot -> found[0]++);
+        return found[0];
+    }
+}
@@ -0,0 +1,71 @@
+package com.mhsnodgrass.rectangleparser.benchmark;
+
+import com.mhsnodgrass.rectangleparser.model.Rectangle;
+import com.mhsnodgrass.rectangleparser.model.RectangleStore;
+import com.mhsnodgrass.rectangleparser.util.ParserMetrics;
+import com.mhsnodgrass.rectangleparser.util.RectangleUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/** Parsing an XML file of Rectangles, for each dataset size.
+ * <p>RectangleUtils is created directly (no Spring), so the streaming and parallel thresholds are the defaults.
+ * It is given its ParserMetrics by hand the way Launcher wires it</p>
+ * @author Matthew Snodgrass
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParseBenchmark {
+    @Param({"1000", "100000"})
+    private int count;
+
+    private final RectangleUtils rectangleUtils = new RectangleUtils();
+    private File xmlFile;
+
+    @Setup(Level.Trial)
+    public void writeFile() throws IOException {
+        ReflectionTestUtils.setField(rectangleUtils, "parserMetrics", new ParserMetrics());
+        xmlFile = BenchmarkData.writeXml(BenchmarkData.randomRectangles(count, 1000, 100000, new Random(BenchmarkData.SEED)));
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFile() {
+        xmlFile.delete();
+    }
+
+    @Benchmark
+    public List<Rectangle> parseXmlToListOfRectangles() {
+        return rectangleUtils.parseXmlToListOfRectangles(xmlFile);
+    }
+
+    @Benchmark
+    public RectangleStore parseXmlToRectangleStore() {
+        return rectangleUtils.parseXmlToRectangleStore(xmlFile);
+    }
+
+    @Benchmark
+    public RectangleStore streamXmlToRectangleStore() {
+        return rectangleUtils.streamXmlToRectangleStore(xmlFile);
+    }
+}
@@ -0,0 +1,103 @@
+package com.mhsnodgrass.rectangleparser.benchmark;
+
+import com.mhsnodgrass.rectangleparser.model.Rectangle;
+import org.apache.commons.lang3.tuple.Pair;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/** Pair checks on two Rectangles (intersect, contain, adjacent, the intersection points, and the intersection region), for small and large Rectangles.
+ * <p>Each call walks a fixed set of random pairs placed close together, so there is a mix of overlapping, touching, and separate pairs</p>
+ * @author Matthew Snodgrass
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PredicateBenchmark {
+    private static final int PAIRS = 1024;
+
+    // Largest height and width of the Rectangles
+    @Param({"10", "100000"})
+    private int size;
+
+    private Rectangle[] first;
+    private Rectangle[] second;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void createPairs() {
+        Random random = new Random(BenchmarkData.SEED);
+        // Spread matches the size, so about half the pairs overlap
+        List<Rectangle> rectangles = BenchmarkData.randomRectangles(PAIRS * 2, size, size * 2, random);
+        first = new Rectangle[PAIRS];
+        second = new Rectangle[PAIRS];
+        for (int i = 0; i < PAIRS; i++) {
+            first[i] = rectangles.get(i * 2);
+            second[i] = rectangles.get(i * 2 + 1);
+        }
+    }
+
+    @Benchmark
+    public Boolean doesIntersect() {
+        int i = nextPair();
+        return first[i].doesIntersect(second[i]);
+    }
+
+    @Benchmark
+    public Boolean doesContain() {
+        int i = nextPair();
+        return first[i].doesContain(second[i]);
+    }
+
+    @Benchmark
+    public Rectangle.Adjacency isAdjacent() {
+        int i = nextPair();
+        return first[i].isAdjacent(second[i]);
+    }
+
+    @Benchmark
+    public List<Pair<Integer, Integer>> getIntersect() {
+        int i = nextPair();
+        return first[i].getIntersect(second[i]);
+    }
+
+    @Benchmark
+    public Rectangle getIntersectRegion() {
+        int i = nextPair();
+        return first[i].getIntersectRegion(second[i]);
+    }
+
+    @Benchmark
+    public long getIntersectPoints() {
+        int i = nextPair();
+        PrimitiveIterator.OfLong points = first[i].getIntersectPoints(second[i]);
+        long sum = 0;
+        while (points.hasNext()) {
+            sum += points.nextLong();
+        }
+        return sum;
+    }
+
+    // Helper functions
+    private int nextPair() {
+        next = (next + 1) & (PAIRS - 1);
+        return next;
+    }
+}
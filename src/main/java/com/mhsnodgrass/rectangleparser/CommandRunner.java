@@ -1,5 +1,7 @@
 package com.mhsnodgrass.rectangleparser;
 
+import com.mhsnodgrass.rectangleparser.util.ParserMetrics;
+import com.mhsnodgrass.rectangleparser.util.ResultWriter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
@@ -10,17 +12,29 @@ import org.apache.commons.cli.Options;
 import org.apache.commons.cli.ParseException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.nio.file.Paths;
+
 /** CommandRunner takes in the arguments from the command line to run the rest of the program, implements CommandLineRunner to always run
+ * <p>Not created when the program runs as a query server (see {@link ServerRunner})</p>
  * @author Matthew Snodgrass
  */
 @Component
 @Slf4j
+@ConditionalOnProperty(name = "rectangleparser.server.enabled", havingValue = "false", matchIfMissing = true)
 public class CommandRunner implements CommandLineRunner {
     @Autowired
     private OutputHandler outputHandler;
 
+    @Autowired
+    private ResultWriter resultWriter;
+
+    @Autowired
+    private ParserMetrics parserMetrics;
+
     /**
      * <p>Takes in the arguments from the command line and checks for options (-p, -h, etc).</p>
      * <p>-p parses the XML file provided as an argument (or uses a default name from application.properties).</p>
@@ -28,8 +42,22 @@ public class CommandRunner implements CommandLineRunner {
      * <p>-c parses the XML file and two ids from the user. Will check if Rectangle #1 contains Rectangle #2. Each argument is needed.</p>
      * <p>-j parses the XML file and two ids from the user. Will check if the Rectangles intersect, and print every intersection coordinate. Each argument is needed.</p>
      * <p>-a parses the XML file and two ids from the user. Will attempt each method against the two Rectangles. Each argument is needed.</p>
+     * <p>-w parses the XML file and a window (x, y, width, height) from the user. Will find every Rectangle that intersects the window. Each argument is needed.</p>
+     * <p>-q parses the XML file and a point (x, y) from the user. Will find every Rectangle that contains the point, edges included. Each argument is needed.</p>
+     * <p>-k parses the XML file, an id, and a count (k) from the user. Will find the k Rectangles closest to that Rectangle, by the distance between their edges. Each argument is needed.</p>
+     * <p>-r parses the XML file and an id from the user. Will find every Rectangle that intersects, is contained by, or is adjacent to that Rectangle. Each argument is needed.</p>
+     * <p>-x parses the XML file provided as an argument (or the default) and finds every pair of Rectangles that intersect.</p>
+     * <p>-n parses the XML file provided as an argument (or the default) and links every Rectangle to its tightest container, with its depth.</p>
+     * <p>-g parses the XML file provided as an argument (or the default) and finds every pair of adjacent Rectangles, with the type of adjacency.</p>
+     * <p>-u parses the XML file provided as an argument (or the default) and groups the Rectangles that intersect or are adjacent into clusters.</p>
+     * <p>-e parses the XML file provided as an argument (or the default) and measures the area covered by the Rectangles, and by two or more of them.</p>
+     * <p>-b parses the XML file once and checks every `idA idB [op]` line of a pairs file (or standard input) against it, in parallel.</p>
+     * <p>-m parses the XML file and writes the Rectangles to a binary file ('.rbin'), which every option can load in place of the XML file.</p>
+     * <p>-f parses the XML file and watches it, only the Rectangles that change are updated each time the file is saved.</p>
+     * <p>--stats can be added to every option to print how long each phase took (parsing, filtering, each check, output) and how many Rectangles were parsed or skipped.
+     * --stats-json writes the same summary to a JSON file.</p>
      * <p>'v' can be added to every option (other than -h) to print out every coordinate of the Rectangles that are processed.</p>
-     * <p>{@link OutputHandler} is used to handle each option.</p>
+     * <p>{@link OutputHandler} is used to handle each option, its results are written out by the {@link ResultWriter} once the option is done.</p>
      * <p>-h Prints the help output</p>
      * <p>No arguments prints the help output</p>
      * @param args Arguments after an option declaration on the command line, currently looking for the filename for -p, filename, id1, and id2 for all others
@@ -89,6 +117,96 @@ public class CommandRunner implements CommandLineRunner {
                 .desc("Same as -a, but it prints out every coordinate of the rectangles being processed.")
                 .argName("ALLVERBOSE")
                 .build();
+        Option window = Option.builder("w")
+                .longOpt("Window")
+                .desc("Parses the XML file into Rectangle entities, and takes the x, y, width, and height of a window. It will print every Rectangle that intersects the window. Each argument is required.")
+                .argName("WINDOW")
+                .build();
+        Option windowVerbose = Option.builder("wv")
+                .longOpt("WindowVerbose")
+                .desc("Same as -w, but it prints out every coordinate of the rectangles being processed.")
+                .argName("WINDOWVERBOSE")
+                .build();
+        Option point = Option.builder("q")
+                .longOpt("Point")
+                .desc("Parses the XML file into Rectangle entities, and takes the x and y of a point. It will print every Rectangle that contains the point, edges included. Each argument is required.")
+                .argName("POINT")
+                .build();
+        Option pointVerbose = Option.builder("qv")
+                .longOpt("PointVerbose")
+                .desc("Same as -q, but it prints out every coordinate of the rectangles being processed.")
+                .argName("POINTVERBOSE")
+                .build();
+        Option nearest = Option.builder("k")
+                .longOpt("Nearest")
+                .desc("Parses the XML file into Rectangle entities, and takes one id and a count (k). It will print the ids of the k Rectangles closest to that Rectangle, with the distance between their edges (0 if they touch or intersect). Each argument is required.")
+                .argName("NEAREST")
+                .build();
+        Option nearestVerbose = Option.builder("kv")
+                .longOpt("NearestVerbose")
+                .desc("Same as -k, but it prints out every coordinate of the rectangle being processed.")
+                .argName("NEARESTVERBOSE")
+                .build();
+        Option relations = Option.builder("r")
+                .longOpt("Relations")
+                .desc("Parses the XML file into Rectangle entities, and takes one id. It will print the ids of every Rectangle that intersects, is contained by, or is adjacent to that Rectangle. Each argument is required.")
+                .argName("RELATIONS")
+                .build();
+        Option relationsVerbose = Option.builder("rv")
+                .longOpt("RelationsVerbose")
+                .desc("Same as -r, but it prints out every coordinate of the rectangles being processed.")
+                .argName("RELATIONSVERBOSE")
+                .build();
+        Option intersectAll = Option.builder("x")
+                .longOpt("IntersectAll")
+                .desc("Parses the XML file into Rectangle entities and prints every pair of Rectangles that intersect. You can define the filename after the option, or it will use the default from application.properties.")
+                .argName("INTERSECTALL")
+                .build();
+        Option nesting = Option.builder("n")
+                .longOpt("Nesting")
+                .desc("Parses the XML file into Rectangle entities and links every Rectangle to the smallest Rectangle that contains it. It will print the id of each Rectangle with its container and depth. You can define the filename after the option, or it will use the default from application.properties.")
+                .argName("NESTING")
+                .build();
+        Option adjacencyGraph = Option.builder("g")
+                .longOpt("AdjacencyGraph")
+                .desc("Parses the XML file into Rectangle entities and finds every pair of adjacent Rectangles. It will print the ids of each pair with the type of adjacency (Proper, Sub-Line, Partial). You can define the filename after the option, or it will use the default from application.properties.")
+                .argName("ADJACENCYGRAPH")
+                .build();
+        Option clusters = Option.builder("u")
+                .longOpt("Clusters")
+                .desc("Parses the XML file into Rectangle entities and groups the Rectangles that intersect or are adjacent (directly or through other Rectangles) into clusters. It will print the cluster of each Rectangle and the size of each cluster. You can define the filename after the option, or it will use the default from application.properties.")
+                .argName("CLUSTERS")
+                .build();
+        Option area = Option.builder("e")
+                .longOpt("Area")
+                .desc("Parses the XML file into Rectangle entities and measures the area they cover. It will print the area covered by at least one Rectangle and the area covered by two or more. You can define the filename after the option, or it will use the default from application.properties.")
+                .argName("AREA")
+                .build();
+        Option batch = Option.builder("b")
+                .longOpt("Batch")
+                .desc("Parses the XML file into Rectangle entities once, and takes a file of `idA idB [i | c | j | a]` lines (or reads them from standard input if the file is missing or '-'). It will check every line and print the results in the same order. The XML filename is required.")
+                .argName("BATCH")
+                .build();
+        Option convert = Option.builder("m")
+                .longOpt("Convert")
+                .desc("Parses the XML file into Rectangle entities and writes them to a binary file that loads without parsing. You can define the binary filename after the XML filename, or it will use the XML filename with '.rbin'.")
+                .argName("CONVERT")
+                .build();
+        Option watch = Option.builder("f")
+                .longOpt("Watch")
+                .desc("Parses the XML file into Rectangle entities and watches it for changes. Each time the file changes, only the Rectangles that were added, removed, or changed are updated, and their ids are printed. The XML filename is required.")
+                .argName("WATCH")
+                .build();
+        Option stats = Option.builder()
+                .longOpt("stats")
+                .desc("Can be added to any option. Prints the time spent in each phase (parse, load, construct, filter, intersect, contain, adjacent, output), the bytes allocated, and the number of Rectangles parsed and skipped when the option is done.")
+                .build();
+        Option statsJson = Option.builder()
+                .longOpt("stats-json")
+                .hasArg()
+                .argName("FILE")
+                .desc("Same as --stats, but the summary is written to the file as JSON.")
+                .build();
         Option help = Option.builder("h")
                 .longOpt("Help")
                 .desc("Prints this help message")
@@ -105,6 +223,24 @@ public class CommandRunner implements CommandLineRunner {
         options.addOption(adjacentVerbose);
         options.addOption(all);
         options.addOption(allVerbose);
+        options.addOption(window);
+        options.addOption(windowVerbose);
+        options.addOption(point);
+        options.addOption(pointVerbose);
+        options.addOption(nearest);
+        options.addOption(nearestVerbose);
+        options.addOption(relations);
+        options.addOption(relationsVerbose);
+        options.addOption(intersectAll);
+        options.addOption(nesting);
+        options.addOption(adjacencyGraph);
+        options.addOption(clusters);
+        options.addOption(area);
+        options.addOption(batch);
+        options.addOption(convert);
+        options.addOption(watch);
+        options.addOption(stats);
+        options.addOption(statsJson);
         options.addOption(help);
 
         // Create parser
@@ -148,15 +284,85 @@ public class CommandRunner implements CommandLineRunner {
             // -av
             } else if (line.hasOption("av")) {
                 outputHandler.printAll(line, true);
+            // -w
+            } else if (line.hasOption("w")) {
+                outputHandler.printWindow(line, false);
+            // -wv
+            } else if (line.hasOption("wv")) {
+                outputHandler.printWindow(line, true);
+            // -q
+            } else if (line.hasOption("q")) {
+                outputHandler.printPoint(line, false);
+            // -qv
+            } else if (line.hasOption("qv")) {
+                outputHandler.printPoint(line, true);
+            // -k
+            } else if (line.hasOption("k")) {
+                outputHandler.printNearest(line, false);
+            // -kv
+            } else if (line.hasOption("kv")) {
+                outputHandler.printNearest(line, true);
+            // -r
+            } else if (line.hasOption("r")) {
+                outputHandler.printRelations(line, false);
+            // -rv
+            } else if (line.hasOption("rv")) {
+                outputHandler.printRelations(line, true);
+            // -x
+            } else if (line.hasOption("x")) {
+                outputHandler.printAllIntersections(line);
+            // -n
+            } else if (line.hasOption("n")) {
+                outputHandler.printNesting(line);
+            // -g
+            } else if (line.hasOption("g")) {
+                outputHandler.printAdjacencyGraph(line);
+            // -u
+            } else if (line.hasOption("u")) {
+                outputHandler.printClusters(line);
+            // -e
+            } else if (line.hasOption("e")) {
+                outputHandler.printCoverage(line);
+            // -b
+            } else if (line.hasOption("b")) {
+                outputHandler.printBatch(line);
+            // -m
+            } else if (line.hasOption("m")) {
+                outputHandler.printConvertToBinary(line);
+            // -f
+            } else if (line.hasOption("f")) {
+                outputHandler.printWatch(line);
             // -h
             } else if (line.hasOption("h")) {
-                formatter.printHelp("java -jar rectangleparser-0.0.1-SNAPSHOT.jar [-p | -pv <filename>] [[-i, -iv, -c, -cv, -j, -jv, -a, -av] <filename> <id> <id>]", options);
+                formatter.printHelp("java -jar rectangleparser-0.0.1-SNAPSHOT.jar [-p | -pv | -x | -n | -g | -u | -e <filename>] [[-i, -iv, -c, -cv, -j, -jv, -a, -av] <filename> <id> <id>] [-r | -rv <filename> <id>] [-k | -kv <filename> <id> <k>] [-w | -wv <filename> <x> <y> <width> <height>] [-q | -qv <filename> <x> <y>] [-m <filename> [<binary filename>]] [-b <filename> [<pairs file>]] [-f <filename>] [--stats] [--stats-json <file>]", options);
             // Default help message
             } else {
-                formatter.printHelp("java -jar rectangleparser-0.0.1-SNAPSHOT.jar [-p | -pv <filename>] [[-i, -iv, -c, -cv, -j, -jv, -a, -av] <filename> <id> <id>]", options);
+                formatter.printHelp("java -jar rectangleparser-0.0.1-SNAPSHOT.jar [-p | -pv | -x | -n | -g | -u | -e <filename>] [[-i, -iv, -c, -cv, -j, -jv, -a, -av] <filename> <id> <id>] [-r | -rv <filename> <id>] [-k | -kv <filename> <id> <k>] [-w | -wv <filename> <x> <y> <width> <height>] [-q | -qv <filename> <x> <y>] [-m <filename> [<binary filename>]] [-b <filename> [<pairs file>]] [-f <filename>] [--stats] [--stats-json <file>]", options);
+            }
+
+            // --stats, --stats-json, the results are written out first so the output phase is counted
+            if (line.hasOption("stats") || line.hasOption("stats-json")) {
+                resultWriter.flush();
+            }
+            if (line.hasOption("stats")) {
+                resultWriter.write(parserMetrics.summary());
+            }
+            if (line.hasOption("stats-json")) {
+                writeStats(line.getOptionValue("stats-json"));
             }
         } catch (ParseException e) {
             log.error("Error parsing arguments/options", e);
+        } finally {
+            resultWriter.flush();
+        }
+    }
+
+    // Helper functions
+    private void writeStats(String filename) {
+        try {
+            parserMetrics.writeJson(Paths.get(filename));
+        } catch (IOException e) {
+            log.error("Error writing file: " + filename + ".", e);
         }
     }
 }
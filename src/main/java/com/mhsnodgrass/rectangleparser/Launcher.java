@@ -0,0 +1,245 @@
+package com.mhsnodgrass.rectangleparser;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.ConsoleAppender;
+import ch.qos.logback.core.FileAppender;
+import ch.qos.logback.core.OutputStreamAppender;
+import com.mhsnodgrass.rectangleparser.util.DatasetCache;
+import com.mhsnodgrass.rectangleparser.util.ParserMetrics;
+import com.mhsnodgrass.rectangleparser.util.RectangleUtils;
+import com.mhsnodgrass.rectangleparser.util.ResultWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+/** Launcher runs the command line options without starting Spring, for one-shot queries where starting the context takes far longer than the query itself.
+ * <p>The components {@link CommandRunner} needs are created and wired by hand, in a fixed order with no class path scanning.
+ * Their @Autowired fields are set to the components created here, and their @Value fields are read from application.properties,
+ * system properties (-D), and `--key=value` arguments, so both entry points see the same settings</p>
+ * <p>Takes the same options as {@link CommandRunner}. The query server (rectangleparser.server.enabled=true) still needs Spring and is
+ * handed to {@link RectangleparserApplication}</p>
+ * <p>Logging goes to the console and to logging.file.name, with the levels set by logging.level.* (INFO if they are not set)</p>
+ * @author Matthew Snodgrass
+ */
+public final class Launcher {
+    private static final String PROPERTIES_FILE = "application.properties";
+    private static final String LOG_LEVEL_PREFIX = "logging.level.";
+    private static final String LOG_PATTERN = "%d{yyyy-MM-dd HH:mm:ss.SSS} %5p --- [%15.15t] %-40.40logger{39} : %m%n";
+
+    private Launcher() {
+    }
+
+    /**
+     * Loads the settings, sets up logging, and runs the options on the command line
+     * @param args Same arguments as the Spring Boot entry point
+     */
+    public static void main(String[] args) {
+        Properties properties = loadProperties(args);
+        if (Boolean.parseBoolean(resolve(properties, "${rectangleparser.server.enabled:false}"))) {
+            RectangleparserApplication.main(args);
+            return;
+        }
+
+        configureLogging(properties);
+        run(properties, args);
+    }
+
+    /**
+     * <p>Creates and wires the components, then runs the options with {@link CommandRunner}</p>
+     * <p>The results are written out and the results file is closed before returning</p>
+     * @param properties Settings used for every @Value field
+     * @param args Options and arguments from the command line
+     */
+    static void run(Properties properties, String[] args) {
+        ParserMetrics parserMetrics = new ParserMetrics();
+        RectangleUtils rectangleUtils = wire(new RectangleUtils(), properties, parserMetrics);
+        DatasetCache datasetCache = wire(new DatasetCache(), properties);
+        RectangleParser rectangleParser = wire(new RectangleParser(), properties, rectangleUtils, datasetCache, parserMetrics);
+        ResultWriter resultWriter = wire(new ResultWriter(), properties, parserMetrics);
+        OutputHandler outputHandler = wire(new OutputHandler(), properties, rectangleParser, resultWriter);
+        CommandRunner commandRunner = wire(new CommandRunner(), properties, outputHandler, resultWriter, parserMetrics);
+
+        try {
+            commandRunner.run(args);
+        } finally {
+            resultWriter.close();
+        }
+    }
+
+    /**
+     * Reads application.properties from the class path, then system properties, then `--key=value` arguments, later ones win
+     * @param args Arguments from the command line
+     * @return Every setting found
+     */
+    static Properties loadProperties(String[] args) {
+        Properties properties = new Properties();
+        try (InputStream input = Launcher.class.getClassLoader().getResourceAsStream(PROPERTIES_FILE)) {
+            if (input != null) {
+                properties.load(input);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading " + PROPERTIES_FILE, e);
+        }
+
+        properties.putAll(System.getProperties());
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (arg.startsWith("--") && equals > 2) {
+                properties.setProperty(arg.substring(2, equals), arg.substring(equals + 1));
+            }
+        }
+        return properties;
+    }
+
+    /**
+     * <p>Replaces each `${key}` or `${key:default}` in the text with its setting, the same placeholders @Value uses</p>
+     * <p>Settings and defaults can hold placeholders of their own</p>
+     * @param properties Settings to look up
+     * @param text Text holding placeholders
+     * @return The text with every placeholder replaced
+     * @throws IllegalArgumentException If a placeholder has no setting and no default
+     */
+    static String resolve(Properties properties, String text) {
+        StringBuilder result = new StringBuilder();
+        int position = 0;
+        while (true) {
+            int start = text.indexOf("${", position);
+            if (start < 0) {
+                return result.append(text, position, text.length()).toString();
+            }
+            int end = closingBrace(text, start + 2);
+            if (end < 0) {
+                throw new IllegalArgumentException("Placeholder is not closed: " + text);
+            }
+            result.append(text, position, start);
+
+            String placeholder = text.substring(start + 2, end);
+            int colon = defaultSeparator(placeholder);
+            String key = colon < 0 ? placeholder : placeholder.substring(0, colon);
+            String value = properties.getProperty(key);
+            if (value == null && colon < 0) {
+                throw new IllegalArgumentException("Could not resolve placeholder '" + key + "'");
+            }
+            result.append(resolve(properties, value != null ? value : placeholder.substring(colon + 1)));
+            position = end + 1;
+        }
+    }
+
+    // Helper functions
+    // Sets the @Autowired fields to the matching component, and the @Value fields from the settings
+    private static <T> T wire(T component, Properties properties, Object... components) {
+        for (Field field : component.getClass().getDeclaredFields()) {
+            Object value;
+            if (field.isAnnotationPresent(Autowired.class)) {
+                value = Arrays.stream(components).filter(field.getType()::isInstance).findFirst()
+                        .orElseThrow(() -> new IllegalStateException("No component for " + component.getClass().getSimpleName() + "." + field.getName()));
+            } else if (field.isAnnotationPresent(Value.class)) {
+                value = convert(resolve(properties, field.getAnnotation(Value.class).value()), field.getType());
+            } else {
+                continue;
+            }
+
+            try {
+                field.setAccessible(true);
+                field.set(component, value);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Could not set " + component.getClass().getSimpleName() + "." + field.getName(), e);
+            }
+        }
+        return component;
+    }
+
+    private static Object convert(String value, Class<?> type) {
+        String trimmed = value.trim();
+        if (type == int.class || type == Integer.class) {
+            return Integer.parseInt(trimmed);
+        } else if (type == long.class || type == Long.class) {
+            return Long.parseLong(trimmed);
+        } else if (type == boolean.class || type == Boolean.class) {
+            return Boolean.parseBoolean(trimmed);
+        } else if (type == List.class) {
+            return Arrays.asList(trimmed.split("\\s*,\\s*"));
+        }
+        return value;
+    }
+
+    // Index of the } that closes a placeholder opened just before from, or -1
+    private static int closingBrace(String text, int from) {
+        int depth = 1;
+        for (int i = from; i < text.length(); i++) {
+            if (text.startsWith("${", i)) {
+                depth++;
+                i++;
+            } else if (text.charAt(i) == '}' && --depth == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Index of the : between the key and the default, skipping any inside a nested placeholder
+    private static int defaultSeparator(String placeholder) {
+        int depth = 0;
+        for (int i = 0; i < placeholder.length(); i++) {
+            if (placeholder.startsWith("${", i)) {
+                depth++;
+                i++;
+            } else if (placeholder.charAt(i) == '}') {
+                depth--;
+            } else if (placeholder.charAt(i) == ':' && depth == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Console and file logging close to the Spring Boot defaults, without the rest of the Spring logging system
+    private static void configureLogging(Properties properties) {
+        if (!(LoggerFactory.getILoggerFactory() instanceof LoggerContext)) {
+            return;
+        }
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        context.reset();
+
+        ch.qos.logback.classic.Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        root.setLevel(Level.INFO);
+        for (String key : properties.stringPropertyNames()) {
+            if (key.startsWith(LOG_LEVEL_PREFIX)) {
+                String name = key.substring(LOG_LEVEL_PREFIX.length());
+                context.getLogger("root".equals(name) ? Logger.ROOT_LOGGER_NAME : name).setLevel(Level.toLevel(properties.getProperty(key), Level.INFO));
+            }
+        }
+        root.addAppender(startAppender(context, new ConsoleAppender<>()));
+
+        String logFile = properties.getProperty("logging.file.name", "");
+        if (!logFile.isEmpty()) {
+            FileAppender<ILoggingEvent> file = new FileAppender<>();
+            file.setFile(resolve(properties, logFile));
+            root.addAppender(startAppender(context, file));
+        }
+    }
+
+    private static <A extends OutputStreamAppender<ILoggingEvent>> A startAppender(LoggerContext context, A appender) {
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern(LOG_PATTERN);
+        encoder.start();
+
+        appender.setContext(context);
+        appender.setEncoder(encoder);
+        appender.start();
+        return appender;
+    }
+}
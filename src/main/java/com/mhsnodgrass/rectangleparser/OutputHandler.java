@@ -1,24 +1,61 @@
 package com.mhsnodgrass.rectangleparser;
 
+import com.mhsnodgrass.rectangleparser.analysis.AdjacencyGraph;
+import com.mhsnodgrass.rectangleparser.analysis.Clusters;
+import com.mhsnodgrass.rectangleparser.analysis.ContainmentForest;
+import com.mhsnodgrass.rectangleparser.analysis.CoverageArea;
+import com.mhsnodgrass.rectangleparser.index.RTree;
+import com.mhsnodgrass.rectangleparser.index.SpatialIndex;
+import com.mhsnodgrass.rectangleparser.index.StabbingIndex;
+import com.mhsnodgrass.rectangleparser.model.MappedRectangleStore;
 import com.mhsnodgrass.rectangleparser.model.Rectangle;
+import com.mhsnodgrass.rectangleparser.model.RectangleDataset;
+import com.mhsnodgrass.rectangleparser.util.ResultWriter;
+import com.mhsnodgrass.rectangleparser.util.ResultWriter.Result;
+import com.mhsnodgrass.rectangleparser.watch.FileWatcher;
+import com.mhsnodgrass.rectangleparser.watch.LiveDataset;
+import com.mhsnodgrass.rectangleparser.watch.RectangleDiff;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.cli.CommandLine;
-import org.apache.commons.lang3.tuple.Pair;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /** OutputHandler handles the options accepted by the {@link CommandRunner}
+ * <p>Results are written with the {@link ResultWriter}, errors and other diagnostics are logged</p>
  * @author Matthew Snodgrass
  */
 @Slf4j
 @Component
 public class OutputHandler {
+    // Lines handed to the worker threads at a time in batch mode, output is written after each block
+    private static final int BATCH_BLOCK_SIZE = 64 * 1024;
+
     @Value("${rectangleparser.default.filename}")
     private String filename;
 
+    @Value("${rectangleparser.batch.threads:0}")
+    private int batchThreads;
+
+    @Value("${rectangleparser.watch.settle-millis:200}")
+    private long watchSettleMillis;
+
     private Integer idOne;
     private Integer idTwo;
     private List<Rectangle> rect;
@@ -26,6 +63,9 @@ public class OutputHandler {
     @Autowired
     private RectangleParser rectangleParser;
 
+    @Autowired
+    private ResultWriter resultWriter;
+
     /**
      * <p>Parses the CommandLine input sent in and checks for any filenames, will use default from application.properties if not found</p>
      * <p>If the filename is missing '.xml', it will add it</p>
@@ -38,7 +78,7 @@ public class OutputHandler {
         // Check arguments
         processArgs(cmd, true);
         // Output Rectangles
-        outputRectangleInfo(rectangleParser.getRectangleListFromFile(filename), verbose);
+        outputRectangleInfo(rectangleParser.getRectangleDatasetFromFile(filename).asList(), verbose);
     }
 
     /**
@@ -59,23 +99,27 @@ public class OutputHandler {
 
         // Check list before processing
         if (rect != null) {
-            // Get the Intersect Values
-            List<Pair<Integer, Integer>> intersectValues = rectangleParser.intersect(rect);
+            // Get the region both cover, the intersecting coordinates are only walked as they are written
+            Rectangle region = rectangleParser.intersectRegion(rect);
             if (!allCheck) {
                 outputRectangleInfo(rect, verbose);
             }
-            log.info("--------------------");
-            log.info("DOES RECTANGLE #2 INTERSECT RECTANGLE #1: " + ((intersectValues != null) ? "Yes" : "No"));
+            Result result = new Result("intersect")
+                    .text(ResultWriter.SEPARATOR)
+                    .text("DOES RECTANGLE #2 INTERSECT RECTANGLE #1: " + ((region != null) ? "Yes" : "No"))
+                    .put("idOne", rect.get(0).getId())
+                    .put("idTwo", rect.get(1).getId())
+                    .put("intersects", region != null);
 
-            if (intersectValues != null && !intersectValues.isEmpty()) {
-                String values = "";
-                for (Pair<Integer, Integer> p : intersectValues) {
-                    values += "(" + p.getKey() + ", " + p.getValue() + ")" + " | ";
-                }
-                if (!values.isEmpty()) {
-                    values = values.substring(0, values.length() - 2);
-                }
-                log.info("INTERSECTING COORDINATES: " + values);
+            if (region != null) {
+                result.text("INTERSECTION REGION: TL: (" + region.getX() + ", " + region.getY() + ") / WIDTH: " + region.getWidth() + ", HEIGHT: " + region.getHeight())
+                        .put("region", region.getX(), region.getY(), region.getWidth(), region.getHeight());
+            }
+            resultWriter.write(result);
+
+            PrimitiveIterator.OfLong points = rectangleParser.intersectPoints(rect);
+            if (points.hasNext()) {
+                resultWriter.writePoints("intersecting-coordinates", "INTERSECTING COORDINATES", points);
             }
         }
     }
@@ -102,8 +146,12 @@ public class OutputHandler {
             if (!allCheck) {
                 outputRectangleInfo(rect, verbose);
             }
-            log.info("--------------------");
-            log.info("DOES RECTANGLE #1 CONTAIN RECTANGLE #2: " + ((contain) ? "Yes" : "No"));
+            resultWriter.write(new Result("contain")
+                    .text(ResultWriter.SEPARATOR)
+                    .text("DOES RECTANGLE #1 CONTAIN RECTANGLE #2: " + ((contain) ? "Yes" : "No"))
+                    .put("idOne", rect.get(0).getId())
+                    .put("idTwo", rect.get(1).getId())
+                    .put("contains", contain));
         }
     }
 
@@ -130,9 +178,14 @@ public class OutputHandler {
             if (!allCheck) {
                 outputRectangleInfo(rect, verbose);
             }
-            log.info("--------------------");
-            log.info("IS RECTANGLE #1 & RECTANGLE #2 ADJACENT:  " + ((adjacency == Rectangle.Adjacency.NONE) ? "No" : "Yes"));
-            log.info("ADJACENT TYPE: " + returnStringFromEnum(adjacency));
+            resultWriter.write(new Result("adjacent")
+                    .text(ResultWriter.SEPARATOR)
+                    .text("IS RECTANGLE #1 & RECTANGLE #2 ADJACENT:  " + ((adjacency == Rectangle.Adjacency.NONE) ? "No" : "Yes"))
+                    .text("ADJACENT TYPE: " + returnStringFromEnum(adjacency))
+                    .put("idOne", rect.get(0).getId())
+                    .put("idTwo", rect.get(1).getId())
+                    .put("adjacent", adjacency != Rectangle.Adjacency.NONE)
+                    .put("adjacency", returnStringFromEnum(adjacency)));
         }
     }
 
@@ -149,44 +202,470 @@ public class OutputHandler {
         printAdjacency(cmd, verbose, true);
     }
 
-    // Helper Methods
-    private void outputRectangleInfo(List<Rectangle> rectangleList, Boolean verbose) {
-        for (int i = 0; i < rectangleList.size(); i++) {
-            log.info("--------------------");
-            log.info("RECTANGLE #" + (i + 1));
-            log.info(rectangleList.get(i).toString());
-            if (verbose) {
-                log.info("--------------------");
-                log.info("Top Coordinates:");
-                log.info("--------------------");
-                for (Pair<Integer, Integer> p : rectangleList.get(i).getAllCoordinates().get(0)) {
-                    log.info("(" + p.getKey() + ", " + p.getValue() + ")");
+    /**
+     * <p>Parses the CommandLine input sent in and checks for any filenames, will use default from application.properties if not found</p>
+     * <p>Will send the filename to {@link RectangleParser} to load the Rectangles, and find every pair of Rectangles that intersect</p>
+     * <p>Will output the ids of each intersecting pair, followed by the number of pairs</p>
+     * @param cmd Commandline contains any arguments from the user for changing what file should be read in
+     */
+    public void printAllIntersections(CommandLine cmd) {
+        // Check arguments
+        processArgs(cmd, true);
+        RectangleDataset dataset = rectangleParser.getRectangleDatasetFromFile(filename);
+
+        resultWriter.write(new Result("separator").text(ResultWriter.SEPARATOR));
+        long pairs = rectangleParser.intersectAll(dataset, (slotOne, slotTwo) -> resultWriter.write(new Result("intersecting-pair")
+                .text("RECTANGLE ID " + dataset.getId(slotOne) + " INTERSECTS RECTANGLE ID " + dataset.getId(slotTwo))
+                .put("idOne", dataset.getId(slotOne))
+                .put("idTwo", dataset.getId(slotTwo))));
+        resultWriter.write(new Result("intersecting-pairs")
+                .text(ResultWriter.SEPARATOR)
+                .text("INTERSECTING PAIRS: " + pairs)
+                .put("count", pairs));
+    }
+
+    /**
+     * <p>Parses the CommandLine input sent in and checks for any filenames, will use default from application.properties if not found</p>
+     * <p>Will send the filename to {@link RectangleParser} to load the Rectangles, and link each Rectangle to its tightest container</p>
+     * <p>Will output the id of each Rectangle with the id of its container and its depth, followed by the number of roots and the largest depth</p>
+     * @param cmd Commandline contains any arguments from the user for changing what file should be read in
+     */
+    public void printNesting(CommandLine cmd) {
+        // Check arguments
+        processArgs(cmd, true);
+        RectangleDataset dataset = rectangleParser.getRectangleDatasetFromFile(filename);
+        ContainmentForest forest = rectangleParser.nesting(dataset);
+
+        resultWriter.write(new Result("separator").text(ResultWriter.SEPARATOR));
+        for (int slot = 0; slot < forest.size(); slot++) {
+            int parent = forest.getParent(slot);
+            Result result = new Result("nesting")
+                    .text("RECTANGLE ID " + dataset.getId(slot) + " PARENT: " + (parent < 0 ? "None" : Integer.toString(dataset.getId(parent)))
+                            + " | DEPTH: " + forest.getDepth(slot))
+                    .put("id", dataset.getId(slot));
+            if (parent < 0) {
+                result.put("parent", (String) null);
+            } else {
+                result.put("parent", dataset.getId(parent));
+            }
+            resultWriter.write(result.put("depth", forest.getDepth(slot)));
+        }
+        resultWriter.write(new Result("nesting-summary")
+                .text(ResultWriter.SEPARATOR)
+                .text("ROOTS: " + forest.getRootCount() + " | MAX DEPTH: " + forest.getMaxDepth())
+                .put("roots", forest.getRootCount())
+                .put("maxDepth", forest.getMaxDepth()));
+    }
+
+    /**
+     * <p>Parses the CommandLine input sent in and checks for any filenames, will use default from application.properties if not found</p>
+     * <p>Will send the filename to {@link RectangleParser} to load the Rectangles, and find every pair of adjacent Rectangles</p>
+     * <p>Will output the ids of each adjacent pair with the type of adjacency, followed by the number of pairs of each type</p>
+     * @param cmd Commandline contains any arguments from the user for changing what file should be read in
+     */
+    public void printAdjacencyGraph(CommandLine cmd) {
+        // Check arguments
+        processArgs(cmd, true);
+        RectangleDataset dataset = rectangleParser.getRectangleDatasetFromFile(filename);
+        AdjacencyGraph graph = rectangleParser.adjacencyGraph(dataset);
+
+        int[] counts = new int[Rectangle.Adjacency.values().length];
+        resultWriter.write(new Result("separator").text(ResultWriter.SEPARATOR));
+        for (int edge = 0; edge < graph.size(); edge++) {
+            int idOne = dataset.getId(graph.getSlotOne(edge));
+            int idTwo = dataset.getId(graph.getSlotTwo(edge));
+            String type = returnStringFromEnum(graph.getAdjacency(edge));
+            counts[graph.getAdjacency(edge).ordinal()]++;
+            resultWriter.write(new Result("adjacent-pair")
+                    .text("RECTANGLE ID " + idOne + " IS ADJACENT TO RECTANGLE ID " + idTwo + ": " + type)
+                    .put("idOne", idOne)
+                    .put("idTwo", idTwo)
+                    .put("adjacency", type));
+        }
+        resultWriter.write(new Result("adjacent-pairs")
+                .text(ResultWriter.SEPARATOR)
+                .text("ADJACENT PAIRS: " + graph.size() + " | PROPER: " + counts[Rectangle.Adjacency.PROPER.ordinal()]
+                        + " | SUB-LINE: " + counts[Rectangle.Adjacency.SUBLINE.ordinal()]
+                        + " | PARTIAL: " + counts[Rectangle.Adjacency.PARTIAL.ordinal()])
+                .put("count", graph.size())
+                .put("proper", counts[Rectangle.Adjacency.PROPER.ordinal()])
+                .put("subLine", counts[Rectangle.Adjacency.SUBLINE.ordinal()])
+                .put("partial", counts[Rectangle.Adjacency.PARTIAL.ordinal()]));
+    }
+
+    /**
+     * <p>Parses the CommandLine input sent in and checks for any filenames, will use default from application.properties if not found</p>
+     * <p>Will send the filename to {@link RectangleParser} to load the Rectangles, and group the Rectangles that intersect or are adjacent into clusters</p>
+     * <p>Will output the cluster of each Rectangle, then the size of each cluster, followed by the number of clusters and the largest size</p>
+     * @param cmd Commandline contains any arguments from the user for changing what file should be read in
+     */
+    public void printClusters(CommandLine cmd) {
+        // Check arguments
+        processArgs(cmd, true);
+        RectangleDataset dataset = rectangleParser.getRectangleDatasetFromFile(filename);
+        Clusters clusters = rectangleParser.clusters(dataset);
+
+        resultWriter.write(new Result("separator").text(ResultWriter.SEPARATOR));
+        for (int slot = 0; slot < dataset.size(); slot++) {
+            resultWriter.write(new Result("cluster-member")
+                    .text("RECTANGLE ID " + dataset.getId(slot) + " CLUSTER: " + clusters.getCluster(slot))
+                    .put("id", dataset.getId(slot))
+                    .put("cluster", clusters.getCluster(slot)));
+        }
+        resultWriter.write(new Result("separator").text(ResultWriter.SEPARATOR));
+        for (int cluster = 0; cluster < clusters.getClusterCount(); cluster++) {
+            resultWriter.write(new Result("cluster")
+                    .text("CLUSTER " + cluster + " SIZE: " + clusters.getSize(cluster))
+                    .put("cluster", cluster)
+                    .put("size", clusters.getSize(cluster)));
+        }
+        resultWriter.write(new Result("clusters")
+                .text(ResultWriter.SEPARATOR)
+                .text("CLUSTERS: " + clusters.getClusterCount() + " | LARGEST: " + clusters.getLargestSize())
+                .put("count", clusters.getClusterCount())
+                .put("largest", clusters.getLargestSize()));
+    }
+
+    /**
+     * <p>Parses the CommandLine input sent in and checks for any filenames, will use default from application.properties if not found</p>
+     * <p>Will send the filename to {@link RectangleParser} to load the Rectangles, and measure the area they cover</p>
+     * <p>Will output the area covered by at least one Rectangle and the area covered by two or more</p>
+     * @param cmd Commandline contains any arguments from the user for changing what file should be read in
+     */
+    public void printCoverage(CommandLine cmd) {
+        // Check arguments
+        processArgs(cmd, true);
+        RectangleDataset dataset = rectangleParser.getRectangleDatasetFromFile(filename);
+        CoverageArea coverage = rectangleParser.coverage(dataset);
+
+        resultWriter.write(new Result("area")
+                .text(ResultWriter.SEPARATOR)
+                .text("UNION AREA: " + coverage.getUnionArea())
+                .text("OVERLAP AREA: " + coverage.getOverlapArea())
+                .put("union", coverage.getUnionArea())
+                .put("overlap", coverage.getOverlapArea()));
+    }
+
+    /**
+     * <p>Parses the CommandLine input sent in and checks for filename, and the x, y, width, and height of a window</p>
+     * <p>Each argument is required. If the filename is missing '.xml', it will add it</p>
+     * <p>Will load the Rectangles, build a spatial index with {@link RectangleParser}, and find every Rectangle that intersects the window</p>
+     * <p>Will output each Rectangle found using it's toString method</p>
+     * @param cmd Commandline contains arguments for the file to be read in and the window to check
+     * @param verbose Boolean value that decides if all the coordinates for the Rectangle should be printed
+     */
+    public void printWindow(CommandLine cmd, Boolean verbose) {
+        int[] values = processArgs(cmd, 4, "<filename> <x> <y> <width> <height>");
+
+        if (values != null) {
+            RectangleDataset dataset = rectangleParser.getRectangleDatasetFromFile(filename);
+            SpatialIndex index = rectangleParser.buildSpatialIndex(dataset);
+            int[] slots = rectangleParser.window(dataset, index, values[0], values[1], values[2], values[3]);
+
+            resultWriter.write(new Result("window")
+                    .text(ResultWriter.SEPARATOR)
+                    .text("RECTANGLES INTERSECTING WINDOW (" + values[0] + ", " + values[1] + ", " + values[2] + ", " + values[3] + "): " + slots.length)
+                    .put("window", values)
+                    .put("count", slots.length));
+            outputRectangleInfo(getRectanglesFromSlots(dataset, slots), verbose);
+        }
+    }
+
+    /**
+     * <p>Parses the CommandLine input sent in and checks for filename, and the x and y of a point</p>
+     * <p>Each argument is required. If the filename is missing '.xml', it will add it</p>
+     * <p>Will load the Rectangles, build a stabbing index with {@link RectangleParser}, and find every Rectangle that contains the point</p>
+     * <p>Will output each Rectangle found using it's toString method</p>
+     * @param cmd Commandline contains arguments for the file to be read in and the point to check
+     * @param verbose Boolean value that decides if all the coordinates for the Rectangle should be printed
+     */
+    public void printPoint(CommandLine cmd, Boolean verbose) {
+        int[] values = processArgs(cmd, 2, "<filename> <x> <y>");
+
+        if (values != null) {
+            RectangleDataset dataset = rectangleParser.getRectangleDatasetFromFile(filename);
+            StabbingIndex index = rectangleParser.buildStabbingIndex(dataset);
+            int[] slots = rectangleParser.stab(index, values[0], values[1]);
+
+            resultWriter.write(new Result("point")
+                    .text(ResultWriter.SEPARATOR)
+                    .text("RECTANGLES CONTAINING POINT (" + values[0] + ", " + values[1] + "): " + slots.length)
+                    .put("point", values)
+                    .put("count", slots.length));
+            outputRectangleInfo(getRectanglesFromSlots(dataset, slots), verbose);
+        }
+    }
+
+    /**
+     * <p>Parses the CommandLine input sent in and checks for filename and the id of a rectangle</p>
+     * <p>Each argument is required. If the filename is missing '.xml', it will add it</p>
+     * <p>Will load the Rectangles, build a spatial index with {@link RectangleParser}, and find every Rectangle that intersects,
+     * is contained by, or is adjacent to the Rectangle</p>
+     * <p>Will output the Rectangle using it's toString method, and the ids found for each check</p>
+     * @param cmd Commandline contains arguments for the file to be read in and an id for the rectangle that is to be checked
+     * @param verbose Boolean value that decides if all the coordinates for the Rectangle should be printed
+     */
+    public void printRelations(CommandLine cmd, Boolean verbose) {
+        int[] values = processArgs(cmd, 1, "<filename> <id>");
+
+        if (values != null) {
+            RectangleDataset dataset = rectangleParser.getRectangleDatasetFromFile(filename);
+            int slot = dataset.indexOf(values[0]);
+            if (slot < 0) {
+                log.error("ID: " + values[0] + " was not found among the Rectangles in the XML file");
+                return;
+            }
+
+            SpatialIndex index = rectangleParser.buildSpatialIndex(dataset);
+            outputRectangleInfo(getRectanglesFromSlots(dataset, new int[]{slot}), verbose);
+            int[] intersecting = rectangleParser.intersecting(dataset, index, slot);
+            int[] contained = rectangleParser.containedBy(dataset, index, slot);
+            int[] adjacentSlots = rectangleParser.adjacentTo(dataset, index, slot);
+
+            StringBuilder adjacent = new StringBuilder();
+            List<String> adjacentTypes = new ArrayList<>();
+            for (int other : adjacentSlots) {
+                String type = returnStringFromEnum(dataset.adjacency(slot, other));
+                if (adjacent.length() > 0) {
+                    adjacent.append(" | ");
                 }
-                log.info("--------------------");
-                log.info("Right Coordinates:");
-                log.info("--------------------");
-                for (Pair<Integer, Integer> p : rectangleList.get(i).getAllCoordinates().get(1)) {
-                    log.info("(" + p.getKey() + ", " + p.getValue() + ")");
+                adjacent.append(dataset.getId(other)).append(" (").append(type).append(')');
+                adjacentTypes.add(type);
+            }
+
+            resultWriter.write(new Result("relations")
+                    .text(ResultWriter.SEPARATOR)
+                    .text("INTERSECTING IDS: " + joinIds(dataset, intersecting))
+                    .text("CONTAINED IDS: " + joinIds(dataset, contained))
+                    .text("ADJACENT IDS: " + (adjacent.length() == 0 ? "None" : adjacent))
+                    .put("id", values[0])
+                    .put("intersecting", toIds(dataset, intersecting))
+                    .put("contained", toIds(dataset, contained))
+                    .put("adjacent", toIds(dataset, adjacentSlots))
+                    .put("adjacency", adjacentTypes));
+        }
+    }
+
+    /**
+     * <p>Parses the CommandLine input sent in and checks for filename, the id of a rectangle, and how many rectangles to find (k)</p>
+     * <p>Each argument is required. If the filename is missing '.xml', it will add it</p>
+     * <p>Will load the Rectangles, build an R-tree with {@link RectangleParser}, and find the k Rectangles closest to the Rectangle,
+     * by the distance between their edges</p>
+     * <p>Will output the Rectangle using it's toString method, and the ids found with their distance, closest first</p>
+     * @param cmd Commandline contains arguments for the file to be read in, an id for the rectangle that is to be checked, and k
+     * @param verbose Boolean value that decides if all the coordinates for the Rectangle should be printed
+     */
+    public void printNearest(CommandLine cmd, Boolean verbose) {
+        int[] values = processArgs(cmd, 2, "<filename> <id> <k>");
+
+        if (values != null) {
+            if (values[1] < 1) {
+                log.error("K: " + values[1] + " has to be 1 or more");
+                return;
+            }
+            RectangleDataset dataset = rectangleParser.getRectangleDatasetFromFile(filename);
+            int slot = dataset.indexOf(values[0]);
+            if (slot < 0) {
+                log.error("ID: " + values[0] + " was not found among the Rectangles in the XML file");
+                return;
+            }
+
+            RTree index = rectangleParser.buildRTree(dataset);
+            outputRectangleInfo(getRectanglesFromSlots(dataset, new int[]{slot}), verbose);
+            int[] nearest = rectangleParser.nearest(dataset, index, slot, values[1]);
+
+            double[] distances = new double[nearest.length];
+            Result result = new Result("nearest")
+                    .text(ResultWriter.SEPARATOR)
+                    .text("NEAREST RECTANGLES TO ID " + values[0] + ": " + nearest.length);
+            for (int i = 0; i < nearest.length; i++) {
+                distances[i] = dataset.distance(slot, nearest[i]);
+                result.text(String.format(Locale.ROOT, "ID: %d, DISTANCE: %.3f", dataset.getId(nearest[i]), distances[i]));
+            }
+            resultWriter.write(result
+                    .put("id", values[0])
+                    .put("k", values[1])
+                    .put("ids", toIds(dataset, nearest))
+                    .put("distances", distances));
+        }
+    }
+
+    /**
+     * <p>Parses the CommandLine input sent in and checks for the XML filename and an optional binary filename</p>
+     * <p>If the binary filename is not given, it uses the XML filename with '.rbin' in place of '.xml'</p>
+     * <p>Will send both filenames to {@link RectangleParser} to load the XML file and write the Rectangles to a binary file
+     * (see {@link MappedRectangleStore}), which every other option can then load in place of the XML file</p>
+     * @param cmd Commandline contains arguments for the XML file to be read in and the binary file to be written
+     */
+    public void printConvertToBinary(CommandLine cmd) {
+        if (cmd.getArgList().isEmpty() || cmd.getArgList().size() > 2) {
+            log.error("The number of arguments is not 1 or 2. Please send in <filename> [<binary filename>]");
+            return;
+        }
+
+        checkFilenameExtension(cmd.getArgList().get(0));
+        String binaryFilename = cmd.getArgList().size() == 2 ? cmd.getArgList().get(1)
+                : filename.substring(0, filename.length() - ".xml".length()) + MappedRectangleStore.EXTENSION;
+        if (!binaryFilename.endsWith(MappedRectangleStore.EXTENSION)) {
+            binaryFilename += MappedRectangleStore.EXTENSION;
+        }
+
+        int count = rectangleParser.convertToBinary(filename, binaryFilename);
+        if (count >= 0) {
+            resultWriter.write(new Result("convert")
+                    .text(ResultWriter.SEPARATOR)
+                    .text("RECTANGLES WRITTEN TO " + binaryFilename + ": " + count)
+                    .put("file", binaryFilename)
+                    .put("count", count));
+        }
+    }
+
+    /**
+     * <p>Parses the CommandLine input sent in and checks for filename and an optional file of id pairs</p>
+     * <p>The Rectangles are loaded once, then each line of the pairs file (or standard input if it is missing or '-') is checked</p>
+     * <p>Each line is `idA idB [op]`, where op is i (intersect), c (contain), j (adjacent), or a (all, the default).
+     * Blank lines and lines starting with '#' are skipped</p>
+     * <p>Lines are checked in blocks on rectangleparser.batch.threads threads (0 uses every processor), and each result is output in the same order as the input</p>
+     * @param cmd Commandline contains arguments for the file to be read in and the file of id pairs
+     */
+    public void printBatch(CommandLine cmd) {
+        if (cmd.getArgList().isEmpty() || cmd.getArgList().size() > 2) {
+            log.error("The number of arguments is not 1 or 2. Please send in <filename> [<pairs file>]");
+            return;
+        }
+        checkFilenameExtension(cmd.getArgList().get(0));
+        String pairsFilename = cmd.getArgList().size() == 2 ? cmd.getArgList().get(1) : "-";
+
+        RectangleDataset dataset = rectangleParser.getRectangleDatasetFromFile(filename);
+        int threads = batchThreads > 0 ? batchThreads : Runtime.getRuntime().availableProcessors();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+
+        try (BufferedReader reader = pairsFilename.equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Paths.get(pairsFilename), StandardCharsets.UTF_8)) {
+            long count = 0;
+            List<String> block = new ArrayList<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                block.add(line);
+                if (block.size() == BATCH_BLOCK_SIZE) {
+                    count += outputBatchBlock(evaluatePairQueries(dataset, block, pool, threads));
+                    block.clear();
                 }
-                log.info("--------------------");
-                log.info("Bottom Coordinates:");
-                log.info("--------------------");
-                for (Pair<Integer, Integer> p : rectangleList.get(i).getAllCoordinates().get(2)) {
-                    log.info("(" + p.getKey() + ", " + p.getValue() + ")");
+            }
+            count += outputBatchBlock(evaluatePairQueries(dataset, block, pool, threads));
+
+            resultWriter.write(new Result("pairs-checked")
+                    .text(ResultWriter.SEPARATOR)
+                    .text("PAIRS CHECKED: " + count)
+                    .put("count", count));
+        } catch (IOException e) {
+            log.error("Error retrieving file: " + pairsFilename + ".", e);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * <p>Parses the CommandLine input sent in and checks for the XML filename</p>
+     * <p>The Rectangles are loaded once and kept in a {@link LiveDataset}. Each time the file changes it is parsed again and
+     * compared by id with what is loaded, only the Rectangles that were added, removed, or changed are updated in the id index and spatial index</p>
+     * <p>The ids added, removed, and changed are output after each change. Runs until the program is stopped</p>
+     * @param cmd Commandline contains arguments for the file to be watched
+     */
+    public void printWatch(CommandLine cmd) {
+        if (cmd.getArgList().size() != 1) {
+            log.error("The number of arguments is not 1. Please send in <filename>");
+            return;
+        }
+        checkFilenameExtension(cmd.getArgList().get(0));
+        if (filename.endsWith(MappedRectangleStore.EXTENSION)) {
+            log.error("Binary files can not be watched, please send in the XML file");
+            return;
+        }
+
+        // Parsed without the dataset cache, the live store is changed in place
+        LiveDataset live = new LiveDataset(rectangleParser.getRectangleStoreFromFile(filename));
+        resultWriter.write(new Result("watching")
+                .text(ResultWriter.SEPARATOR)
+                .text("WATCHING " + filename + ": " + live.getStore().size() + " RECTANGLES")
+                .put("file", filename)
+                .put("count", live.getStore().size()));
+        resultWriter.flush();
+
+        try {
+            FileWatcher.watch(Paths.get(filename), watchSettleMillis, () -> {
+                RectangleDiff diff = live.apply(rectangleParser.getRectangleStoreFromFile(filename));
+                if (diff.isEmpty()) {
+                    return;
                 }
-                log.info("--------------------");
-                log.info("Left Coordinates:");
-                log.info("--------------------");
-                for (Pair<Integer, Integer> p : rectangleList.get(i).getAllCoordinates().get(3)) {
-                    log.info("(" + p.getKey() + ", " + p.getValue() + ")");
+                resultWriter.write(new Result("change")
+                        .text(ResultWriter.SEPARATOR)
+                        .text("ADDED: " + Arrays.toString(diff.getAdded()))
+                        .text("REMOVED: " + Arrays.toString(diff.getRemoved()))
+                        .text("CHANGED: " + Arrays.toString(diff.getChanged()))
+                        .text("RECTANGLES: " + live.getStore().size())
+                        .put("added", diff.getAdded())
+                        .put("removed", diff.getRemoved())
+                        .put("changed", diff.getChanged())
+                        .put("count", live.getStore().size()));
+                resultWriter.flush();
+            });
+        } catch (IOException e) {
+            log.error("Error watching file: " + filename + ".", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * <p>Checks a block of `idA idB [op]` lines against a dataset, splitting the block evenly between the threads of the pool</p>
+     * <p>Each line is checked on its own, so a bad line or missing id only changes the result for that line</p>
+     * @param dataset Rectangles to check the ids against
+     * @param lines Lines to check
+     * @param pool Pool to run the checks on
+     * @param threads Number of parts to split the block into
+     * @return One result for each line, in the same order (null for blank and comment lines)
+     */
+    public String[] evaluatePairQueries(RectangleDataset dataset, List<String> lines, ExecutorService pool, int threads) {
+        String[] results = new String[lines.size()];
+        int partSize = Math.max(1, (lines.size() + threads - 1) / threads);
+
+        List<Future<?>> parts = new ArrayList<>();
+        for (int start = 0; start < lines.size(); start += partSize) {
+            int first = start;
+            int last = Math.min(lines.size(), start + partSize);
+            parts.add(pool.submit(() -> {
+                for (int i = first; i < last; i++) {
+                    results[i] = evaluatePairQuery(dataset, lines.get(i));
                 }
+            }));
+        }
+
+        for (Future<?> part : parts) {
+            try {
+                part.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while checking pairs", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Error checking pairs", e.getCause());
             }
         }
+        return results;
+    }
+
+    // Helper Methods
+    private void outputRectangleInfo(List<Rectangle> rectangleList, Boolean verbose) {
+        for (int i = 0; i < rectangleList.size(); i++) {
+            resultWriter.writeRectangle(i + 1, rectangleList.get(i), verbose);
+        }
     }
 
     private void checkFilenameExtension(String fn) {
         filename = fn;
-        filename = filename.endsWith(".xml") ? filename : filename + ".xml";
+        // Binary files are loaded as they are
+        filename = filename.endsWith(".xml") || filename.endsWith(MappedRectangleStore.EXTENSION) ? filename : filename + ".xml";
     }
 
     private Boolean processArgs(CommandLine cmd, Boolean regularParse) {
@@ -204,6 +683,7 @@ public class OutputHandler {
                 try {
                     idOne = Integer.parseInt(cmd.getArgList().get(1));
                     idTwo = Integer.parseInt(cmd.getArgList().get(2));
+                    checkFilenameExtension(cmd.getArgList().get(0));
                     return true;
                 } catch (NumberFormatException e) {
                     log.error("Error parsing one of the ids passed in, please make sure the id is a number", e);
@@ -216,6 +696,125 @@ public class OutputHandler {
         }
     }
 
+    // Grabs the filename and a set number of integers after it, returns null if anything is missing or not a number
+    private int[] processArgs(CommandLine cmd, int count, String usage) {
+        if (cmd.getArgList().size() != count + 1) {
+            log.error("The number of arguments is not " + (count + 1) + ". Please send in " + usage);
+            return null;
+        }
+
+        int[] values = new int[count];
+        try {
+            for (int i = 0; i < count; i++) {
+                values[i] = Integer.parseInt(cmd.getArgList().get(i + 1));
+            }
+        } catch (NumberFormatException e) {
+            log.error("Error parsing one of the arguments passed in, please make sure it is a number", e);
+            return null;
+        }
+
+        checkFilenameExtension(cmd.getArgList().get(0));
+        return values;
+    }
+
+    private List<Rectangle> getRectanglesFromSlots(RectangleDataset dataset, int[] slots) {
+        List<Rectangle> rectangleList = new ArrayList<>();
+        for (int slot : slots) {
+            rectangleList.add(dataset.getRectangle(slot));
+        }
+        return rectangleList;
+    }
+
+    private int[] toIds(RectangleDataset dataset, int[] slots) {
+        int[] ids = new int[slots.length];
+        for (int i = 0; i < slots.length; i++) {
+            ids[i] = dataset.getId(slots[i]);
+        }
+        return ids;
+    }
+
+    private String joinIds(RectangleDataset dataset, int[] slots) {
+        if (slots.length == 0) {
+            return "None";
+        }
+
+        StringBuilder ids = new StringBuilder();
+        for (int slot : slots) {
+            if (ids.length() > 0) {
+                ids.append(", ");
+            }
+            ids.append(dataset.getId(slot));
+        }
+        return ids.toString();
+    }
+
+    // Results are written through the ResultWriter in input order, returns the number of pairs in the block
+    private long outputBatchBlock(String[] results) {
+        long count = 0;
+        for (String result : results) {
+            if (result != null) {
+                resultWriter.writeRendered(result);
+                count++;
+            }
+        }
+        resultWriter.flush();
+        return count;
+    }
+
+    // Checks one `idA idB [op]` line and renders the result, only reads from the dataset so it is safe to run on many threads
+    private String evaluatePairQuery(RectangleDataset dataset, String line) {
+        String trimmed = line.trim();
+        if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+            return null;
+        }
+
+        String[] parts = trimmed.split("\\s+");
+        String op = parts.length == 3 ? parts[2] : "a";
+        if (parts.length < 2 || parts.length > 3 || !(op.equals("i") || op.equals("c") || op.equals("j") || op.equals("a"))) {
+            return pairError(trimmed, "Please send in <id> <id> [i | c | j | a]");
+        }
+
+        int slotOne;
+        int slotTwo;
+        try {
+            slotOne = dataset.indexOf(Integer.parseInt(parts[0]));
+            slotTwo = dataset.indexOf(Integer.parseInt(parts[1]));
+        } catch (NumberFormatException e) {
+            return pairError(trimmed, "Please make sure each id is a number");
+        }
+        if (slotOne < 0 || slotTwo < 0) {
+            return pairError(trimmed, "ID: " + (slotOne < 0 ? parts[0] : parts[1]) + " was not found among the Rectangles in the file");
+        }
+
+        Result result = new Result("pair")
+                .put("idOne", dataset.getId(slotOne))
+                .put("idTwo", dataset.getId(slotTwo));
+        StringBuilder text = new StringBuilder(parts[0]).append(' ').append(parts[1]).append(' ');
+        if (op.equals("i") || op.equals("a")) {
+            boolean intersects = dataset.intersects(slotOne, slotTwo);
+            text.append("INTERSECT: ").append(intersects ? "Yes" : "No");
+            result.put("intersects", intersects);
+        }
+        if (op.equals("c") || op.equals("a")) {
+            boolean contains = dataset.contains(slotOne, slotTwo);
+            text.append(op.equals("a") ? " | " : "").append("CONTAIN: ").append(contains ? "Yes" : "No");
+            result.put("contains", contains);
+        }
+        if (op.equals("j") || op.equals("a")) {
+            String adjacency = returnStringFromEnum(dataset.adjacency(slotOne, slotTwo));
+            text.append(op.equals("a") ? " | " : "").append("ADJACENT: ").append(adjacency);
+            result.put("adjacency", adjacency);
+        }
+        return resultWriter.render(result.text(text.toString()));
+    }
+
+    private String pairError(String line, String message) {
+        return resultWriter.render(new Result("error")
+                .text(line + " ERROR: " + message)
+                .put("line", line)
+                .put("error", message));
+    }
+
     private String returnStringFromEnum(Rectangle.Adjacency adjacency) {
         if (adjacency == Rectangle.Adjacency.PROPER) {
             return "Proper";
@@ -234,13 +833,13 @@ public class OutputHandler {
         List<Rectangle> tempRect = null;
 
         if (argFlag) {
-            // Grab the list of files
-            List<Rectangle> rectangleList = rectangleParser.getRectangleListFromFile(filename);
+            // Grab the store of Rectangles
+            RectangleDataset dataset = rectangleParser.getRectangleDatasetFromFile(filename);
 
             // Filter for rectangles matching ids given by user
             tempRect = null;
-            if (rectangleList != null && !rectangleList.isEmpty()) {
-                tempRect = rectangleParser.filterRectanglesListByIds(rectangleList, idOne, idTwo);
+            if (dataset != null && dataset.size() > 0) {
+                tempRect = rectangleParser.filterRectangleStoreByIds(dataset, idOne, idTwo);
             }
         }
 
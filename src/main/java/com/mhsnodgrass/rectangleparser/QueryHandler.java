@@ -0,0 +1,139 @@
+package com.mhsnodgrass.rectangleparser;
+
+import com.mhsnodgrass.rectangleparser.index.SpatialIndex;
+import com.mhsnodgrass.rectangleparser.model.RectangleDataset;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/** QueryHandler answers the line protocol used by the {@link ServerRunner}, against datasets that are loaded once and kept in memory.
+ * <p>Each request is one line, `COMMAND [dataset] [arguments]`, and gets one line back, starting with `OK` or `ERROR`:</p>
+ * <p>`DATASETS` lists the name and size of each dataset</p>
+ * <p>`INTERSECT | CONTAIN | ADJACENT &lt;dataset&gt; &lt;id&gt; &lt;id&gt;` checks two Rectangles, adjacency is returned as PROPER, SUBLINE, PARTIAL, or NONE</p>
+ * <p>`WINDOW &lt;dataset&gt; &lt;x&gt; &lt;y&gt; &lt;width&gt; &lt;height&gt;` returns the number of Rectangles that intersect the window and their ids</p>
+ * <p>A dataset is named by its filename without the directory, ie: `rectangles.xml`, and each name has to be unique</p>
+ * <p>The datasets are only read once loaded, so any number of threads can call {@link #handle(String)} at the same time</p>
+ * @author Matthew Snodgrass
+ */
+@Slf4j
+@Component
+public class QueryHandler {
+    @Autowired
+    private RectangleParser rectangleParser;
+
+    private volatile Map<String, LoadedDataset> datasets = Collections.emptyMap();
+
+    /**
+     * <p>Loads each file with {@link RectangleParser} and builds its spatial index, replacing any datasets loaded before</p>
+     * <p>Datasets are named by their filename, so two files with the same name in different directories are refused</p>
+     * @param filenames Files to load, XML or binary ('.rbin')
+     * @throws IllegalArgumentException If two of the files have the same name, the datasets loaded before are kept
+     */
+    public void load(List<String> filenames) {
+        Map<String, LoadedDataset> loaded = new LinkedHashMap<>();
+        Map<String, String> paths = new LinkedHashMap<>();
+        for (String filename : filenames) {
+            String name = new File(filename).getName();
+            String previous = paths.putIfAbsent(name, filename);
+            if (previous != null) {
+                throw new IllegalArgumentException("Datasets " + previous + " and " + filename + " are both named " + name
+                        + ", please give each file in rectangleparser.server.datasets its own name");
+            }
+
+            RectangleDataset dataset = rectangleParser.getRectangleDatasetFromFile(filename);
+            loaded.put(name, new LoadedDataset(dataset, rectangleParser.buildSpatialIndex(dataset)));
+            log.info("Loaded dataset " + name + " with " + dataset.size() + " Rectangles");
+        }
+        datasets = Collections.unmodifiableMap(loaded);
+    }
+
+    /**
+     * Answers one request line
+     * @param line Request line from a client
+     * @return The response line, without a line break
+     */
+    public String handle(String line) {
+        String[] parts = line.trim().split("\\s+");
+        String command = parts[0].toUpperCase(Locale.ROOT);
+
+        if (command.equals("DATASETS")) {
+            StringBuilder response = new StringBuilder("OK");
+            datasets.forEach((name, loaded) -> response.append(' ').append(name).append(':').append(loaded.dataset.size()));
+            return response.toString();
+        }
+
+        int argumentCount;
+        if (command.equals("INTERSECT") || command.equals("CONTAIN") || command.equals("ADJACENT")) {
+            argumentCount = 2;
+        } else if (command.equals("WINDOW")) {
+            argumentCount = 4;
+        } else {
+            return "ERROR Unknown command, please send DATASETS, INTERSECT, CONTAIN, ADJACENT, or WINDOW";
+        }
+        if (parts.length != argumentCount + 2) {
+            return "ERROR " + command + " takes a dataset and " + argumentCount + " numbers";
+        }
+
+        LoadedDataset loaded = datasets.get(parts[1]);
+        if (loaded == null) {
+            return "ERROR Dataset " + parts[1] + " is not loaded";
+        }
+
+        int[] values = new int[argumentCount];
+        try {
+            for (int i = 0; i < argumentCount; i++) {
+                values[i] = Integer.parseInt(parts[i + 2]);
+            }
+        } catch (NumberFormatException e) {
+            return "ERROR Please make sure each argument after the dataset is a number";
+        }
+
+        if (command.equals("WINDOW")) {
+            return window(loaded, values);
+        }
+
+        RectangleDataset dataset = loaded.dataset;
+        int slotOne = dataset.indexOf(values[0]);
+        int slotTwo = dataset.indexOf(values[1]);
+        if (slotOne < 0 || slotTwo < 0) {
+            return "ERROR ID: " + (slotOne < 0 ? values[0] : values[1]) + " was not found in " + parts[1];
+        }
+
+        if (command.equals("INTERSECT")) {
+            return "OK " + (dataset.intersects(slotOne, slotTwo) ? "Yes" : "No");
+        } else if (command.equals("CONTAIN")) {
+            return "OK " + (dataset.contains(slotOne, slotTwo) ? "Yes" : "No");
+        } else {
+            return "OK " + dataset.adjacency(slotOne, slotTwo);
+        }
+    }
+
+    // Helper Methods
+    private String window(LoadedDataset loaded, int[] values) {
+        int[] slots = rectangleParser.window(loaded.dataset, loaded.index, values[0], values[1], values[2], values[3]);
+
+        StringBuilder response = new StringBuilder("OK ").append(slots.length);
+        for (int slot : slots) {
+            response.append(' ').append(loaded.dataset.getId(slot));
+        }
+        return response.toString();
+    }
+
+    // A dataset and the index built over it
+    private static class LoadedDataset {
+        private final RectangleDataset dataset;
+        private final SpatialIndex index;
+
+        LoadedDataset(RectangleDataset dataset, SpatialIndex index) {
+            this.dataset = dataset;
+            this.index = index;
+        }
+    }
+}
@@ -1,16 +1,38 @@
 package com.mhsnodgrass.rectangleparser;
 
+import com.mhsnodgrass.rectangleparser.analysis.AdjacencyGraph;
+import com.mhsnodgrass.rectangleparser.analysis.Clusters;
+import com.mhsnodgrass.rectangleparser.analysis.ContainmentForest;
+import com.mhsnodgrass.rectangleparser.analysis.CoverageArea;
+import com.mhsnodgrass.rectangleparser.analysis.PairVisitor;
+import com.mhsnodgrass.rectangleparser.analysis.PlaneSweep;
+import com.mhsnodgrass.rectangleparser.index.GridIndex;
+import com.mhsnodgrass.rectangleparser.index.RTree;
+import com.mhsnodgrass.rectangleparser.index.SpatialIndex;
+import com.mhsnodgrass.rectangleparser.index.StabbingIndex;
+import com.mhsnodgrass.rectangleparser.model.MappedRectangleStore;
 import com.mhsnodgrass.rectangleparser.model.Rectangle;
+import com.mhsnodgrass.rectangleparser.model.RectangleDataset;
+import com.mhsnodgrass.rectangleparser.model.RectangleStore;
+import com.mhsnodgrass.rectangleparser.util.DatasetCache;
+import com.mhsnodgrass.rectangleparser.util.GeometryUtils;
+import com.mhsnodgrass.rectangleparser.util.ParserMetrics;
 import com.mhsnodgrass.rectangleparser.util.RectangleUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.tuple.Pair;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 
 /** RectangleParser handles the {@link Rectangle} methods used by the {@link OutputHandler}
  * @author Matthew Snodgrass
@@ -21,6 +43,15 @@ public class RectangleParser {
     @Autowired
     private RectangleUtils rectangleUtils;
 
+    @Autowired
+    private DatasetCache datasetCache;
+
+    @Autowired
+    private ParserMetrics parserMetrics;
+
+    @Value("${rectangleparser.index.type:rtree}")
+    private String indexType = "rtree";
+
     /**
      * Takes in a List of two Rectangles and checks if they intersect
      * @param rect A list of two Rectangles
@@ -30,12 +61,243 @@ public class RectangleParser {
        List<Pair<Integer, Integer>> results = new ArrayList<>();
 
         if (rect != null) {
-            results = rect.get(0).getIntersect(rect.get(1));
+            try (ParserMetrics.Phase ignored = parserMetrics.start(ParserMetrics.INTERSECT)) {
+                results = rect.get(0).getIntersect(rect.get(1));
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * <p>Takes in a RectangleDataset and finds the k Rectangles closest to the Rectangle in a slot, by the distance between their edges</p>
+     * <p>Rectangles that touch or intersect it are 0 away. Uses a best-first search of an {@link RTree} (see {@link RTree#nearest}),
+     * so only the Rectangles around it are measured</p>
+     * @param store The RectangleDataset the index was built from
+     * @param index An RTree built from the store
+     * @param slot Slot of the Rectangle to start from, it is never in the results
+     * @param k Number of Rectangles to find
+     * @return Up to k slots, closest first, Rectangles the same distance away are in store order
+     */
+    public int[] nearest(RectangleDataset store, RTree index, int slot, int k) {
+        int[] results = new int[0];
+
+        if (store != null && slot >= 0 && slot < store.size()) {
+            try (ParserMetrics.Phase ignored = parserMetrics.start(ParserMetrics.NEAREST)) {
+                int x = store.getX(slot);
+                int y = store.getY(slot);
+                results = index.nearest(x, y - store.getHeight(slot), x + store.getWidth(slot), y, k, other -> other != slot);
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Takes in a List of two Rectangles and works out the region they both cover, in constant time
+     * @param rect A list of two Rectangles
+     * @return A Rectangle (with no id) covering the overlap, or null if the Rectangles do not intersect
+     */
+    public Rectangle intersectRegion(List<Rectangle> rect) {
+        Rectangle results = null;
+
+        if (rect != null) {
+            try (ParserMetrics.Phase ignored = parserMetrics.start(ParserMetrics.INTERSECT)) {
+                results = rect.get(0).getIntersectRegion(rect.get(1));
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Takes in a List of two Rectangles and gives the intersecting coordinates one at a time, packed into longs (see {@link Rectangle#getIntersectPoints(Rectangle)})
+     * @param rect A list of two Rectangles
+     * @return A lazy iterator over the intersecting coordinates
+     */
+    public PrimitiveIterator.OfLong intersectPoints(List<Rectangle> rect) {
+        PrimitiveIterator.OfLong results = LongStream.empty().iterator();
+
+        if (rect != null) {
+            results = rect.get(0).getIntersectPoints(rect.get(1));
+        }
+
+        return results;
+    }
+
+    /**
+     * <p>Takes in a RectangleDataset and measures the area covered by its Rectangles, and the area covered by two or more of them</p>
+     * <p>Uses a sweep line with a segment tree over the y coordinates (see {@link CoverageArea}), so overlapping Rectangles are only counted once</p>
+     * @param store A RectangleDataset
+     * @return The union area and the overlap area of the Rectangles
+     */
+    public CoverageArea coverage(RectangleDataset store) {
+        return CoverageArea.compute(store);
+    }
+
+    /**
+     * <p>Takes in a RectangleDataset and finds every pair of Rectangles that intersect, including perfect overlaps</p>
+     * <p>Uses a sweep line (see {@link PlaneSweep}), so the cost grows with the number of pairs found instead of every possible pair.
+     * When rectangleparser.index.type is grid, only Rectangles in the same cell of a {@link GridIndex} are compared instead</p>
+     * @param store A RectangleDataset
+     * @param visitor Receives the slots of each intersecting pair
+     * @return The number of intersecting pairs
+     */
+    public long intersectAll(RectangleDataset store, PairVisitor visitor) {
+        long results = 0;
+
+        if (store != null) {
+            if (isGridIndex()) {
+                results = GridIndex.build(store).forEachIntersectingPair(store, visitor);
+            } else {
+                results = PlaneSweep.forEachIntersectingPair(store, visitor);
+            }
         }
 
         return results;
     }
 
+    /**
+     * <p>Takes in a RectangleDataset and links every Rectangle to its tightest container, same rules as {@link Rectangle#doesContain(Rectangle)}</p>
+     * <p>Uses a sweep over the left edges that only looks up the newest open container (see {@link ContainmentForest})</p>
+     * @param store A RectangleDataset
+     * @return The parent and depth of every Rectangle, by slot
+     */
+    public ContainmentForest nesting(RectangleDataset store) {
+        return ContainmentForest.build(store);
+    }
+
+    /**
+     * <p>Takes in a RectangleDataset and finds every pair of adjacent Rectangles, same rules as {@link Rectangle#isAdjacent(Rectangle)}</p>
+     * <p>Only Rectangles with sides that line up are checked (see {@link AdjacencyGraph})</p>
+     * @param store A RectangleDataset
+     * @return An edge list with the type of adjacency of each pair
+     */
+    public AdjacencyGraph adjacencyGraph(RectangleDataset store) {
+        return AdjacencyGraph.build(store);
+    }
+
+    /**
+     * <p>Takes in a RectangleDataset and groups the Rectangles that intersect or are adjacent, directly or through other Rectangles</p>
+     * <p>Pairs are found with the sweep line of {@link PlaneSweep} and joined as they are found (see {@link Clusters})</p>
+     * @param store A RectangleDataset
+     * @return The cluster of every Rectangle, by slot, and the size of each cluster
+     */
+    public Clusters clusters(RectangleDataset store) {
+        return Clusters.build(store);
+    }
+
+    /**
+     * <p>Takes in a RectangleDataset and builds a spatial index over it, used by the window, point, and id queries</p>
+     * <p>rectangleparser.index.type picks the index, rtree bulk loads an {@link RTree} and grid builds a {@link GridIndex}</p>
+     * @param store A RectangleDataset
+     * @return A SpatialIndex holding every Rectangle in the store
+     */
+    public SpatialIndex buildSpatialIndex(RectangleDataset store) {
+        return isGridIndex() ? GridIndex.build(store) : RTree.build(store);
+    }
+
+    /**
+     * Takes in a RectangleDataset and bulk loads an {@link RTree} over it whatever rectangleparser.index.type is, used by the nearest query
+     * @param store A RectangleDataset
+     * @return An RTree holding every Rectangle in the store
+     */
+    public RTree buildRTree(RectangleDataset store) {
+        return RTree.build(store);
+    }
+
+    /**
+     * <p>Finds every Rectangle that intersects a window, using the same rules as {@link Rectangle#doesIntersect(Rectangle)}</p>
+     * <p>The window uses the same layout as a Rectangle, x and y are the top left coordinate</p>
+     * @param store The RectangleDataset the index was built from
+     * @param index A SpatialIndex built from the store
+     * @param x Top left x coordinate of the window
+     * @param y Top left y coordinate of the window
+     * @param width Width of the window
+     * @param height Height of the window
+     * @return The slots of the Rectangles found, in store order
+     */
+    public int[] window(RectangleDataset store, SpatialIndex index, int x, int y, int width, int height) {
+        IntStream.Builder results = IntStream.builder();
+
+        index.search(x, y - height, x + width, y, slot -> {
+            if (GeometryUtils.intersects(x, y, width, height, store.getX(slot), store.getY(slot), store.getWidth(slot), store.getHeight(slot))) {
+                results.add(slot);
+            }
+        });
+
+        return results.build().sorted().toArray();
+    }
+
+    /**
+     * Finds every Rectangle whose bounds contain a point, edges included
+     * @param index A SpatialIndex built from the store
+     * @param x X coordinate of the point
+     * @param y Y coordinate of the point
+     * @return The slots of the Rectangles found, in store order
+     */
+    public int[] containingPoint(SpatialIndex index, int x, int y) {
+        IntStream.Builder results = IntStream.builder();
+        index.search(x, y, x, y, results::add);
+        return results.build().sorted().toArray();
+    }
+
+    /**
+     * Takes in a RectangleDataset and builds a {@link StabbingIndex} over it, used by the point query
+     * @param store A RectangleDataset
+     * @return A StabbingIndex holding every Rectangle in the store
+     */
+    public StabbingIndex buildStabbingIndex(RectangleDataset store) {
+        return StabbingIndex.build(store);
+    }
+
+    /**
+     * <p>Finds every Rectangle whose bounds contain a point, edges included, same results as {@link #containingPoint(SpatialIndex, int, int)}</p>
+     * <p>Takes O(log&sup2; n + k) time for k results however much the Rectangles overlap</p>
+     * @param index A StabbingIndex built from the store
+     * @param x X coordinate of the point
+     * @param y Y coordinate of the point
+     * @return The slots of the Rectangles found, in store order
+     */
+    public int[] stab(StabbingIndex index, int x, int y) {
+        IntStream.Builder results = IntStream.builder();
+        index.stab(x, y, results::add);
+        return results.build().sorted().toArray();
+    }
+
+    /**
+     * Finds every other Rectangle that intersects the Rectangle in a slot, same rules as {@link Rectangle#doesIntersect(Rectangle)}
+     * @param store The RectangleDataset the index was built from
+     * @param index A SpatialIndex built from the store
+     * @param slot Slot of the Rectangle to check
+     * @return The slots of the Rectangles found, in store order
+     */
+    public int[] intersecting(RectangleDataset store, SpatialIndex index, int slot) {
+        return searchAround(store, index, slot, other -> store.intersects(slot, other));
+    }
+
+    /**
+     * Finds every Rectangle the Rectangle in a slot contains, same rules as {@link Rectangle#doesContain(Rectangle)}
+     * @param store The RectangleDataset the index was built from
+     * @param index A SpatialIndex built from the store
+     * @param slot Slot of the Rectangle to check
+     * @return The slots of the Rectangles found, in store order
+     */
+    public int[] containedBy(RectangleDataset store, SpatialIndex index, int slot) {
+        return searchAround(store, index, slot, other -> store.contains(slot, other));
+    }
+
+    /**
+     * Finds every Rectangle that is adjacent to the Rectangle in a slot, same rules as {@link Rectangle#isAdjacent(Rectangle)}
+     * @param store The RectangleDataset the index was built from
+     * @param index A SpatialIndex built from the store
+     * @param slot Slot of the Rectangle to check
+     * @return The slots of the Rectangles found, in store order
+     */
+    public int[] adjacentTo(RectangleDataset store, SpatialIndex index, int slot) {
+        return searchAround(store, index, slot, other -> store.adjacency(slot, other) != Rectangle.Adjacency.NONE);
+    }
+
     /**
      * Takes in a List of two Rectangles and check if Rectangle #1 contains Rectangle #2
      * @param rect A list of two Rectangles
@@ -45,7 +307,9 @@ public class RectangleParser {
         Boolean results = false;
 
         if (rect != null) {
-            results = rect.get(0).doesContain(rect.get(1));
+            try (ParserMetrics.Phase ignored = parserMetrics.start(ParserMetrics.CONTAIN)) {
+                results = rect.get(0).doesContain(rect.get(1));
+            }
         }
 
         return results;
@@ -60,55 +324,178 @@ public class RectangleParser {
         Rectangle.Adjacency results = Rectangle.Adjacency.NONE;
 
         if (rect != null) {
-            results = rect.get(0).isAdjacent(rect.get(1));
+            try (ParserMetrics.Phase ignored = parserMetrics.start(ParserMetrics.ADJACENT)) {
+                results = rect.get(0).isAdjacent(rect.get(1));
+            }
         }
 
         return results;
     }
 
     /**
-     * Takes in a filename, creates an XML file, and generates Rectangle Objects from that file using {@link RectangleUtils}
+     * <p>Takes in a filename and generates Rectangle Objects from that file</p>
+     * <p>The Rectangles are loaded with {@link #getRectangleDatasetFromFile(String)}, so an unchanged file is not parsed again</p>
      * @param filename The filename for the file to be processed
-     * @return A List of Rectangles from the XML file
+     * @return A List of Rectangles from the file
      */
     public List<Rectangle> getRectangleListFromFile(String filename) {
+        RectangleDataset dataset = getRectangleDatasetFromFile(filename);
+
+        // Grab list of rectangles
+        try (ParserMetrics.Phase ignored = parserMetrics.start(ParserMetrics.CONSTRUCT)) {
+            return new ArrayList<>(dataset.asList());
+        }
+    }
+
+    /**
+     * Takes in a filename, creates an XML file, and loads the Rectangles into a {@link RectangleStore} using {@link RectangleUtils}
+     * @param filename The filename for the file to be processed
+     * @return A RectangleStore holding the Rectangles from the XML file
+     */
+    public RectangleStore getRectangleStoreFromFile(String filename) {
         // Read in file
         File xmlFile = new File(filename);
-        // Grab list of rectangles
-        List<Rectangle> rectangleList = rectangleUtils.parseXmlToListOfRectangles(xmlFile);
+        // Grab store of rectangles
+        return rectangleUtils.parseXmlToRectangleStore(xmlFile);
+    }
+
+    /**
+     * <p>Takes in a filename and loads the Rectangles from it, binary files (ending in '.rbin') are memory mapped with
+     * {@link MappedRectangleStore} and anything else is parsed as XML with {@link #getRectangleStoreFromFile(String)}</p>
+     * <p>XML files go through the {@link DatasetCache}, so a file that has not changed since it was last loaded is not parsed again</p>
+     * <p>If the binary file can not be opened, the error is logged and an empty store is returned</p>
+     * @param filename The filename for the file to be processed
+     * @return A RectangleDataset holding the Rectangles from the file, the load is timed as the {@link ParserMetrics#LOAD} phase
+     */
+    public RectangleDataset getRectangleDatasetFromFile(String filename) {
+        try (ParserMetrics.Phase ignored = parserMetrics.start(ParserMetrics.LOAD)) {
+            if (!filename.endsWith(MappedRectangleStore.EXTENSION)) {
+                return datasetCache.get(new File(filename), xmlFile -> rectangleUtils.parseXmlToRectangleStore(xmlFile));
+            }
 
-        return  rectangleList;
+            File binaryFile = new File(filename);
+            try {
+                return MappedRectangleStore.open(binaryFile);
+            } catch (IOException e) {
+                log.error("Error retrieving file: " + binaryFile.getName() + ".", e);
+                return new RectangleStore();
+            }
+        }
     }
 
     /**
-     * Takes in a List of Rectangles and filters it by two ids given by the user
+     * <p>Takes in the filename of an XML file, loads the Rectangles, and writes them to a binary file (see {@link MappedRectangleStore})</p>
+     * <p>Bad and duplicate Rectangles are skipped the same way as any other load, so the binary file only holds the good ones</p>
+     * @param filename The filename for the XML file to be converted
+     * @param binaryFilename The filename for the binary file to be written
+     * @return The number of Rectangles written, or -1 if the binary file could not be written
+     */
+    public int convertToBinary(String filename, String binaryFilename) {
+        RectangleStore store = getRectangleStoreFromFile(filename);
+        File binaryFile = new File(binaryFilename);
+        try {
+            MappedRectangleStore.write(store, binaryFile);
+            return store.size();
+        } catch (IOException e) {
+            log.error("Error writing file: " + binaryFile.getName() + ".", e);
+            return -1;
+        }
+    }
+
+    /**
+     * Takes in a RectangleDataset and grabs the Rectangles for two ids given by the user, each id is a single lookup in the dataset's id index
+     * @param store A RectangleDataset
+     * @param idOne First ID from the user
+     * @param idTwo Second ID from the user
+     * @return A new List containing two Rectangles, or null if either id was not found
+     */
+    public List<Rectangle> filterRectangleStoreByIds(RectangleDataset store, Integer idOne, Integer idTwo) {
+        try (ParserMetrics.Phase ignored = parserMetrics.start(ParserMetrics.FILTER)) {
+            List<Rectangle> tempList = new ArrayList<>();
+
+            // Grab each slot by their Id
+            int slotOne = store.indexOf(idOne);
+            int slotTwo = store.indexOf(idTwo);
+
+            // Confirm Rectangles were found
+            if (slotOne >= 0) {
+                if (slotTwo >= 0) {
+                    // Create each Rectangle and add them to a single list
+                    tempList.add(store.getRectangle(slotOne));
+                    tempList.add(store.getRectangle(slotTwo));
+                } else {
+                    tempList = null;
+                    log.error("ID: " + idTwo + " was not found among the Rectangles in the XML file");
+                }
+            } else {
+                tempList = null;
+                log.error("ID: " + idOne + " was not found among the Rectangles in the XML file");
+            }
+
+            return tempList;
+        }
+    }
+
+    /**
+     * <p>Takes in a List of Rectangles and filters it by two ids given by the user</p>
+     * <p>Walks the List once, for repeated lookups load a {@link RectangleStore} and use {@link #filterRectangleStoreByIds} instead</p>
      * @param rect A List of Rectangles
      * @param idOne First ID from the user
      * @param idTwo Second ID from the user
      * @return A new List containing two Rectangles
      */
     public List<Rectangle> filterRectanglesListByIds(List<Rectangle> rect, Integer idOne, Integer idTwo) {
-        List<Rectangle> tempList = new ArrayList<>();
-
-        // Grab each Rectangle by their Id, add them to list
-        List<Rectangle> rect1 = rect.stream().filter(r -> r.getId() == idOne).collect(Collectors.toList());
-        List<Rectangle> rect2 = rect.stream().filter(r -> r.getId() == idTwo).collect(Collectors.toList());
-
-        // Confirm Rectangles were found
-        if (rect1 != null && !rect1.isEmpty() && rect1.get(0) != null && rect1.size() == 1) {
-            if (rect2 != null && !rect2.isEmpty() && rect2.get(0) != null && rect2.size() == 1) {
-                // Grab each Rectangle and add them to a single list
-                tempList.add(rect1.get(0));
-                tempList.add(rect2.get(0));
+        try (ParserMetrics.Phase ignored = parserMetrics.start(ParserMetrics.FILTER)) {
+            List<Rectangle> tempList = new ArrayList<>();
+            Rectangle rect1 = null;
+            Rectangle rect2 = null;
+
+            // Grab each Rectangle by their Id, ids are compared by value
+            for (Rectangle r : rect) {
+                if (rect1 == null && Objects.equals(r.getId(), idOne)) {
+                    rect1 = r;
+                }
+                if (rect2 == null && Objects.equals(r.getId(), idTwo)) {
+                    rect2 = r;
+                }
+            }
+
+            // Confirm Rectangles were found
+            if (rect1 != null) {
+                if (rect2 != null) {
+                    // Grab each Rectangle and add them to a single list
+                    tempList.add(rect1);
+                    tempList.add(rect2);
+                } else {
+                    tempList = null;
+                    log.error("ID: " + idTwo + " was not found among the Rectangles in the XML file");
+                }
             } else {
                 tempList = null;
-                log.error("ID: " + idTwo + " was not found among the Rectangles in the XML file");
+                log.error("ID: " + idOne + " was not found among the Rectangles in the XML file");
             }
-        } else {
-            tempList = null;
-            log.error("ID: " + idOne + " was not found among the Rectangles in the XML file");
+
+            return tempList;
         }
+    }
+
+    // Helper Methods
+    private boolean isGridIndex() {
+        return "grid".equalsIgnoreCase(indexType.trim());
+    }
+
+    // Every Rectangle that touches the one in the slot is a candidate, the check decides which ones are kept
+    private int[] searchAround(RectangleDataset store, SpatialIndex index, int slot, IntPredicate check) {
+        IntStream.Builder results = IntStream.builder();
+        int x = store.getX(slot);
+        int y = store.getY(slot);
+
+        index.search(x, y - store.getHeight(slot), x + store.getWidth(slot), y, other -> {
+            if (other != slot && check.test(other)) {
+                results.add(other);
+            }
+        });
 
-        return tempList;
+        return results.build().sorted().toArray();
     }
 }
@@ -0,0 +1,165 @@
+package com.mhsnodgrass.rectangleparser;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/** ServerRunner keeps the program running as a query server, used in place of the {@link CommandRunner} when rectangleparser.server.enabled is true.
+ * <p>The datasets in rectangleparser.server.datasets are loaded once, then each client connection is served on a bounded worker pool</p>
+ * <p>Clients send one request per line and get one response per line, see {@link QueryHandler} for the commands. `QUIT` closes the connection</p>
+ * <p>Listens on a local TCP socket (rectangleparser.server.address and rectangleparser.server.port)</p>
+ * @author Matthew Snodgrass
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "rectangleparser.server.enabled", havingValue = "true")
+public class ServerRunner implements CommandLineRunner {
+    @Value("${rectangleparser.server.address:127.0.0.1}")
+    private String address;
+
+    @Value("${rectangleparser.server.port:7070}")
+    private int port;
+
+    @Value("${rectangleparser.server.threads:8}")
+    private int threads;
+
+    @Value("${rectangleparser.server.queue:64}")
+    private int queue;
+
+    @Value("${rectangleparser.server.client-timeout:300000}")
+    private int clientTimeout;
+
+    @Value("${rectangleparser.server.datasets:${rectangleparser.default.filename}}")
+    private List<String> datasets;
+
+    @Autowired
+    private QueryHandler queryHandler;
+
+    private volatile ServerSocket serverSocket;
+    private ThreadPoolExecutor workers;
+
+    /**
+     * <p>Loads the datasets, opens the server socket, and starts accepting clients on a separate thread</p>
+     * <p>Returns once the server is listening, the accepting thread keeps the program running until it is stopped</p>
+     * @param args Arguments from the command line, not used by the server
+     * @throws IOException If the server socket can not be opened
+     */
+    public void run(String... args) throws IOException {
+        queryHandler.load(datasets);
+
+        workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(Math.max(queue, 1)));
+        serverSocket = new ServerSocket();
+        serverSocket.bind(new InetSocketAddress(InetAddress.getByName(address), port));
+        log.info("Rectangle query server listening on " + serverSocket.getLocalSocketAddress());
+
+        Thread acceptor = new Thread(this::acceptClients, "rectangleparser-acceptor");
+        acceptor.start();
+    }
+
+    /**
+     * Gets the port the server is listening on, useful when rectangleparser.server.port is 0 and the port is picked by the system
+     * @return The local port, or -1 if the server is not running
+     */
+    public int getPort() {
+        ServerSocket socket = serverSocket;
+        return socket == null ? -1 : socket.getLocalPort();
+    }
+
+    /**
+     * Closes the server socket and stops the workers, called when the application shuts down
+     */
+    @PreDestroy
+    public void stop() {
+        try {
+            if (serverSocket != null) {
+                serverSocket.close();
+            }
+        } catch (IOException e) {
+            log.error("Error closing the server socket", e);
+        }
+        if (workers != null) {
+            workers.shutdownNow();
+        }
+    }
+
+    // Helper Methods
+    private void acceptClients() {
+        while (!serverSocket.isClosed()) {
+            Socket client;
+            try {
+                client = serverSocket.accept();
+            } catch (SocketException e) {
+                // Closed by stop()
+                break;
+            } catch (IOException e) {
+                log.error("Error accepting a client", e);
+                continue;
+            }
+
+            try {
+                workers.execute(() -> serveClient(client));
+            } catch (RejectedExecutionException e) {
+                rejectClient(client);
+            }
+        }
+    }
+
+    private void serveClient(Socket client) {
+        try (Socket socket = client;
+             BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             Writer writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            socket.setSoTimeout(clientTimeout);
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().equalsIgnoreCase("QUIT")) {
+                    break;
+                }
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                writer.write(queryHandler.handle(line));
+                writer.write('\n');
+                // Flush once there are no more requests waiting, so pipelined requests share a write
+                if (!reader.ready()) {
+                    writer.flush();
+                }
+            }
+            writer.flush();
+        } catch (IOException e) {
+            log.warn("Connection with client ended: " + e.getMessage());
+        }
+    }
+
+    // Tells the client the server is busy, every worker is in use and the queue is full
+    private void rejectClient(Socket client) {
+        try (Socket socket = client;
+             Writer writer = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8)) {
+            writer.write("ERROR Server is busy, please try again later\n");
+        } catch (IOException e) {
+            log.warn("Error rejecting client: " + e.getMessage());
+        }
+    }
+}
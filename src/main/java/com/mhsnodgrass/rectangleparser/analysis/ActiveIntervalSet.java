@@ -0,0 +1,202 @@
+package com.mhsnodgrass.rectangleparser.analysis;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/** The active set of a sweep line, holds closed intervals on one axis and finds the ones overlapping a query interval.
+ * <p>Built over a fixed, sorted set of coordinates, every interval end and query end has to be one of them</p>
+ * <p>A segment tree stores each interval on the nodes that cover it (for intervals that contain the query start),
+ * and a second count tree finds intervals that start inside the query (for the rest)</p>
+ * <p>Both are linked lists in flat int arrays, removed intervals are dropped lazily the next time a list is walked</p>
+ * <p>Each slot can only be inserted once</p>
+ * @author Matthew Snodgrass
+ */
+class ActiveIntervalSet {
+    private static final int NONE = -1;
+
+    private final int[] coordinates;
+    private final int leaves;
+
+    // Segment tree (heap layout, leaves start at index leaves), each node is the head of a list of entries
+    private final int[] coverHead;
+    // Per leaf list of intervals starting at that coordinate, and the count of live starts below each node
+    private final int[] startHead;
+    private final int[] startCount;
+
+    // Shared entry pool for every list
+    private int[] entrySlot;
+    private int[] entryNext;
+    private int entryCount;
+    private int freeEntry = NONE;
+
+    // Per slot state
+    private final boolean[] active;
+    private final int[] startLeaf;
+
+    /**
+     * Creates an empty set
+     * @param coordinates Sorted, distinct coordinates every interval end will use
+     * @param slots Number of slots that may be inserted (slots run from 0 to slots - 1)
+     */
+    ActiveIntervalSet(int[] coordinates, int slots) {
+        this.coordinates = coordinates;
+        int size = 1;
+        while (size < Math.max(coordinates.length, 1)) {
+            size <<= 1;
+        }
+        leaves = size;
+
+        coverHead = new int[leaves * 2];
+        Arrays.fill(coverHead, NONE);
+        startHead = new int[leaves];
+        Arrays.fill(startHead, NONE);
+        startCount = new int[leaves * 2];
+
+        int initialEntries = Math.max(16, slots * 2);
+        entrySlot = new int[initialEntries];
+        entryNext = new int[initialEntries];
+
+        active = new boolean[slots];
+        startLeaf = new int[slots];
+    }
+
+    /**
+     * Adds a closed interval
+     * @param slot Slot the interval belongs to
+     * @param low Start of the interval
+     * @param high End of the interval
+     */
+    void insert(int slot, int low, int high) {
+        int a = leafOf(low);
+        int b = leafOf(high);
+
+        // Cover the range [a, b] with the fewest nodes
+        int l = a + leaves;
+        int r = b + leaves + 1;
+        while (l < r) {
+            if ((l & 1) == 1) {
+                coverHead[l] = push(slot, coverHead[l]);
+                l++;
+            }
+            if ((r & 1) == 1) {
+                r--;
+                coverHead[r] = push(slot, coverHead[r]);
+            }
+            l >>= 1;
+            r >>= 1;
+        }
+
+        // Record the start
+        startHead[a] = push(slot, startHead[a]);
+        for (int node = a + leaves; node >= 1; node >>= 1) {
+            startCount[node]++;
+        }
+
+        active[slot] = true;
+        startLeaf[slot] = a;
+    }
+
+    /**
+     * Removes the interval for a slot, its list entries are dropped the next time they are walked
+     * @param slot Slot to remove
+     */
+    void remove(int slot) {
+        if (!active[slot]) {
+            return;
+        }
+        active[slot] = false;
+        for (int node = startLeaf[slot] + leaves; node >= 1; node >>= 1) {
+            startCount[node]--;
+        }
+    }
+
+    /**
+     * Visits every active slot whose interval shares at least one point with [low, high]
+     * @param low Start of the query
+     * @param high End of the query
+     * @param consumer Receives each slot once
+     */
+    void forEachOverlapping(int low, int high, IntConsumer consumer) {
+        forEachContaining(low, consumer);
+
+        // Intervals starting after low, up to high
+        int a = leafOf(low) + 1;
+        int b = leafOf(high);
+        if (a <= b) {
+            visitStarts(1, 0, leaves - 1, a, b, consumer);
+        }
+    }
+
+    /**
+     * Visits every active slot whose interval contains the point
+     * @param point Coordinate to check
+     * @param consumer Receives each slot once
+     */
+    void forEachContaining(int point, IntConsumer consumer) {
+        for (int node = leafOf(point) + leaves; node >= 1; node >>= 1) {
+            coverHead[node] = walk(coverHead[node], consumer);
+        }
+    }
+
+    // Helper functions
+    private int leafOf(int coordinate) {
+        int leaf = Arrays.binarySearch(coordinates, coordinate);
+        if (leaf < 0) {
+            throw new IllegalArgumentException("Coordinate " + coordinate + " is not part of the set");
+        }
+        return leaf;
+    }
+
+    private void visitStarts(int node, int nodeLow, int nodeHigh, int a, int b, IntConsumer consumer) {
+        if (startCount[node] == 0 || nodeHigh < a || nodeLow > b) {
+            return;
+        }
+        if (nodeLow == nodeHigh) {
+            startHead[nodeLow] = walk(startHead[nodeLow], consumer);
+            return;
+        }
+        int middle = (nodeLow + nodeHigh) >>> 1;
+        visitStarts(node * 2, nodeLow, middle, a, b, consumer);
+        visitStarts(node * 2 + 1, middle + 1, nodeHigh, a, b, consumer);
+    }
+
+    // Visits the live entries of a list and unlinks the removed ones, returns the new head
+    private int walk(int head, IntConsumer consumer) {
+        int previous = NONE;
+        int entry = head;
+        while (entry != NONE) {
+            int next = entryNext[entry];
+            if (active[entrySlot[entry]]) {
+                consumer.accept(entrySlot[entry]);
+                previous = entry;
+            } else {
+                if (previous == NONE) {
+                    head = next;
+                } else {
+                    entryNext[previous] = next;
+                }
+                entryNext[entry] = freeEntry;
+                freeEntry = entry;
+            }
+            entry = next;
+        }
+        return head;
+    }
+
+    private int push(int slot, int next) {
+        int entry;
+        if (freeEntry != NONE) {
+            entry = freeEntry;
+            freeEntry = entryNext[entry];
+        } else {
+            if (entryCount == entrySlot.length) {
+                entrySlot = Arrays.copyOf(entrySlot, entryCount * 2);
+                entryNext = Arrays.copyOf(entryNext, entryCount * 2);
+            }
+            entry = entryCount++;
+        }
+        entrySlot[entry] = slot;
+        entryNext[entry] = next;
+        return entry;
+    }
+}
@@ -0,0 +1,199 @@
+package com.mhsnodgrass.rectangleparser.analysis;
+
+import com.mhsnodgrass.rectangleparser.model.Rectangle;
+import com.mhsnodgrass.rectangleparser.model.RectangleDataset;
+import com.mhsnodgrass.rectangleparser.util.IntIntHashMap;
+
+import java.util.Arrays;
+
+/** The adjacency graph of a dataset, an edge list of every pair of Rectangles that is adjacent.
+ * <p>Each edge has the same label as {@link Rectangle#isAdjacent(Rectangle)} gives for the pair, lower slot first (PROPER, SUBLINE, or PARTIAL)</p>
+ * <p>Adjacent Rectangles always share a point on a side of each, and any shared point that matters is on two horizontal sides at the
+ * same y or two vertical sides at the same x (a side of a zero size Rectangle is a point, which is both). So the sides are put
+ * in hash buckets, horizontal sides by y and vertical sides by x, and each bucket is sorted by where the sides start and swept to
+ * find the sides that overlap. Only those pairs are checked</p>
+ * <p>The cost is O(n log n + k log k) for k pairs of overlapping sides, not the n&sup2; of checking every pair</p>
+ * @author Matthew Snodgrass
+ */
+public final class AdjacencyGraph {
+    private final int[] slotOnes;
+    private final int[] slotTwos;
+    private final Rectangle.Adjacency[] labels;
+
+    private AdjacencyGraph(int[] slotOnes, int[] slotTwos, Rectangle.Adjacency[] labels) {
+        this.slotOnes = slotOnes;
+        this.slotTwos = slotTwos;
+        this.labels = labels;
+    }
+
+    /**
+     * Builds the adjacency graph for every Rectangle in the dataset
+     * @param store Rectangles to check
+     * @return A new AdjacencyGraph, later changes to the store are not picked up
+     */
+    public static AdjacencyGraph build(RectangleDataset store) {
+        int size = store.size();
+        int[] left = new int[size];
+        int[] right = new int[size];
+        int[] top = new int[size];
+        int[] bottom = new int[size];
+        for (int slot = 0; slot < size; slot++) {
+            left[slot] = store.getX(slot);
+            right[slot] = left[slot] + store.getWidth(slot);
+            top[slot] = store.getY(slot);
+            bottom[slot] = top[slot] - store.getHeight(slot);
+        }
+
+        // Horizontal sides sit at a y and run along x, vertical sides sit at an x and run along y
+        PairList candidates = new PairList();
+        overlappingSides(top, bottom, left, right, candidates);
+        overlappingSides(left, right, bottom, top, candidates);
+        long[] pairs = candidates.sortedDistinct();
+
+        int[] slotOnes = new int[pairs.length];
+        int[] slotTwos = new int[pairs.length];
+        Rectangle.Adjacency[] labels = new Rectangle.Adjacency[pairs.length];
+        int count = 0;
+        for (long pair : pairs) {
+            int slotOne = (int) (pair >>> 32);
+            int slotTwo = (int) pair;
+            Rectangle.Adjacency adjacency = store.adjacency(slotOne, slotTwo);
+            if (adjacency != Rectangle.Adjacency.NONE) {
+                slotOnes[count] = slotOne;
+                slotTwos[count] = slotTwo;
+                labels[count] = adjacency;
+                count++;
+            }
+        }
+
+        return new AdjacencyGraph(Arrays.copyOf(slotOnes, count), Arrays.copyOf(slotTwos, count), Arrays.copyOf(labels, count));
+    }
+
+    // Getters
+    /**
+     * Gets the number of edges, one for each adjacent pair
+     * @return The number of adjacent pairs
+     */
+    public int size() {
+        return labels.length;
+    }
+
+    /**
+     * Gets the first Rectangle of an edge
+     * @param edge Index of the edge, edges are sorted by their first then second slot
+     * @return The lower slot of the pair
+     */
+    public int getSlotOne(int edge) {
+        return slotOnes[edge];
+    }
+
+    /**
+     * Gets the second Rectangle of an edge
+     * @param edge Index of the edge
+     * @return The higher slot of the pair
+     */
+    public int getSlotTwo(int edge) {
+        return slotTwos[edge];
+    }
+
+    /**
+     * Gets the type of adjacency of an edge
+     * @param edge Index of the edge
+     * @return Adjacency (enum) value of the pair (PROPER, SUBLINE, PARTIAL), never NONE
+     */
+    public Rectangle.Adjacency getAdjacency(int edge) {
+        return labels[edge];
+    }
+
+    // Helper functions
+    // Two sides per Rectangle, at first[slot] and second[slot], each running from start[slot] to end[slot]
+    private static void overlappingSides(int[] first, int[] second, int[] start, int[] end, PairList candidates) {
+        int size = first.length;
+        int sides = size * 2;
+
+        // Hash each side's position to a bucket, then lay the buckets out one after another
+        IntIntHashMap buckets = new IntIntHashMap();
+        int[] sideBucket = new int[sides];
+        int[] counts = new int[sides + 1];
+        for (int side = 0; side < sides; side++) {
+            int position = (side & 1) == 0 ? first[side >> 1] : second[side >> 1];
+            int bucket = buckets.get(position);
+            if (bucket == IntIntHashMap.NO_VALUE) {
+                bucket = buckets.size();
+                buckets.put(position, bucket);
+            }
+            sideBucket[side] = bucket;
+            counts[bucket + 1]++;
+        }
+        int bucketCount = buckets.size();
+        for (int bucket = 0; bucket < bucketCount; bucket++) {
+            counts[bucket + 1] += counts[bucket];
+        }
+
+        // Start in the high bits and side in the low bits, so sorting a bucket orders it by start
+        long[] sorted = new long[sides];
+        int[] next = Arrays.copyOf(counts, bucketCount);
+        for (int side = 0; side < sides; side++) {
+            sorted[next[sideBucket[side]]++] = ((long) start[side >> 1] << 32) | side;
+        }
+
+        int[] active = new int[16];
+        for (int bucket = 0; bucket < bucketCount; bucket++) {
+            int from = counts[bucket];
+            int to = counts[bucket + 1];
+            if (to - from < 2) {
+                continue;
+            }
+            Arrays.sort(sorted, from, to);
+
+            // Sweep along the bucket, keeping the sides that have not ended yet
+            int activeCount = 0;
+            for (int i = from; i < to; i++) {
+                int side = (int) sorted[i];
+                int slot = side >> 1;
+                int sideStart = start[slot];
+
+                int kept = 0;
+                for (int k = 0; k < activeCount; k++) {
+                    int otherSlot = active[k] >> 1;
+                    if (end[otherSlot] >= sideStart) {
+                        active[kept++] = active[k];
+                        if (otherSlot != slot) {
+                            candidates.add(Math.min(slot, otherSlot), Math.max(slot, otherSlot));
+                        }
+                    }
+                }
+                activeCount = kept;
+
+                if (activeCount == active.length) {
+                    active = Arrays.copyOf(active, active.length * 2);
+                }
+                active[activeCount++] = side;
+            }
+        }
+    }
+
+    // Growable list of slot pairs, packed lower slot first so sorting groups repeats together
+    private static final class PairList {
+        private long[] pairs = new long[64];
+        private int count;
+
+        void add(int slotOne, int slotTwo) {
+            if (count == pairs.length) {
+                pairs = Arrays.copyOf(pairs, pairs.length * 2);
+            }
+            pairs[count++] = ((long) slotOne << 32) | slotTwo;
+        }
+
+        long[] sortedDistinct() {
+            Arrays.sort(pairs, 0, count);
+            int distinct = 0;
+            for (int i = 0; i < count; i++) {
+                if (distinct == 0 || pairs[i] != pairs[distinct - 1]) {
+                    pairs[distinct++] = pairs[i];
+                }
+            }
+            return Arrays.copyOf(pairs, distinct);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.mhsnodgrass.rectangleparser.analysis;
+
+import com.mhsnodgrass.rectangleparser.model.Rectangle;
+import com.mhsnodgrass.rectangleparser.model.RectangleDataset;
+
+/** The connected components (clusters) of a dataset, Rectangles that intersect or are adjacent are in the same cluster.
+ * <p>Two Rectangles intersect ({@link Rectangle#doesIntersect(Rectangle)}) or are adjacent ({@link Rectangle#isAdjacent(Rectangle)})
+ * exactly when their closed bounds share a point, so every pair from {@link PlaneSweep#forEachTouchingPair} is joined as it is
+ * found, in a {@link UnionFind}. No list of pairs is built, the memory used is a few ints per Rectangle</p>
+ * <p>Clusters are numbered 0 and up, in the order of the first slot in each</p>
+ * @author Matthew Snodgrass
+ */
+public final class Clusters {
+    private final int[] clusterOf;
+    private final int[] sizes;
+
+    private Clusters(int[] clusterOf, int[] sizes) {
+        this.clusterOf = clusterOf;
+        this.sizes = sizes;
+    }
+
+    /**
+     * Finds the clusters of every Rectangle in the dataset
+     * @param store Rectangles to check
+     * @return A new Clusters, later changes to the store are not picked up
+     */
+    public static Clusters build(RectangleDataset store) {
+        int size = store.size();
+        UnionFind sets = new UnionFind(size);
+        PlaneSweep.forEachTouchingPair(store, sets::union);
+
+        // Number the roots in slot order, stored one up so 0 means not numbered yet
+        int[] clusterOf = new int[size];
+        int[] sizes = new int[sets.getSets()];
+        int[] rootCluster = new int[size];
+        int clusters = 0;
+        for (int slot = 0; slot < size; slot++) {
+            int root = sets.find(slot);
+            if (rootCluster[root] == 0) {
+                rootCluster[root] = ++clusters;
+            }
+            clusterOf[slot] = rootCluster[root] - 1;
+            sizes[clusterOf[slot]]++;
+        }
+
+        return new Clusters(clusterOf, sizes);
+    }
+
+    // Getters
+    /**
+     * Gets the number of clusters
+     * @return The number of connected components
+     */
+    public int getClusterCount() {
+        return sizes.length;
+    }
+
+    /**
+     * Gets the cluster of the Rectangle in a slot
+     * @param slot Slot of the Rectangle
+     * @return The cluster id, from 0 to {@link #getClusterCount()} - 1
+     */
+    public int getCluster(int slot) {
+        return clusterOf[slot];
+    }
+
+    /**
+     * Gets the number of Rectangles in a cluster
+     * @param cluster Cluster id
+     * @return The number of Rectangles in the cluster
+     */
+    public int getSize(int cluster) {
+        return sizes[cluster];
+    }
+
+    /**
+     * Gets the number of Rectangles in the largest cluster
+     * @return The largest cluster size, 0 if there are no Rectangles
+     */
+    public int getLargestSize() {
+        int largest = 0;
+        for (int size : sizes) {
+            largest = Math.max(largest, size);
+        }
+        return largest;
+    }
+}
@@ -0,0 +1,296 @@
+package com.mhsnodgrass.rectangleparser.analysis;
+
+import com.mhsnodgrass.rectangleparser.model.Rectangle;
+import com.mhsnodgrass.rectangleparser.model.RectangleDataset;
+
+import java.util.Arrays;
+
+/** The nesting forest of a dataset, every Rectangle is linked to its tightest container.
+ * <p>Containment uses the same strict rules as {@link Rectangle#doesContain(Rectangle)}. The tightest container is the one whose left edge
+ * is furthest right, the lowest slot wins a tie. No other container fits inside it, and when containers only nest inside each other
+ * (no two of them cross) it is the one directly around the Rectangle</p>
+ * <p>The Rectangles are swept by left edge. The open ones are kept in a segment tree over the y values, on the nodes their y range covers,
+ * with the one opened last on top of each node. Every container of a Rectangle is open when it opens and covers its bottom edge, so the
+ * newest Rectangle on the path down to that bottom edge is the tightest container when it contains the Rectangle. For properly nested
+ * layouts it always does, and the forest is built in O(n log n)</p>
+ * <p>When it does not, a Rectangle crossing the one being placed sits in between, and every open Rectangle on the path is checked instead.
+ * Layouts with many crossing Rectangles do not keep the O(n log n) bound</p>
+ * @author Matthew Snodgrass
+ */
+public final class ContainmentForest {
+    private final int[] parents;
+    private final int[] depths;
+    private final int rootCount;
+    private final int maxDepth;
+
+    private ContainmentForest(int[] parents, int[] depths, int rootCount, int maxDepth) {
+        this.parents = parents;
+        this.depths = depths;
+        this.rootCount = rootCount;
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * Builds the nesting forest for every Rectangle in the dataset
+     * @param store Rectangles to check
+     * @return A new ContainmentForest, later changes to the store are not picked up
+     */
+    public static ContainmentForest build(RectangleDataset store) {
+        int size = store.size();
+        int[] parents = new int[size];
+        Arrays.fill(parents, -1);
+
+        if (size > 0) {
+            new Sweep(store).findParents(parents);
+        }
+
+        // Walk up from each Rectangle to the first one with a depth, then fill in the depths on the way back down
+        int[] depths = new int[size];
+        Arrays.fill(depths, -1);
+        int[] path = new int[size];
+        int rootCount = 0;
+        int maxDepth = 0;
+        for (int slot = 0; slot < size; slot++) {
+            if (parents[slot] < 0) {
+                rootCount++;
+            }
+            int length = 0;
+            int current = slot;
+            while (current >= 0 && depths[current] < 0) {
+                path[length++] = current;
+                current = parents[current];
+            }
+            int depth = current < 0 ? -1 : depths[current];
+            while (length > 0) {
+                depths[path[--length]] = ++depth;
+            }
+            maxDepth = Math.max(maxDepth, depths[slot]);
+        }
+
+        return new ContainmentForest(parents, depths, rootCount, maxDepth);
+    }
+
+    // Getters
+    /**
+     * Gets the number of Rectangles in the forest
+     * @return The size of the dataset the forest was built from
+     */
+    public int size() {
+        return parents.length;
+    }
+
+    /**
+     * Gets the tightest container of the Rectangle in a slot
+     * @param slot Slot of the Rectangle
+     * @return The slot of the container, or -1 if nothing contains the Rectangle
+     */
+    public int getParent(int slot) {
+        return parents[slot];
+    }
+
+    /**
+     * Gets how many containers sit above the Rectangle in a slot, following the parent links
+     * @param slot Slot of the Rectangle
+     * @return 0 for a Rectangle nothing contains, one more than its parent otherwise
+     */
+    public int getDepth(int slot) {
+        return depths[slot];
+    }
+
+    /**
+     * Gets the number of Rectangles that nothing contains
+     * @return The number of trees in the forest
+     */
+    public int getRootCount() {
+        return rootCount;
+    }
+
+    /**
+     * Gets the depth of the most deeply nested Rectangle
+     * @return The largest depth in the forest
+     */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    // Helper functions
+    // Sweep over the left edges, with a stack of open Rectangles on each node of a segment tree over the sorted y values
+    private static final class Sweep {
+        private final RectangleDataset store;
+        private final int leaves;
+
+        // Left and right edges of each slot, and the leaves of its bottom and top in the sorted y values
+        private final int[] lefts;
+        private final int[] rights;
+        private final int[] bottomLeaves;
+        private final int[] topLeaves;
+
+        // Stack of node n starts at heads[n], entries link down through entryNext, -1 ends a stack
+        private final int[] heads;
+        private int[] entrySlot;
+        private int[] entryNext;
+        private int entryCount;
+
+        private Sweep(RectangleDataset store) {
+            this.store = store;
+            int size = store.size();
+            lefts = new int[size];
+            rights = new int[size];
+            bottomLeaves = new int[size];
+            topLeaves = new int[size];
+            int[] values = new int[size * 2];
+            for (int slot = 0; slot < size; slot++) {
+                lefts[slot] = store.getX(slot);
+                rights[slot] = lefts[slot] + store.getWidth(slot);
+                values[slot * 2] = store.getY(slot) - store.getHeight(slot);
+                values[slot * 2 + 1] = store.getY(slot);
+            }
+            Arrays.sort(values);
+            int distinct = 0;
+            for (int i = 0; i < values.length; i++) {
+                if (i == 0 || values[i] != values[i - 1]) {
+                    values[distinct++] = values[i];
+                }
+            }
+            leaves = distinct;
+            for (int slot = 0; slot < size; slot++) {
+                bottomLeaves[slot] = Arrays.binarySearch(values, 0, distinct, store.getY(slot) - store.getHeight(slot));
+                topLeaves[slot] = Arrays.binarySearch(values, 0, distinct, store.getY(slot));
+            }
+
+            heads = new int[leaves * 4];
+            Arrays.fill(heads, -1);
+            entrySlot = new int[size * 2];
+            entryNext = new int[size * 2];
+        }
+
+        private void findParents(int[] parents) {
+            // Left edge first, then the highest slot, so the Rectangle pushed last is the one preferred as a container
+            int size = store.size();
+            long[] order = new long[size];
+            for (int slot = 0; slot < size; slot++) {
+                order[slot] = ((long) lefts[slot] << 32) | (Integer.MAX_VALUE - slot);
+            }
+            Arrays.sort(order);
+
+            int first = 0;
+            while (first < size) {
+                int left = (int) (order[first] >> 32);
+                int last = first;
+                while (last < size && (int) (order[last] >> 32) == left) {
+                    last++;
+                }
+
+                // Containers start strictly to the left, so every Rectangle with this left edge is placed before any of them opens
+                for (int i = first; i < last; i++) {
+                    int slot = slotOf(order[i]);
+                    parents[slot] = findContainer(slot);
+                }
+                for (int i = first; i < last; i++) {
+                    int slot = slotOf(order[i]);
+                    // Open y range, only the values strictly between the bottom and the top
+                    int low = bottomLeaves[slot] + 1;
+                    int high = topLeaves[slot] - 1;
+                    if (low <= high) {
+                        push(1, 0, leaves - 1, low, high, slot);
+                    }
+                }
+                first = last;
+            }
+        }
+
+        // Newest open Rectangle on the path to the bottom edge, checked against every open one on the path if it does not contain the slot
+        private int findContainer(int slot) {
+            int left = lefts[slot];
+            int bottom = bottomLeaves[slot];
+
+            int candidate = -1;
+            int node = 1;
+            int low = 0;
+            int high = leaves - 1;
+            while (true) {
+                // Rectangles that end before this left edge can not contain this one or any placed after it
+                int entry = heads[node];
+                while (entry >= 0 && rights[entrySlot[entry]] <= left) {
+                    entry = entryNext[entry];
+                }
+                heads[node] = entry;
+                if (entry >= 0 && (candidate < 0 || isPreferred(entrySlot[entry], candidate))) {
+                    candidate = entrySlot[entry];
+                }
+                if (low == high) {
+                    break;
+                }
+                int middle = (low + high) >>> 1;
+                node *= 2;
+                if (bottom <= middle) {
+                    high = middle;
+                } else {
+                    node++;
+                    low = middle + 1;
+                }
+            }
+
+            if (candidate < 0 || store.contains(candidate, slot)) {
+                return candidate;
+            }
+            return scanContainers(slot, bottom);
+        }
+
+        private int scanContainers(int slot, int bottom) {
+            int best = -1;
+            int node = 1;
+            int low = 0;
+            int high = leaves - 1;
+            while (true) {
+                for (int entry = heads[node]; entry >= 0; entry = entryNext[entry]) {
+                    int other = entrySlot[entry];
+                    if ((best < 0 || isPreferred(other, best)) && store.contains(other, slot)) {
+                        best = other;
+                    }
+                }
+                if (low == high) {
+                    return best;
+                }
+                int middle = (low + high) >>> 1;
+                node *= 2;
+                if (bottom <= middle) {
+                    high = middle;
+                } else {
+                    node++;
+                    low = middle + 1;
+                }
+            }
+        }
+
+        // Adds the slot on top of every node the range of leaves first to last covers
+        private void push(int node, int low, int high, int first, int last, int slot) {
+            if (first <= low && high <= last) {
+                if (entryCount == entrySlot.length) {
+                    entrySlot = Arrays.copyOf(entrySlot, entryCount * 2);
+                    entryNext = Arrays.copyOf(entryNext, entryCount * 2);
+                }
+                entrySlot[entryCount] = slot;
+                entryNext[entryCount] = heads[node];
+                heads[node] = entryCount++;
+                return;
+            }
+            int middle = (low + high) >>> 1;
+            if (first <= middle) {
+                push(node * 2, low, middle, first, last, slot);
+            }
+            if (last > middle) {
+                push(node * 2 + 1, middle + 1, high, first, last, slot);
+            }
+        }
+
+        // Left edge further right wins, then the lower slot
+        private boolean isPreferred(int slot, int other) {
+            return lefts[slot] > lefts[other] || (lefts[slot] == lefts[other] && slot < other);
+        }
+
+        private static int slotOf(long key) {
+            return Integer.MAX_VALUE - (int) key;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.mhsnodgrass.rectangleparser.analysis;
+
+import com.mhsnodgrass.rectangleparser.model.RectangleDataset;
+
+import java.util.Arrays;
+
+/** The area covered by the Rectangles of a dataset (Klee's measure), and the area covered by two or more of them.
+ * <p>A sweep line moves along the x axis, each Rectangle adds its y range to a segment tree over the compressed y coordinates
+ * when the sweep reaches its left side and takes it away at its right side</p>
+ * <p>Each node of the tree keeps how many Rectangles cover all of it, and the length of its range covered once or more and twice or more,
+ * so the covered length is read from the root between events. The cost is O(n log n)</p>
+ * <p>Rectangles with no width or height cover no area and are skipped. Areas are whole units, bounds are x to x + width and y - height to y</p>
+ * @author Matthew Snodgrass
+ */
+public final class CoverageArea {
+    private static final long OPEN = 0L;
+    private static final long CLOSE = 1L;
+
+    private final long unionArea;
+    private final long overlapArea;
+
+    private CoverageArea(long unionArea, long overlapArea) {
+        this.unionArea = unionArea;
+        this.overlapArea = overlapArea;
+    }
+
+    /**
+     * Measures the union and overlap area of every Rectangle in the dataset
+     * @param store Rectangles to measure
+     * @return A new CoverageArea holding both areas
+     */
+    public static CoverageArea compute(RectangleDataset store) {
+        int size = store.size();
+        long[] events = new long[size * 2];
+        int[] yValues = new int[size * 2];
+        int count = 0;
+        for (int slot = 0; slot < size; slot++) {
+            if (store.getWidth(slot) == 0 || store.getHeight(slot) == 0) {
+                continue;
+            }
+            int left = store.getX(slot);
+            events[count] = event(left, OPEN, slot);
+            events[count + 1] = event(left + store.getWidth(slot), CLOSE, slot);
+            yValues[count] = store.getY(slot) - store.getHeight(slot);
+            yValues[count + 1] = store.getY(slot);
+            count += 2;
+        }
+        if (count == 0) {
+            return new CoverageArea(0, 0);
+        }
+        events = Arrays.copyOf(events, count);
+        Arrays.sort(events);
+
+        CoverTree tree = new CoverTree(PlaneSweep.distinctSorted(Arrays.copyOf(yValues, count)));
+        long unionArea = 0;
+        long overlapArea = 0;
+        long lastX = events[0] >> 32;
+        for (long event : events) {
+            long x = event >> 32;
+            unionArea += tree.coveredOnce() * (x - lastX);
+            overlapArea += tree.coveredTwice() * (x - lastX);
+            lastX = x;
+
+            int slot = (int) (event & Integer.MAX_VALUE);
+            int delta = ((event >>> 31) & 1L) == OPEN ? 1 : -1;
+            tree.add(store.getY(slot) - store.getHeight(slot), store.getY(slot), delta);
+        }
+
+        return new CoverageArea(unionArea, overlapArea);
+    }
+
+    // Getters
+    /**
+     * Gets the area covered by at least one Rectangle
+     * @return The area of the union of the Rectangles
+     */
+    public long getUnionArea() {
+        return unionArea;
+    }
+
+    /**
+     * Gets the area covered by two or more Rectangles
+     * @return The area where Rectangles overlap, each point is only counted once however many Rectangles cover it
+     */
+    public long getOverlapArea() {
+        return overlapArea;
+    }
+
+    // Helper functions
+    // Packs x, the event type, and the slot so a plain sort puts events in sweep order
+    private static long event(int x, long type, int slot) {
+        return ((long) x << 32) | (type << 31) | slot;
+    }
+
+    // Segment tree over the gaps between sorted y coordinates, leaf i is coordinates[i] to coordinates[i + 1]
+    private static final class CoverTree {
+        private final int[] coordinates;
+        private final int leaves;
+        private final int[] cover;
+        private final long[] once;
+        private final long[] twice;
+
+        CoverTree(int[] coordinates) {
+            this.coordinates = coordinates;
+            this.leaves = Math.max(coordinates.length - 1, 1);
+            this.cover = new int[leaves * 4];
+            this.once = new long[leaves * 4];
+            this.twice = new long[leaves * 4];
+        }
+
+        long coveredOnce() {
+            return once[1];
+        }
+
+        long coveredTwice() {
+            return twice[1];
+        }
+
+        void add(int bottom, int top, int delta) {
+            int from = Arrays.binarySearch(coordinates, bottom);
+            int to = Arrays.binarySearch(coordinates, top);
+            update(1, 0, leaves, from, to, delta);
+        }
+
+        // Node covers leaves lo to hi - 1, the range covers leaves from to to - 1
+        private void update(int node, int lo, int hi, int from, int to, int delta) {
+            if (to <= lo || hi <= from) {
+                return;
+            }
+            if (from <= lo && hi <= to) {
+                cover[node] += delta;
+            } else {
+                int mid = (lo + hi) >>> 1;
+                update(node * 2, lo, mid, from, to, delta);
+                update(node * 2 + 1, mid, hi, from, to, delta);
+            }
+            pull(node, lo, hi);
+        }
+
+        private void pull(int node, int lo, int hi) {
+            long length = (long) coordinates[hi] - coordinates[lo];
+            boolean leaf = hi - lo == 1;
+            long childOnce = leaf ? 0 : once[node * 2] + once[node * 2 + 1];
+            long childTwice = leaf ? 0 : twice[node * 2] + twice[node * 2 + 1];
+
+            if (cover[node] >= 2) {
+                once[node] = length;
+                twice[node] = length;
+            } else if (cover[node] == 1) {
+                once[node] = length;
+                twice[node] = childOnce;
+            } else {
+                once[node] = childOnce;
+                twice[node] = childTwice;
+            }
+        }
+    }
+}
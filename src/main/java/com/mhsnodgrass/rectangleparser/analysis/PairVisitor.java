@@ -0,0 +1,14 @@
+package com.mhsnodgrass.rectangleparser.analysis;
+
+/** Receives a pair of Rectangle slots found by a dataset wide check, without boxing them.
+ * @author Matthew Snodgrass
+ */
+@FunctionalInterface
+public interface PairVisitor {
+    /**
+     * Called once for each pair found
+     * @param slotOne Slot of the first Rectangle (always the lower slot)
+     * @param slotTwo Slot of the second Rectangle
+     */
+    void visit(int slotOne, int slotTwo);
+}
@@ -0,0 +1,96 @@
+package com.mhsnodgrass.rectangleparser.analysis;
+
+import com.mhsnodgrass.rectangleparser.model.Rectangle;
+import com.mhsnodgrass.rectangleparser.model.RectangleDataset;
+
+import java.util.Arrays;
+
+/** Dataset wide pair checks using a sweep line over the x axis.
+ * <p>Rectangles are sorted by their left and right x values, and a sweep keeps the Rectangles that cross the current x in an
+ * {@link ActiveIntervalSet} on the y axis</p>
+ * <p>Each Rectangle only meets the active Rectangles its y range overlaps, so the cost is O((n + k) log n) for k pairs found,
+ * not the O(n&sup2;) of checking every pair</p>
+ * @author Matthew Snodgrass
+ */
+public final class PlaneSweep {
+    private static final long OPEN = 0L;
+    private static final long CLOSE = 1L;
+
+    private PlaneSweep() {
+    }
+
+    /**
+     * <p>Finds every pair of Rectangles that intersect, using the same rules as {@link Rectangle#doesIntersect(Rectangle)}</p>
+     * <p>Includes perfect overlaps, Rectangles that only touch are not reported</p>
+     * @param store Rectangles to check
+     * @param visitor Receives each intersecting pair once, lower slot first
+     * @return The number of pairs found
+     */
+    public static long forEachIntersectingPair(RectangleDataset store, PairVisitor visitor) {
+        long[] count = new long[1];
+        forEachTouchingPair(store, (slotOne, slotTwo) -> {
+            if (store.intersects(slotOne, slotTwo)) {
+                count[0]++;
+                visitor.visit(slotOne, slotTwo);
+            }
+        });
+        return count[0];
+    }
+
+    /**
+     * <p>Finds every pair of Rectangles whose closed bounds share at least one point (overlapping or touching)</p>
+     * <p>Every pair that intersects, contains, or is adjacent is one of these, so it is used to find candidates for the exact checks</p>
+     * @param store Rectangles to check
+     * @param visitor Receives each pair once, lower slot first
+     */
+    public static void forEachTouchingPair(RectangleDataset store, PairVisitor visitor) {
+        int size = store.size();
+        if (size < 2) {
+            return;
+        }
+
+        // Open and close events, sorted by x then opens before closes so touching Rectangles are both active
+        long[] events = new long[size * 2];
+        int[] yValues = new int[size * 2];
+        for (int slot = 0; slot < size; slot++) {
+            int left = store.getX(slot);
+            int right = left + store.getWidth(slot);
+            events[slot * 2] = event(left, OPEN, slot);
+            events[slot * 2 + 1] = event(right, CLOSE, slot);
+            yValues[slot * 2] = store.getY(slot) - store.getHeight(slot);
+            yValues[slot * 2 + 1] = store.getY(slot);
+        }
+        Arrays.sort(events);
+
+        ActiveIntervalSet activeSet = new ActiveIntervalSet(distinctSorted(yValues), size);
+        for (long event : events) {
+            int slot = (int) (event & Integer.MAX_VALUE);
+            if (((event >>> 31) & 1L) == OPEN) {
+                int bottom = store.getY(slot) - store.getHeight(slot);
+                int top = store.getY(slot);
+                activeSet.forEachOverlapping(bottom, top, other -> visitor.visit(Math.min(other, slot), Math.max(other, slot)));
+                activeSet.insert(slot, bottom, top);
+            } else {
+                activeSet.remove(slot);
+            }
+        }
+    }
+
+    // Helper functions
+    // Packs x, the event type, and the slot so a plain sort puts events in sweep order
+    private static long event(int x, long type, int slot) {
+        return ((long) x << 32) | (type << 31) | slot;
+    }
+
+    static int[] distinctSorted(int[] values) {
+        int[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int count = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[count - 1]) {
+                sorted[count++] = sorted[i];
+            }
+        }
+        return Arrays.copyOf(sorted, count);
+    }
+}
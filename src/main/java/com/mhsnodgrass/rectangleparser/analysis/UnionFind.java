@@ -0,0 +1,69 @@
+package com.mhsnodgrass.rectangleparser.analysis;
+
+/** Disjoint sets over the slots 0 to n - 1, kept in two flat int arrays.
+ * <p>Union by size and path halving, so each call is close to constant time</p>
+ * @author Matthew Snodgrass
+ */
+class UnionFind {
+    private final int[] parent;
+    private final int[] size;
+    private int sets;
+
+    /**
+     * Creates n sets of one slot each
+     * @param count Number of slots
+     */
+    UnionFind(int count) {
+        parent = new int[count];
+        size = new int[count];
+        for (int slot = 0; slot < count; slot++) {
+            parent[slot] = slot;
+            size[slot] = 1;
+        }
+        sets = count;
+    }
+
+    /**
+     * Finds the root of the set a slot is in, pointing each slot passed at its grandparent on the way
+     * @param slot Slot to find
+     * @return The root slot of the set
+     */
+    int find(int slot) {
+        while (parent[slot] != slot) {
+            parent[slot] = parent[parent[slot]];
+            slot = parent[slot];
+        }
+        return slot;
+    }
+
+    /**
+     * Joins the sets of two slots, the smaller set goes under the larger
+     * @param slotOne Slot in the first set
+     * @param slotTwo Slot in the second set
+     * @return Boolean value to represent if two different sets were joined
+     */
+    boolean union(int slotOne, int slotTwo) {
+        int rootOne = find(slotOne);
+        int rootTwo = find(slotTwo);
+        if (rootOne == rootTwo) {
+            return false;
+        }
+        if (size[rootOne] < size[rootTwo]) {
+            int swap = rootOne;
+            rootOne = rootTwo;
+            rootTwo = swap;
+        }
+        parent[rootTwo] = rootOne;
+        size[rootOne] += size[rootTwo];
+        sets--;
+        return true;
+    }
+
+    /**
+     * Gets the number of sets left
+     * @return The number of disjoint sets
+     */
+    int getSets() {
+        return sets;
+    }
+}
@@ -0,0 +1,286 @@
+package com.mhsnodgrass.rectangleparser.index;
+
+import com.mhsnodgrass.rectangleparser.analysis.PairVisitor;
+import com.mhsnodgrass.rectangleparser.model.Rectangle;
+import com.mhsnodgrass.rectangleparser.model.RectangleDataset;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/** Static uniform grid (spatial hash) over the Rectangles in a {@link RectangleDataset}, for layouts of many Rectangles of about the same size.
+ * <p>The bounds of the dataset are cut into cells of one size, a Rectangle is listed in every cell its closed bounds touch.
+ * The cells are stored one after another in flat int arrays, each entry holds the slot and the bounds of its Rectangle so a cell is read
+ * in one pass through memory</p>
+ * <p>The cell size is the upper quartile of the widths (and heights) plus one, so three in four Rectangles touch at most two cells a side.
+ * It is doubled until there are no more than two cells for each Rectangle, so sparse layouts do not fill memory with empty cells</p>
+ * <p>A Rectangle that touches many cells is found in each of them, so it is only reported from the cell holding the bottom left
+ * of its overlap with the box (or the other Rectangle), and no seen set is needed. Each entry keeps whether its Rectangle starts
+ * in the column and row of the cell, which is all that check needs</p>
+ * <p>Searches and the pair join cost the number of entries in the cells they read, which stays small while the Rectangles are
+ * close in size. A few very large Rectangles are listed in many cells, for those layouts {@link RTree} is a better fit</p>
+ * <p>Bounds are closed, a Rectangle covers x to x + width and y - height to y</p>
+ * @author Matthew Snodgrass
+ */
+public class GridIndex implements SpatialIndex {
+    // Flags of an entry, its Rectangle starts in the column or row of the cell
+    private static final byte FIRST_COLUMN = 1;
+    private static final byte FIRST_ROW = 2;
+    private static final byte FIRST_CELL = FIRST_COLUMN | FIRST_ROW;
+
+    private final int size;
+
+    // Cell (column, row) covers originX + column * cellWidth up to (not including) the next column, the same for rows
+    private final long originX;
+    private final long originY;
+    private final long cellWidth;
+    private final long cellHeight;
+    private final int columns;
+    private final int rows;
+
+    // Entries of cell c are cellStart[c] up to cellStart[c + 1], cells are numbered row by row and entries are in slot order within a cell
+    private final int[] cellStart;
+    private final int[] entrySlot;
+    private final int[] entryBounds;
+    private final byte[] entryFlags;
+
+    private GridIndex(int size, long originX, long originY, long cellWidth, long cellHeight, int columns, int rows,
+                      int[] cellStart, int[] entrySlot, int[] entryBounds, byte[] entryFlags) {
+        this.size = size;
+        this.originX = originX;
+        this.originY = originY;
+        this.cellWidth = cellWidth;
+        this.cellHeight = cellHeight;
+        this.columns = columns;
+        this.rows = rows;
+        this.cellStart = cellStart;
+        this.entrySlot = entrySlot;
+        this.entryBounds = entryBounds;
+        this.entryFlags = entryFlags;
+    }
+
+    /**
+     * Builds the grid from every Rectangle in the store, picking the cell size from their widths and heights
+     * @param store Rectangles to index
+     * @return A new GridIndex, later changes to the store are not picked up
+     */
+    public static GridIndex build(RectangleDataset store) {
+        int size = store.size();
+        if (size == 0) {
+            return new GridIndex(0, 0, 0, 1, 1, 1, 1, new int[2], new int[0], new int[0], new byte[0]);
+        }
+
+        int[] lefts = new int[size];
+        int[] bottoms = new int[size];
+        int[] rights = new int[size];
+        int[] tops = new int[size];
+        int[] widths = new int[size];
+        int[] heights = new int[size];
+        long minX = Long.MAX_VALUE;
+        long minY = Long.MAX_VALUE;
+        long maxX = Long.MIN_VALUE;
+        long maxY = Long.MIN_VALUE;
+        for (int slot = 0; slot < size; slot++) {
+            widths[slot] = store.getWidth(slot);
+            heights[slot] = store.getHeight(slot);
+            lefts[slot] = store.getX(slot);
+            tops[slot] = store.getY(slot);
+            rights[slot] = lefts[slot] + widths[slot];
+            bottoms[slot] = tops[slot] - heights[slot];
+            minX = Math.min(minX, lefts[slot]);
+            minY = Math.min(minY, bottoms[slot]);
+            maxX = Math.max(maxX, rights[slot]);
+            maxY = Math.max(maxY, tops[slot]);
+        }
+
+        long cellWidth = upperQuartile(widths) + 1L;
+        long cellHeight = upperQuartile(heights) + 1L;
+        long cellLimit = size * 2L;
+        while ((((maxX - minX) / cellWidth) + 1) * (((maxY - minY) / cellHeight) + 1) > cellLimit) {
+            cellWidth *= 2;
+            cellHeight *= 2;
+        }
+        int columns = (int) ((maxX - minX) / cellWidth) + 1;
+        int rows = (int) ((maxY - minY) / cellHeight) + 1;
+
+        // Cells of the corners, worked out once so the fill below never divides
+        int[] firstColumns = new int[size];
+        int[] firstRows = new int[size];
+        int[] lastColumns = new int[size];
+        int[] lastRows = new int[size];
+        for (int slot = 0; slot < size; slot++) {
+            firstColumns[slot] = (int) cellOf(lefts[slot], minX, cellWidth);
+            firstRows[slot] = (int) cellOf(bottoms[slot], minY, cellHeight);
+            lastColumns[slot] = (int) cellOf(rights[slot], minX, cellWidth);
+            lastRows[slot] = (int) cellOf(tops[slot], minY, cellHeight);
+        }
+
+        // Count the Rectangles in each cell, then lay the cells out one after another
+        int[] cellStart = new int[columns * rows + 1];
+        for (int slot = 0; slot < size; slot++) {
+            for (int row = firstRows[slot]; row <= lastRows[slot]; row++) {
+                for (int column = firstColumns[slot]; column <= lastColumns[slot]; column++) {
+                    cellStart[row * columns + column + 1]++;
+                }
+            }
+        }
+        for (int cell = 1; cell < cellStart.length; cell++) {
+            cellStart[cell] += cellStart[cell - 1];
+        }
+
+        int entries = cellStart[columns * rows];
+        int[] entrySlot = new int[entries];
+        int[] entryBounds = new int[entries * 4];
+        byte[] entryFlags = new byte[entries];
+        int[] next = Arrays.copyOf(cellStart, columns * rows);
+        for (int slot = 0; slot < size; slot++) {
+            for (int row = firstRows[slot]; row <= lastRows[slot]; row++) {
+                for (int column = firstColumns[slot]; column <= lastColumns[slot]; column++) {
+                    int entry = next[row * columns + column]++;
+                    entrySlot[entry] = slot;
+                    entryBounds[entry * 4] = lefts[slot];
+                    entryBounds[entry * 4 + 1] = bottoms[slot];
+                    entryBounds[entry * 4 + 2] = rights[slot];
+                    entryBounds[entry * 4 + 3] = tops[slot];
+                    entryFlags[entry] = (byte) ((column == firstColumns[slot] ? FIRST_COLUMN : 0) | (row == firstRows[slot] ? FIRST_ROW : 0));
+                }
+            }
+        }
+
+        return new GridIndex(size, minX, minY, cellWidth, cellHeight, columns, rows, cellStart, entrySlot, entryBounds, entryFlags);
+    }
+
+    // Getters
+    /**
+     * Gets the number of Rectangles in the grid
+     * @return The number of Rectangles the grid was built from
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the width of each cell
+     * @return The cell width picked when the grid was built
+     */
+    public long getCellWidth() {
+        return cellWidth;
+    }
+
+    /**
+     * Gets the height of each cell
+     * @return The cell height picked when the grid was built
+     */
+    public long getCellHeight() {
+        return cellHeight;
+    }
+
+    /**
+     * Gets the number of cells in the grid
+     * @return Columns times rows
+     */
+    public int getCellCount() {
+        return columns * rows;
+    }
+
+    /**
+     * Gets the number of times Rectangles are listed in a cell, one for each cell a Rectangle touches
+     * @return The number of entries
+     */
+    public int getEntryCount() {
+        return entrySlot.length;
+    }
+
+    // Methods
+    /**
+     * <p>Visits every Rectangle whose closed bounds share at least one point with the box given (touching counts), each one once</p>
+     * <p>Only the cells the box touches are read</p>
+     * @param minX Left of the box
+     * @param minY Bottom of the box
+     * @param maxX Right of the box
+     * @param maxY Top of the box
+     * @param consumer Receives the slot of each Rectangle found
+     */
+    @Override
+    public void search(int minX, int minY, int maxX, int maxY, IntConsumer consumer) {
+        if (size == 0 || minX > maxX || minY > maxY) {
+            return;
+        }
+
+        // In the first column (row) of the box every overlap starts in the cell, after it only the ones whose Rectangle starts there do
+        int firstRow = clamp(cellOf(minY, originY, cellHeight), rows);
+        int lastRow = clamp(cellOf(maxY, originY, cellHeight), rows);
+        int firstColumn = clamp(cellOf(minX, originX, cellWidth), columns);
+        int lastColumn = clamp(cellOf(maxX, originX, cellWidth), columns);
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                int owned = (column == firstColumn ? FIRST_COLUMN : 0) | (row == firstRow ? FIRST_ROW : 0);
+                int cell = row * columns + column;
+                for (int entry = cellStart[cell]; entry < cellStart[cell + 1]; entry++) {
+                    int bounds = entry * 4;
+                    if ((entryFlags[entry] | owned) == FIRST_CELL
+                            && entryBounds[bounds] <= maxX && minX <= entryBounds[bounds + 2]
+                            && entryBounds[bounds + 1] <= maxY && minY <= entryBounds[bounds + 3]) {
+                        consumer.accept(entrySlot[entry]);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * <p>Finds every pair of Rectangles whose closed bounds share at least one point (overlapping or touching)</p>
+     * <p>Only Rectangles listed in the same cell are compared, each pair is reported from the one cell holding the bottom left of their overlap</p>
+     * @param visitor Receives each pair once, lower slot first
+     */
+    public void forEachTouchingPair(PairVisitor visitor) {
+        for (int cell = 0; cell < columns * rows; cell++) {
+            int last = cellStart[cell + 1];
+            for (int first = cellStart[cell]; first < last; first++) {
+                int one = first * 4;
+                for (int entry = first + 1; entry < last; entry++) {
+                    int two = entry * 4;
+                    if ((entryFlags[first] | entryFlags[entry]) == FIRST_CELL
+                            && entryBounds[one] <= entryBounds[two + 2] && entryBounds[two] <= entryBounds[one + 2]
+                            && entryBounds[one + 1] <= entryBounds[two + 3] && entryBounds[two + 1] <= entryBounds[one + 3]) {
+                        visitor.visit(entrySlot[first], entrySlot[entry]);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * <p>Finds every pair of Rectangles that intersect, using the same rules as {@link Rectangle#doesIntersect(Rectangle)}</p>
+     * <p>Includes perfect overlaps, Rectangles that only touch are not reported</p>
+     * @param store The RectangleDataset the grid was built from
+     * @param visitor Receives each intersecting pair once, lower slot first
+     * @return The number of pairs found
+     */
+    public long forEachIntersectingPair(RectangleDataset store, PairVisitor visitor) {
+        long[] count = new long[1];
+        forEachTouchingPair((slotOne, slotTwo) -> {
+            if (store.intersects(slotOne, slotTwo)) {
+                count[0]++;
+                visitor.visit(slotOne, slotTwo);
+            }
+        });
+        return count[0];
+    }
+
+    // Helper functions
+    // Column or row of a coordinate, outside the grid for coordinates outside the bounds of the dataset
+    private static long cellOf(long value, long origin, long cellSize) {
+        return Math.floorDiv(value - origin, cellSize);
+    }
+
+    private static int clamp(long value, int count) {
+        return (int) Math.max(0, Math.min(value, count - 1));
+    }
+
+    // Value three quarters of the way up the sorted values, the values are sorted in place
+    private static int upperQuartile(int[] values) {
+        Arrays.sort(values);
+        return values[(int) (values.length * 3L / 4)];
+    }
+}
@@ -0,0 +1,171 @@
+package com.mhsnodgrass.rectangleparser.index;
+
+import com.mhsnodgrass.rectangleparser.model.RectangleStore;
+import com.mhsnodgrass.rectangleparser.util.IntIntHashMap;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/** Spatial index over a {@link RectangleStore} that changes, found by id instead of slot.
+ * <p>Made of a bulk loaded {@link RTree} (the base) and a small list of Rectangles added or changed since it was built (the delta).
+ * Base entries for ids that were changed or removed are marked stale and skipped</p>
+ * <p>Each update is O(1). Once the delta and stale entries pass a share of the base, the base is rebuilt from the store,
+ * so searches stay close to the cost of a fresh R-tree</p>
+ * <p>Bounds are closed, the same as {@link RTree}</p>
+ * @author Matthew Snodgrass
+ */
+public class LiveSpatialIndex {
+    private static final int MIN_REBUILD = 1024;
+    private static final int REBUILD_SHARE = 8;
+
+    private final RectangleStore store;
+
+    // Base tree, the id of each of its slots when it was built, and the ids whose base entry is out of date
+    private RTree base;
+    private int[] baseIds;
+    private IntIntHashMap baseSlots;
+    private IntIntHashMap stale;
+
+    // Delta rows, one per id added or changed since the base was built
+    private int[] deltaId = new int[16];
+    private int[] deltaMinX = new int[16];
+    private int[] deltaMinY = new int[16];
+    private int[] deltaMaxX = new int[16];
+    private int[] deltaMaxY = new int[16];
+    private int deltaSize;
+    private final IntIntHashMap deltaRows = new IntIntHashMap();
+
+    /**
+     * Builds the index over every Rectangle in the store
+     * @param store Store to index, changes to it have to be passed on with {@link #update(int)} and {@link #remove(int)}
+     */
+    public LiveSpatialIndex(RectangleStore store) {
+        this.store = store;
+        rebuild();
+    }
+
+    // Getters
+    /**
+     * Gets the number of Rectangles held in the delta, waiting for the next rebuild
+     * @return The number of delta rows
+     */
+    public int getDeltaSize() {
+        return deltaSize;
+    }
+
+    // Methods
+    /**
+     * Picks up the current bounds of an id that was added to or changed in the store
+     * @param id Id of the Rectangle
+     */
+    public void update(int id) {
+        int slot = store.indexOf(id);
+        if (slot < 0) {
+            remove(id);
+            return;
+        }
+        if (baseSlots.containsKey(id)) {
+            stale.put(id, 0);
+        }
+
+        int row = deltaRows.get(id);
+        if (row == IntIntHashMap.NO_VALUE) {
+            if (deltaSize == deltaId.length) {
+                growDelta();
+            }
+            row = deltaSize++;
+            deltaRows.put(id, row);
+        }
+
+        int x = store.getX(slot);
+        int y = store.getY(slot);
+        deltaId[row] = id;
+        deltaMinX[row] = x;
+        deltaMaxX[row] = x + store.getWidth(slot);
+        deltaMinY[row] = y - store.getHeight(slot);
+        deltaMaxY[row] = y;
+
+        rebuildIfNeeded();
+    }
+
+    /**
+     * Drops an id that was removed from the store
+     * @param id Id of the Rectangle
+     */
+    public void remove(int id) {
+        if (baseSlots.containsKey(id)) {
+            stale.put(id, 0);
+        }
+
+        int row = deltaRows.remove(id);
+        if (row != IntIntHashMap.NO_VALUE) {
+            // Move the last row into the gap
+            int last = --deltaSize;
+            if (row != last) {
+                deltaId[row] = deltaId[last];
+                deltaMinX[row] = deltaMinX[last];
+                deltaMinY[row] = deltaMinY[last];
+                deltaMaxX[row] = deltaMaxX[last];
+                deltaMaxY[row] = deltaMaxY[last];
+                deltaRows.put(deltaId[row], row);
+            }
+        }
+
+        rebuildIfNeeded();
+    }
+
+    /**
+     * Visits the id of every Rectangle whose closed bounds share at least one point with the box given
+     * @param minX Left of the box
+     * @param minY Bottom of the box
+     * @param maxX Right of the box
+     * @param maxY Top of the box
+     * @param consumer Receives the id of each Rectangle found
+     */
+    public void search(int minX, int minY, int maxX, int maxY, IntConsumer consumer) {
+        base.search(minX, minY, maxX, maxY, slot -> {
+            int id = baseIds[slot];
+            if (stale.size() == 0 || !stale.containsKey(id)) {
+                consumer.accept(id);
+            }
+        });
+
+        for (int row = 0; row < deltaSize; row++) {
+            if (deltaMinX[row] <= maxX && minX <= deltaMaxX[row] && deltaMinY[row] <= maxY && minY <= deltaMaxY[row]) {
+                consumer.accept(deltaId[row]);
+            }
+        }
+    }
+
+    /**
+     * Builds a new base from the store and empties the delta
+     */
+    public void rebuild() {
+        base = RTree.build(store);
+        baseIds = new int[store.size()];
+        baseSlots = new IntIntHashMap(store.size());
+        for (int slot = 0; slot < store.size(); slot++) {
+            baseIds[slot] = store.getId(slot);
+            baseSlots.put(baseIds[slot], slot);
+        }
+        stale = new IntIntHashMap();
+        deltaRows.clear();
+        deltaSize = 0;
+    }
+
+    // Helper functions
+    private void rebuildIfNeeded() {
+        if (deltaSize + stale.size() > Math.max(MIN_REBUILD, baseIds.length / REBUILD_SHARE)) {
+            rebuild();
+        }
+    }
+
+    private void growDelta() {
+        int capacity = deltaId.length * 2;
+        deltaId = Arrays.copyOf(deltaId, capacity);
+        deltaMinX = Arrays.copyOf(deltaMinX, capacity);
+        deltaMinY = Arrays.copyOf(deltaMinY, capacity);
+        deltaMaxX = Arrays.copyOf(deltaMaxX, capacity);
+        deltaMaxY = Arrays.copyOf(deltaMaxY, capacity);
+    }
+}
@@ -0,0 +1,430 @@
+package com.mhsnodgrass.rectangleparser.index;
+
+import com.mhsnodgrass.rectangleparser.model.RectangleDataset;
+import com.mhsnodgrass.rectangleparser.util.GeometryUtils;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+
+/** Static R-tree over the Rectangles in a {@link RectangleDataset}, bulk loaded with Sort-Tile-Recursive (STR).
+ * <p>STR sorts the Rectangles into vertical slices by the center x, then sorts each slice by the center y and packs
+ * them into full nodes, and repeats the same for each level above. Nodes end up nearly full with little overlap</p>
+ * <p>Bounds are closed, a Rectangle covers x to x + width and y - height to y</p>
+ * <p>Every node is stored in flat int arrays, the levels are laid out one after another with the root last</p>
+ * @author Matthew Snodgrass
+ */
+public class RTree implements SpatialIndex {
+    private static final int NODE_CAPACITY = 16;
+
+    // Entries (one per Rectangle) in leaf order
+    private final int[] entrySlot;
+    private final int[] entryMinX;
+    private final int[] entryMinY;
+    private final int[] entryMaxX;
+    private final int[] entryMaxY;
+
+    // Nodes, children are a range of entries for leaves or a range of nodes for everything else
+    private final int[] nodeMinX;
+    private final int[] nodeMinY;
+    private final int[] nodeMaxX;
+    private final int[] nodeMaxY;
+    private final int[] nodeFirstChild;
+    private final int[] nodeChildCount;
+    private final boolean[] nodeLeaf;
+    private final int root;
+    private final int height;
+
+    private RTree(int[] entrySlot, int[] entryMinX, int[] entryMinY, int[] entryMaxX, int[] entryMaxY,
+                  int[] nodeMinX, int[] nodeMinY, int[] nodeMaxX, int[] nodeMaxY,
+                  int[] nodeFirstChild, int[] nodeChildCount, boolean[] nodeLeaf, int height) {
+        this.entrySlot = entrySlot;
+        this.entryMinX = entryMinX;
+        this.entryMinY = entryMinY;
+        this.entryMaxX = entryMaxX;
+        this.entryMaxY = entryMaxY;
+        this.nodeMinX = nodeMinX;
+        this.nodeMinY = nodeMinY;
+        this.nodeMaxX = nodeMaxX;
+        this.nodeMaxY = nodeMaxY;
+        this.nodeFirstChild = nodeFirstChild;
+        this.nodeChildCount = nodeChildCount;
+        this.nodeLeaf = nodeLeaf;
+        this.root = nodeMinX.length - 1;
+        this.height = height;
+    }
+
+    /**
+     * Bulk loads an R-tree from every Rectangle in the store
+     * @param store Rectangles to index
+     * @return A new RTree, later changes to the store are not picked up
+     */
+    public static RTree build(RectangleDataset store) {
+        int size = store.size();
+
+        // Bounds of every Rectangle, by slot
+        int[] minX = new int[size];
+        int[] minY = new int[size];
+        int[] maxX = new int[size];
+        int[] maxY = new int[size];
+        for (int slot = 0; slot < size; slot++) {
+            minX[slot] = store.getX(slot);
+            maxX[slot] = minX[slot] + store.getWidth(slot);
+            maxY[slot] = store.getY(slot);
+            minY[slot] = maxY[slot] - store.getHeight(slot);
+        }
+
+        // Pack the Rectangles into leaves
+        int[] order = strOrder(minX, minY, maxX, maxY, size);
+        int[] entrySlot = order;
+        int[] entryMinX = new int[size];
+        int[] entryMinY = new int[size];
+        int[] entryMaxX = new int[size];
+        int[] entryMaxY = new int[size];
+        for (int i = 0; i < size; i++) {
+            entryMinX[i] = minX[order[i]];
+            entryMinY[i] = minY[order[i]];
+            entryMaxX[i] = maxX[order[i]];
+            entryMaxY[i] = maxY[order[i]];
+        }
+
+        // Work out how many nodes each level needs, so everything fits in one set of arrays
+        int totalNodes = 0;
+        int levelCount = Math.max(1, ceilDiv(size, NODE_CAPACITY));
+        int height = 1;
+        totalNodes += levelCount;
+        while (levelCount > 1) {
+            levelCount = ceilDiv(levelCount, NODE_CAPACITY);
+            totalNodes += levelCount;
+            height++;
+        }
+
+        int[] nodeMinX = new int[totalNodes];
+        int[] nodeMinY = new int[totalNodes];
+        int[] nodeMaxX = new int[totalNodes];
+        int[] nodeMaxY = new int[totalNodes];
+        int[] nodeFirstChild = new int[totalNodes];
+        int[] nodeChildCount = new int[totalNodes];
+        boolean[] nodeLeaf = new boolean[totalNodes];
+
+        // Leaves, each one takes the next run of entries
+        int nodeCount = 0;
+        int leafCount = Math.max(1, ceilDiv(size, NODE_CAPACITY));
+        for (int leaf = 0; leaf < leafCount; leaf++) {
+            int first = leaf * NODE_CAPACITY;
+            int count = Math.min(NODE_CAPACITY, size - first);
+            setNode(nodeCount++, first, Math.max(count, 0), true, entryMinX, entryMinY, entryMaxX, entryMaxY,
+                    nodeMinX, nodeMinY, nodeMaxX, nodeMaxY, nodeFirstChild, nodeChildCount, nodeLeaf);
+        }
+
+        // Every level above, nodes of the level below are sorted with STR and then packed
+        int levelStart = 0;
+        int levelSize = leafCount;
+        while (levelSize > 1) {
+            int[] levelOrder = strOrder(Arrays.copyOfRange(nodeMinX, levelStart, levelStart + levelSize),
+                    Arrays.copyOfRange(nodeMinY, levelStart, levelStart + levelSize),
+                    Arrays.copyOfRange(nodeMaxX, levelStart, levelStart + levelSize),
+                    Arrays.copyOfRange(nodeMaxY, levelStart, levelStart + levelSize), levelSize);
+            reorderNodes(levelStart, levelOrder, nodeMinX, nodeMinY, nodeMaxX, nodeMaxY, nodeFirstChild, nodeChildCount, nodeLeaf);
+
+            int parentStart = nodeCount;
+            int parentCount = ceilDiv(levelSize, NODE_CAPACITY);
+            for (int parent = 0; parent < parentCount; parent++) {
+                int first = levelStart + parent * NODE_CAPACITY;
+                int count = Math.min(NODE_CAPACITY, levelStart + levelSize - first);
+                setNode(nodeCount++, first, count, false, nodeMinX, nodeMinY, nodeMaxX, nodeMaxY,
+                        nodeMinX, nodeMinY, nodeMaxX, nodeMaxY, nodeFirstChild, nodeChildCount, nodeLeaf);
+            }
+            levelStart = parentStart;
+            levelSize = parentCount;
+        }
+
+        return new RTree(entrySlot, entryMinX, entryMinY, entryMaxX, entryMaxY,
+                nodeMinX, nodeMinY, nodeMaxX, nodeMaxY, nodeFirstChild, nodeChildCount, nodeLeaf, height);
+    }
+
+    // Getters
+    /**
+     * Gets the number of Rectangles in the tree
+     * @return The number of entries
+     */
+    @Override
+    public int size() {
+        return entrySlot.length;
+    }
+
+    /**
+     * Gets the number of levels in the tree, leaves included
+     * @return The height of the tree
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    // Methods
+    /**
+     * <p>Visits every Rectangle whose closed bounds share at least one point with the box given (touching counts)</p>
+     * <p>Only nodes whose bounds overlap the box are opened, so the cost is logarithmic plus the number of results</p>
+     * @param minX Left of the box
+     * @param minY Bottom of the box
+     * @param maxX Right of the box
+     * @param maxY Top of the box
+     * @param consumer Receives the slot of each Rectangle found
+     */
+    @Override
+    public void search(int minX, int minY, int maxX, int maxY, IntConsumer consumer) {
+        if (entrySlot.length == 0) {
+            return;
+        }
+
+        int[] stack = new int[height * NODE_CAPACITY + 1];
+        int top = 0;
+        stack[top++] = root;
+
+        while (top > 0) {
+            int node = stack[--top];
+            if (!overlaps(nodeMinX[node], nodeMinY[node], nodeMaxX[node], nodeMaxY[node], minX, minY, maxX, maxY)) {
+                continue;
+            }
+
+            int first = nodeFirstChild[node];
+            int last = first + nodeChildCount[node];
+            if (nodeLeaf[node]) {
+                for (int entry = first; entry < last; entry++) {
+                    if (overlaps(entryMinX[entry], entryMinY[entry], entryMaxX[entry], entryMaxY[entry], minX, minY, maxX, maxY)) {
+                        consumer.accept(entrySlot[entry]);
+                    }
+                }
+            } else {
+                for (int child = first; child < last; child++) {
+                    stack[top++] = child;
+                }
+            }
+        }
+    }
+
+    /**
+     * <p>Finds the k Rectangles closest to the box given, by the distance between their edges (0 when they touch or overlap)</p>
+     * <p>Best-first search, the node closest to the box is always opened next and the k closest Rectangles found so far are kept
+     * in a bounded queue. Nodes farther away than the k-th closest Rectangle are never opened, so only the part of the tree
+     * around the box is read</p>
+     * @param minX Left of the box
+     * @param minY Bottom of the box
+     * @param maxX Right of the box
+     * @param maxY Top of the box
+     * @param k Number of Rectangles to find
+     * @param filter Decides which slots can be returned, ie: to leave out the Rectangle the box came from
+     * @return Up to k slots, closest first, Rectangles the same distance away are in slot order
+     */
+    public int[] nearest(int minX, int minY, int maxX, int maxY, int k, IntPredicate filter) {
+        if (entrySlot.length == 0 || k <= 0) {
+            return new int[0];
+        }
+
+        DistanceHeap nodes = new DistanceHeap(height * NODE_CAPACITY + 1, false);
+        DistanceHeap closest = new DistanceHeap(Math.min(k, entrySlot.length), true);
+        nodes.push(distanceTo(root, minX, minY, maxX, maxY), root);
+
+        while (nodes.size() > 0) {
+            // Ties with the k-th closest are still opened, a lower slot the same distance away takes its place
+            if (closest.size() == k && nodes.peekDistance() > closest.peekDistance()) {
+                break;
+            }
+            int node = nodes.pop();
+
+            int first = nodeFirstChild[node];
+            int last = first + nodeChildCount[node];
+            if (nodeLeaf[node]) {
+                for (int entry = first; entry < last; entry++) {
+                    int slot = entrySlot[entry];
+                    if (filter.test(slot)) {
+                        double distance = GeometryUtils.boxDistanceSquared(entryMinX[entry], entryMinY[entry], entryMaxX[entry], entryMaxY[entry],
+                                minX, minY, maxX, maxY);
+                        if (closest.size() < k) {
+                            closest.push(distance, slot);
+                        } else if (closest.isAfter(distance, slot, closest.peekDistance(), closest.peek())) {
+                            closest.pop();
+                            closest.push(distance, slot);
+                        }
+                    }
+                }
+            } else {
+                for (int child = first; child < last; child++) {
+                    double distance = distanceTo(child, minX, minY, maxX, maxY);
+                    if (closest.size() < k || distance <= closest.peekDistance()) {
+                        nodes.push(distance, child);
+                    }
+                }
+            }
+        }
+
+        int[] slots = new int[closest.size()];
+        for (int i = slots.length - 1; i >= 0; i--) {
+            slots[i] = closest.pop();
+        }
+        return slots;
+    }
+
+    // Helper functions
+    private double distanceTo(int node, int minX, int minY, int maxX, int maxY) {
+        return GeometryUtils.boxDistanceSquared(nodeMinX[node], nodeMinY[node], nodeMaxX[node], nodeMaxY[node], minX, minY, maxX, maxY);
+    }
+
+    private static boolean overlaps(int aMinX, int aMinY, int aMaxX, int aMaxY, int bMinX, int bMinY, int bMaxX, int bMaxY) {
+        return aMinX <= bMaxX && bMinX <= aMaxX && aMinY <= bMaxY && bMinY <= aMaxY;
+    }
+
+    private static int ceilDiv(int value, int divisor) {
+        return (value + divisor - 1) / divisor;
+    }
+
+    // Sort-Tile-Recursive order of the boxes given, returns the index of each box in packing order
+    private static int[] strOrder(int[] minX, int[] minY, int[] maxX, int[] maxY, int size) {
+        int leafCount = ceilDiv(size, NODE_CAPACITY);
+        int sliceCount = (int) Math.ceil(Math.sqrt(leafCount));
+        int sliceSize = sliceCount * NODE_CAPACITY;
+
+        // Sort by center x, the center is doubled to stay in whole numbers
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = sortKey((long) minX[i] + maxX[i], i);
+        }
+        Arrays.sort(keys);
+
+        // Sort each slice by center y
+        for (int start = 0; start < size; start += sliceSize) {
+            int end = Math.min(size, start + sliceSize);
+            for (int i = start; i < end; i++) {
+                int index = (int) (keys[i] & Integer.MAX_VALUE);
+                keys[i] = sortKey((long) minY[index] + maxY[index], index);
+            }
+            Arrays.sort(keys, start, end);
+        }
+
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = (int) (keys[i] & Integer.MAX_VALUE);
+        }
+        return order;
+    }
+
+    // Packs a 33 bit key and a 31 bit index so a plain sort orders by key
+    private static long sortKey(long key, int index) {
+        return (key << 31) | index;
+    }
+
+    private static void reorderNodes(int start, int[] order, int[] nodeMinX, int[] nodeMinY, int[] nodeMaxX, int[] nodeMaxY,
+                                     int[] nodeFirstChild, int[] nodeChildCount, boolean[] nodeLeaf) {
+        int[][] columns = {nodeMinX, nodeMinY, nodeMaxX, nodeMaxY, nodeFirstChild, nodeChildCount};
+        for (int[] column : columns) {
+            int[] copy = Arrays.copyOfRange(column, start, start + order.length);
+            for (int i = 0; i < order.length; i++) {
+                column[start + i] = copy[order[i]];
+            }
+        }
+        boolean[] leafCopy = Arrays.copyOfRange(nodeLeaf, start, start + order.length);
+        for (int i = 0; i < order.length; i++) {
+            nodeLeaf[start + i] = leafCopy[order[i]];
+        }
+    }
+
+    private static void setNode(int node, int first, int count, boolean leaf,
+                                int[] childMinX, int[] childMinY, int[] childMaxX, int[] childMaxY,
+                                int[] nodeMinX, int[] nodeMinY, int[] nodeMaxX, int[] nodeMaxY,
+                                int[] nodeFirstChild, int[] nodeChildCount, boolean[] nodeLeaf) {
+        int minX = Integer.MAX_VALUE;
+        int minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int maxY = Integer.MIN_VALUE;
+        for (int child = first; child < first + count; child++) {
+            minX = Math.min(minX, childMinX[child]);
+            minY = Math.min(minY, childMinY[child]);
+            maxX = Math.max(maxX, childMaxX[child]);
+            maxY = Math.max(maxY, childMaxY[child]);
+        }
+
+        nodeMinX[node] = minX;
+        nodeMinY[node] = minY;
+        nodeMaxX[node] = maxX;
+        nodeMaxY[node] = maxY;
+        nodeFirstChild[node] = first;
+        nodeChildCount[node] = count;
+        nodeLeaf[node] = leaf;
+    }
+
+    // Binary heap of values keyed by squared distance, closest on top or (as a bounded queue of results) farthest on top
+    private static final class DistanceHeap {
+        private final boolean farthestFirst;
+        private double[] distances;
+        private int[] values;
+        private int size;
+
+        DistanceHeap(int capacity, boolean farthestFirst) {
+            this.farthestFirst = farthestFirst;
+            this.distances = new double[Math.max(capacity, 1)];
+            this.values = new int[Math.max(capacity, 1)];
+        }
+
+        int size() {
+            return size;
+        }
+
+        double peekDistance() {
+            return distances[0];
+        }
+
+        int peek() {
+            return values[0];
+        }
+
+        void push(double distance, int value) {
+            if (size == values.length) {
+                distances = Arrays.copyOf(distances, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!isAfter(distances[parent], values[parent], distance, value)) {
+                    break;
+                }
+                distances[i] = distances[parent];
+                values[i] = values[parent];
+                i = parent;
+            }
+            distances[i] = distance;
+            values[i] = value;
+        }
+
+        int pop() {
+            int top = values[0];
+            double distance = distances[--size];
+            int value = values[size];
+            int i = 0;
+            while (true) {
+                int child = i * 2 + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && isAfter(distances[child], values[child], distances[child + 1], values[child + 1])) {
+                    child++;
+                }
+                if (!isAfter(distance, value, distances[child], values[child])) {
+                    break;
+                }
+                distances[i] = distances[child];
+                values[i] = values[child];
+                i = child;
+            }
+            distances[i] = distance;
+            values[i] = value;
+            return top;
+        }
+
+        // True if the first pair belongs below the second in this heap, ties on distance go by value
+        boolean isAfter(double distanceOne, int valueOne, double distanceTwo, int valueTwo) {
+            int order = distanceOne != distanceTwo ? Double.compare(distanceOne, distanceTwo) : Integer.compare(valueOne, valueTwo);
+            return farthestFirst ? order < 0 : order > 0;
+        }
+    }
+}
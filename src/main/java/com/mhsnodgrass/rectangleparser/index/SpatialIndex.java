@@ -0,0 +1,26 @@
+package com.mhsnodgrass.rectangleparser.index;
+
+import java.util.function.IntConsumer;
+
+/** A static index over the Rectangles of a {@link com.mhsnodgrass.rectangleparser.model.RectangleDataset}, searched with a box.
+ * <p>Implemented by {@link RTree} and {@link GridIndex}, rectangleparser.index.type picks the one the queries use</p>
+ * <p>Bounds are closed, a Rectangle covers x to x + width and y - height to y</p>
+ * @author Matthew Snodgrass
+ */
+public interface SpatialIndex {
+    /**
+     * Gets the number of Rectangles in the index
+     * @return The number of Rectangles the index was built from
+     */
+    int size();
+
+    /**
+     * Visits every Rectangle whose closed bounds share at least one point with the box given (touching counts), each one once
+     * @param minX Left of the box
+     * @param minY Bottom of the box
+     * @param maxX Right of the box
+     * @param maxY Top of the box
+     * @param consumer Receives the slot of each Rectangle found
+     */
+    void search(int minX, int minY, int maxX, int maxY, IntConsumer consumer);
+}
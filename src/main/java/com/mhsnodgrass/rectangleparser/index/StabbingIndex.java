@@ -0,0 +1,302 @@
+package com.mhsnodgrass.rectangleparser.index;
+
+import com.mhsnodgrass.rectangleparser.model.RectangleDataset;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/** Static index that answers "which Rectangles contain this point" (point stabbing) over a {@link RectangleDataset}.
+ * <p>A segment tree over the x extents, where each Rectangle is stored in the O(log n) nodes that together cover its x range.
+ * Each node keeps a centered interval tree over the y extents of its Rectangles</p>
+ * <p>A query walks the one path of the segment tree down to the x of the point, and stabs the interval tree of each node on the
+ * way with the y. Every Rectangle is stored in one node on the path at most, so the cost is O(log&sup2; n + k) for k results</p>
+ * <p>Bounds are closed, a Rectangle covers x to x + width and y - height to y, so a point on an edge is inside</p>
+ * <p>Every node is stored in flat int arrays, taking O(n log n) space</p>
+ * @author Matthew Snodgrass
+ */
+public class StabbingIndex {
+    // Bottom and top of each Rectangle, by slot
+    private final int[] bottoms;
+    private final int[] tops;
+
+    // Segment tree over x, leaf i covers cuts[i] up to (not including) cuts[i + 1], nodes are numbered from 1 like a heap
+    private final long[] cuts;
+    private final int leaves;
+    private final int[] xNodeTree;
+
+    // Interval tree nodes over y, each holds the Rectangles that span its center, sorted both ways
+    private final int[] centers;
+    private final int[] lower;
+    private final int[] higher;
+    private final int[] firstEntry;
+    private final int[] entryCount;
+    private final int[] byBottom;
+    private final int[] byTop;
+
+    private StabbingIndex(int[] bottoms, int[] tops, long[] cuts, int[] xNodeTree, int[] centers, int[] lower, int[] higher,
+                          int[] firstEntry, int[] entryCount, int[] byBottom, int[] byTop) {
+        this.bottoms = bottoms;
+        this.tops = tops;
+        this.cuts = cuts;
+        this.leaves = cuts.length - 1;
+        this.xNodeTree = xNodeTree;
+        this.centers = centers;
+        this.lower = lower;
+        this.higher = higher;
+        this.firstEntry = firstEntry;
+        this.entryCount = entryCount;
+        this.byBottom = byBottom;
+        this.byTop = byTop;
+    }
+
+    /**
+     * Builds the index from every Rectangle in the store
+     * @param store Rectangles to index
+     * @return A new StabbingIndex, later changes to the store are not picked up
+     */
+    public static StabbingIndex build(RectangleDataset store) {
+        int size = store.size();
+        int[] lefts = new int[size];
+        int[] rights = new int[size];
+        int[] bottoms = new int[size];
+        int[] tops = new int[size];
+        long[] cuts = new long[size * 2];
+        for (int slot = 0; slot < size; slot++) {
+            lefts[slot] = store.getX(slot);
+            rights[slot] = lefts[slot] + store.getWidth(slot);
+            tops[slot] = store.getY(slot);
+            bottoms[slot] = tops[slot] - store.getHeight(slot);
+            // Closed on the right, so the range of x values is left to right + 1
+            cuts[slot * 2] = lefts[slot];
+            cuts[slot * 2 + 1] = rights[slot] + 1L;
+        }
+        cuts = distinctSorted(cuts);
+        int leaves = Math.max(cuts.length - 1, 1);
+
+        // Count the Rectangles in each segment tree node, then lay the nodes out one after another
+        int[] nodeStart = new int[leaves * 4 + 1];
+        int[] leafFrom = new int[size];
+        int[] leafTo = new int[size];
+        for (int slot = 0; slot < size; slot++) {
+            leafFrom[slot] = Arrays.binarySearch(cuts, lefts[slot]);
+            leafTo[slot] = Arrays.binarySearch(cuts, rights[slot] + 1L);
+            insert(1, 0, leaves, leafFrom[slot], leafTo[slot], slot, nodeStart, null);
+        }
+        for (int node = 1; node < nodeStart.length; node++) {
+            nodeStart[node] += nodeStart[node - 1];
+        }
+        int entries = nodeStart[nodeStart.length - 1];
+        int[] nodeSlots = new int[entries];
+        int[] next = Arrays.copyOf(nodeStart, nodeStart.length);
+        for (int slot = 0; slot < size; slot++) {
+            insert(1, 0, leaves, leafFrom[slot], leafTo[slot], slot, next, nodeSlots);
+        }
+
+        // One interval tree for each segment tree node, never more interval tree nodes than entries
+        YTreeBuilder builder = new YTreeBuilder(bottoms, tops, nodeSlots);
+        int[] xNodeTree = new int[leaves * 4];
+        for (int node = 0; node < xNodeTree.length; node++) {
+            // Node n holds nodeSlots from nodeStart[n] up to nodeStart[n + 1]
+            xNodeTree[node] = builder.build(nodeStart[node], nodeStart[node + 1]);
+        }
+
+        return new StabbingIndex(bottoms, tops, cuts, xNodeTree, Arrays.copyOf(builder.centers, builder.count),
+                Arrays.copyOf(builder.lower, builder.count), Arrays.copyOf(builder.higher, builder.count),
+                Arrays.copyOf(builder.firstEntry, builder.count), Arrays.copyOf(builder.entryCount, builder.count),
+                builder.byBottom, builder.byTop);
+    }
+
+    // Getters
+    /**
+     * Gets the number of Rectangles in the index
+     * @return The number of Rectangles the index was built from
+     */
+    public int size() {
+        return bottoms.length;
+    }
+
+    /**
+     * Gets the number of times Rectangles are stored in the segment tree, at most about 2 log n for each one
+     * @return The number of entries
+     */
+    public int getEntryCount() {
+        return byBottom.length;
+    }
+
+    // Methods
+    /**
+     * Visits every Rectangle whose closed bounds contain the point, each one once and in no set order
+     * @param x X coordinate of the point
+     * @param y Y coordinate of the point
+     * @param consumer Receives the slot of each Rectangle found
+     */
+    public void stab(int x, int y, IntConsumer consumer) {
+        if (bottoms.length == 0 || x < cuts[0] || x >= cuts[leaves]) {
+            return;
+        }
+
+        // Leaf holding x, the last cut at or below it
+        int search = Arrays.binarySearch(cuts, x);
+        int leaf = search >= 0 ? search : -search - 2;
+
+        int node = 1;
+        int lo = 0;
+        int hi = leaves;
+        while (true) {
+            stabY(xNodeTree[node], y, consumer);
+            if (hi - lo == 1) {
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            if (leaf < mid) {
+                node = node * 2;
+                hi = mid;
+            } else {
+                node = node * 2 + 1;
+                lo = mid;
+            }
+        }
+    }
+
+    // Helper functions
+    // Walks one interval tree, at each node only the Rectangles that reach y are read before moving down
+    private void stabY(int yNode, int y, IntConsumer consumer) {
+        while (yNode >= 0) {
+            int first = firstEntry[yNode];
+            int last = first + entryCount[yNode];
+            if (y < centers[yNode]) {
+                for (int entry = first; entry < last && bottoms[byBottom[entry]] <= y; entry++) {
+                    consumer.accept(byBottom[entry]);
+                }
+                yNode = lower[yNode];
+            } else if (y > centers[yNode]) {
+                for (int entry = first; entry < last && tops[byTop[entry]] >= y; entry++) {
+                    consumer.accept(byTop[entry]);
+                }
+                yNode = higher[yNode];
+            } else {
+                for (int entry = first; entry < last; entry++) {
+                    consumer.accept(byBottom[entry]);
+                }
+                return;
+            }
+        }
+    }
+
+    // Adds the slot to the nodes that cover leaves from to to - 1, counting into starts (shifted by one) when slots is null
+    private static void insert(int node, int lo, int hi, int from, int to, int slot, int[] starts, int[] slots) {
+        if (to <= lo || hi <= from) {
+            return;
+        }
+        if (from <= lo && hi <= to) {
+            if (slots == null) {
+                starts[node + 1]++;
+            } else {
+                slots[starts[node]++] = slot;
+            }
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        insert(node * 2, lo, mid, from, to, slot, starts, slots);
+        insert(node * 2 + 1, mid, hi, from, to, slot, starts, slots);
+    }
+
+    private static long[] distinctSorted(long[] values) {
+        Arrays.sort(values);
+        int distinct = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (distinct == 0 || values[i] != values[distinct - 1]) {
+                values[distinct++] = values[i];
+            }
+        }
+        return Arrays.copyOf(values, distinct);
+    }
+
+    // Builds centered interval trees over runs of nodeSlots, reordering each run in place so the spanning Rectangles of a node sit together
+    private static final class YTreeBuilder {
+        private final int[] bottoms;
+        private final int[] tops;
+        private final int[] slots;
+        private final int[] byBottom;
+        private final int[] byTop;
+        private final int[] centers;
+        private final int[] lower;
+        private final int[] higher;
+        private final int[] firstEntry;
+        private final int[] entryCount;
+        private int count;
+
+        YTreeBuilder(int[] bottoms, int[] tops, int[] slots) {
+            this.bottoms = bottoms;
+            this.tops = tops;
+            this.slots = slots;
+            this.byBottom = new int[slots.length];
+            this.byTop = new int[slots.length];
+            this.centers = new int[slots.length];
+            this.lower = new int[slots.length];
+            this.higher = new int[slots.length];
+            this.firstEntry = new int[slots.length];
+            this.entryCount = new int[slots.length];
+        }
+
+        int build(int from, int to) {
+            if (from >= to) {
+                return -1;
+            }
+
+            // The median of every bottom and top is inside at least one Rectangle, so each node holds one or more
+            int[] ends = new int[(to - from) * 2];
+            for (int i = from; i < to; i++) {
+                ends[(i - from) * 2] = bottoms[slots[i]];
+                ends[(i - from) * 2 + 1] = tops[slots[i]];
+            }
+            Arrays.sort(ends);
+            int center = ends[ends.length / 2];
+
+            // Three way partition, below the center, spanning it, then above it
+            int below = from;
+            int above = to;
+            int i = from;
+            while (i < above) {
+                int slot = slots[i];
+                if (tops[slot] < center) {
+                    swap(i++, below++);
+                } else if (bottoms[slot] > center) {
+                    swap(i, --above);
+                } else {
+                    i++;
+                }
+            }
+
+            int node = count++;
+            centers[node] = center;
+            firstEntry[node] = below;
+            entryCount[node] = above - below;
+            sortInto(byBottom, below, above, false);
+            sortInto(byTop, below, above, true);
+            lower[node] = build(from, below);
+            higher[node] = build(above, to);
+            return node;
+        }
+
+        // Copies slots from to to - 1 into the target sorted by bottom, or by top from the highest down
+        private void sortInto(int[] target, int from, int to, boolean byTopDescending) {
+            long[] keys = new long[to - from];
+            for (int i = from; i < to; i++) {
+                int slot = slots[i];
+                int key = byTopDescending ? ~tops[slot] : bottoms[slot];
+                keys[i - from] = ((long) key << 32) | slot;
+            }
+            Arrays.sort(keys);
+            for (int i = from; i < to; i++) {
+                target[i] = (int) keys[i - from];
+            }
+        }
+
+        private void swap(int a, int b) {
+            int slot = slots[a];
+            slots[a] = slots[b];
+            slots[b] = slot;
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.mhsnodgrass.rectangleparser.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/** Rectangles read straight from a memory mapped binary file, nothing is copied onto the heap when the file is opened.
+ * <p>The file is a fixed width layout, every value is a little endian int:</p>
+ * <p>Header (16 bytes): magic (`RBIN`), version, count, and a reserved int</p>
+ * <p>Columns (count ints each, in slot order): id, x, y, width, height</p>
+ * <p>Id index (count ints each): every id in ascending order, then the slot of each of those ids</p>
+ * <p>Each section is mapped on its own, so a file can hold up to {@link Integer#MAX_VALUE} / 4 Rectangles.
+ * Lookups by id are a binary search over the sorted ids</p>
+ * <p>Files are made with {@link #write(RectangleDataset, File)}, usually from a {@link RectangleStore} loaded from XML</p>
+ * @author Matthew Snodgrass
+ */
+public class MappedRectangleStore implements RectangleDataset {
+    /** File extension used for binary Rectangle files */
+    public static final String EXTENSION = ".rbin";
+
+    private static final int MAGIC = 0x4E494252; // "RBIN" when read as little endian bytes
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int SECTIONS = 7;
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private final int size;
+    private final IntBuffer ids;
+    private final IntBuffer xs;
+    private final IntBuffer ys;
+    private final IntBuffer widths;
+    private final IntBuffer heights;
+    private final IntBuffer sortedIds;
+    private final IntBuffer sortedSlots;
+
+    private MappedRectangleStore(int size, IntBuffer[] sections) {
+        this.size = size;
+        this.ids = sections[0];
+        this.xs = sections[1];
+        this.ys = sections[2];
+        this.widths = sections[3];
+        this.heights = sections[4];
+        this.sortedIds = sections[5];
+        this.sortedSlots = sections[6];
+    }
+
+    /**
+     * <p>Opens a binary Rectangle file and maps every section of it</p>
+     * <p>The mapping stays valid after this returns, pages are only read from disk when a slot in them is used</p>
+     * @param file Binary file made by {@link #write(RectangleDataset, File)}
+     * @return A MappedRectangleStore backed by the file
+     * @throws IOException If the file can not be read, or is not a binary Rectangle file
+     */
+    public static MappedRectangleStore open(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+                // Keep reading until the header is full or the file ends
+            }
+            if (header.hasRemaining() || header.getInt(0) != MAGIC) {
+                throw new IOException(file.getName() + " is not a binary Rectangle file");
+            }
+            if (header.getInt(4) != VERSION) {
+                throw new IOException(file.getName() + " has version " + header.getInt(4) + ", only version " + VERSION + " is supported");
+            }
+
+            int count = header.getInt(8);
+            long sectionSize = (long) count * Integer.BYTES;
+            if (count < 0 || channel.size() != HEADER_SIZE + sectionSize * SECTIONS) {
+                throw new IOException(file.getName() + " is not the size its header says, the file may be cut short");
+            }
+
+            IntBuffer[] sections = new IntBuffer[SECTIONS];
+            for (int i = 0; i < SECTIONS; i++) {
+                sections[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + sectionSize * i, sectionSize)
+                        .order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+            }
+            return new MappedRectangleStore(count, sections);
+        }
+    }
+
+    /**
+     * <p>Writes every Rectangle in a dataset to a binary Rectangle file, slots keep the same order</p>
+     * <p>The file is written next to the target and then moved over it, so a reader never sees half a file</p>
+     * @param dataset Rectangles to write
+     * @param file Binary file to create or replace
+     * @throws IOException If the file can not be written
+     */
+    public static void write(RectangleDataset dataset, File file) throws IOException {
+        int count = dataset.size();
+
+        // Id index, each key packs the id (high bits, so it sorts by id) and its slot
+        long[] keys = new long[count];
+        for (int slot = 0; slot < count; slot++) {
+            keys[slot] = ((long) dataset.getId(slot) << 32) | slot;
+        }
+        Arrays.sort(keys);
+
+        Path target = file.toPath().toAbsolutePath();
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                buffer.putInt(MAGIC).putInt(VERSION).putInt(count).putInt(0);
+
+                for (int section = 0; section < SECTIONS; section++) {
+                    for (int i = 0; i < count; i++) {
+                        if (!buffer.hasRemaining()) {
+                            flush(channel, buffer);
+                        }
+                        buffer.putInt(sectionValue(dataset, keys, section, i));
+                    }
+                }
+                flush(channel, buffer);
+                channel.force(false);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // Getters
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int getId(int slot) {
+        return ids.get(checkSlot(slot));
+    }
+
+    @Override
+    public int getHeight(int slot) {
+        return heights.get(checkSlot(slot));
+    }
+
+    @Override
+    public int getWidth(int slot) {
+        return widths.get(checkSlot(slot));
+    }
+
+    @Override
+    public int getX(int slot) {
+        return xs.get(checkSlot(slot));
+    }
+
+    @Override
+    public int getY(int slot) {
+        return ys.get(checkSlot(slot));
+    }
+
+    // Methods
+    /**
+     * Finds the slot of a Rectangle by its id, with a binary search over the sorted ids in the file
+     * @param id Id of the Rectangle to find
+     * @return The slot of the Rectangle, or -1 if the id is not in the file
+     */
+    @Override
+    public int indexOf(int id) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int value = sortedIds.get(middle);
+            if (value < id) {
+                low = middle + 1;
+            } else if (value > id) {
+                high = middle - 1;
+            } else {
+                return sortedSlots.get(middle);
+            }
+        }
+        return -1;
+    }
+
+    // Helper functions
+    private int checkSlot(int slot) {
+        if (slot < 0 || slot >= size) {
+            throw new IndexOutOfBoundsException("Slot: " + slot + ", Size: " + size);
+        }
+        return slot;
+    }
+
+    // Value for one entry of a section, in the order the sections are laid out in the file
+    private static int sectionValue(RectangleDataset dataset, long[] keys, int section, int i) {
+        switch (section) {
+            case 0:
+                return dataset.getId(i);
+            case 1:
+                return dataset.getX(i);
+            case 2:
+                return dataset.getY(i);
+            case 3:
+                return dataset.getWidth(i);
+            case 4:
+                return dataset.getHeight(i);
+            case 5:
+                return (int) (keys[i] >> 32);
+            default:
+                return (int) keys[i];
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -1,13 +1,14 @@
 package com.mhsnodgrass.rectangleparser.model;
 
-import org.apache.commons.collections.CollectionUtils;
+import com.mhsnodgrass.rectangleparser.util.GeometryUtils;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.stream.LongStream;
 
 /** Represents a Rectangle.
  * @author Matthew Snodgrass
@@ -150,33 +151,55 @@ public class Rectangle {
      * <p>This method checks for intersection and then returns the intersecting coordinates</p>
      * <p>Checks for intersection first using doesIntersect</p>
      * <p>Does include coordinates for a perfect overlap, and overlapping lines when a positive intersection is also present</p>
+     * <p>Only the shared ranges of each side are worked out (see {@link GeometryUtils#forEachIntersectionPoint}), the full perimeters are never built</p>
      * @param rect2 Rectangle sent in to see if it intersects with this Rectangle
      * @return A list of lists of x, y pair values to represent the intersection points
      */
     public List<Pair<Integer, Integer>> getIntersect(Rectangle rect2) {
         List<Pair<Integer, Integer>> results = new ArrayList<>();
-        List<Pair<Integer, Integer>> firstCoordinates = this.getAllCoordinates().stream()
-                .flatMap(List::stream)
-                .collect(Collectors.toList());
-
-        List<Pair<Integer, Integer>> secondCoordinates = rect2.getAllCoordinates().stream()
-                .flatMap(List::stream)
-                .collect(Collectors.toList());
 
         // Checks if there is an intersection first
         if (doesIntersect(rect2)) {
-            // Filter both lists into one by checking if a value is present in both
-            results = firstCoordinates;
-            if (results.retainAll(secondCoordinates)) {
-                return results;
-            } else {
-                results = null;
+            // Every point of this perimeter being shared is reported as null
+            long shared = GeometryUtils.countIntersectionPoints(x, y, width, height,
+                    rect2.getX(), rect2.getY(), rect2.getWidth(), rect2.getHeight());
+            if (shared == GeometryUtils.countPerimeterPoints(width, height)) {
+                return null;
             }
+
+            GeometryUtils.forEachIntersectionPoint(x, y, width, height,
+                    rect2.getX(), rect2.getY(), rect2.getWidth(), rect2.getHeight(),
+                    (px, py) -> results.add(new ImmutablePair<>(px, py)));
         }
 
         return results;
     }
 
+    /**
+     * <p>This method returns the region both Rectangles cover, worked out from the bounds alone (see {@link GeometryUtils#intersectRegion})</p>
+     * <p>Constant time however large the Rectangles are, unlike {@link #getIntersect(Rectangle)}</p>
+     * @param rect2 Rectangle sent in to see if it intersects with this Rectangle
+     * @return A new Rectangle (with no id) covering the overlap, or null if the Rectangles do not intersect
+     */
+    public Rectangle getIntersectRegion(Rectangle rect2) {
+        int[] region = GeometryUtils.intersectRegion(x, y, width, height, rect2.getX(), rect2.getY(), rect2.getWidth(), rect2.getHeight());
+        return region == null ? null : new Rectangle(null, region[3], region[2], region[0], region[1]);
+    }
+
+    /**
+     * <p>This method gives the same points as {@link #getIntersect(Rectangle)}, one at a time, without building a list or boxing them</p>
+     * <p>Each point is packed into a long, read it with {@link GeometryUtils#unpackX(long)} and {@link GeometryUtils#unpackY(long)}</p>
+     * <p>Unlike getIntersect, a perimeter that is shared all the way around is iterated and not reported as null</p>
+     * @param rect2 Rectangle sent in to see if it intersects with this Rectangle
+     * @return A lazy iterator over the intersection points, empty if the Rectangles do not intersect
+     */
+    public PrimitiveIterator.OfLong getIntersectPoints(Rectangle rect2) {
+        if (!doesIntersect(rect2)) {
+            return LongStream.empty().iterator();
+        }
+        return GeometryUtils.intersectionPoints(x, y, width, height, rect2.getX(), rect2.getY(), rect2.getWidth(), rect2.getHeight());
+    }
+
     /**
      * <p>This method checks for intersection, including perfect overlap</p>
      * <p>Uses the bottom left and top right coordinate of each rectangle to determine</p>
@@ -188,30 +211,7 @@ public class Rectangle {
      * @return Boolean value to represent if an intersection is present
      */
     public Boolean doesIntersect(Rectangle rect2) {
-        // First Rectangle
-        Integer x1L = this.coordinates.get(2).get(0);
-        Integer y1L = this.coordinates.get(2).get(1);
-        Integer x1R = this.coordinates.get(1).get(0);
-        Integer y1R = this.coordinates.get(1).get(1);
-
-        // Second Rectangle
-        Integer x2L = rect2.getCoordinates().get(2).get(0);
-        Integer y2L = rect2.getCoordinates().get(2).get(1);
-        Integer x2R = rect2.getCoordinates().get(1).get(0);
-        Integer y2R = rect2.getCoordinates().get(1).get(1);
-
-        // Check for perfect overlap
-        if (doesRectanglesOverlap(rect2)) {
-            return true;
-        }
-
-        // Check for regular intersection
-        if ((x2R > x1L && y2R > y1L) && (x1R > x2L && y1R > y2L)) {
-            return true;
-        }
-
-        // Return false by default if nothing else matches
-        return false;
+        return GeometryUtils.intersects(x, y, width, height, rect2.getX(), rect2.getY(), rect2.getWidth(), rect2.getHeight());
     }
 
     /**
@@ -225,99 +225,68 @@ public class Rectangle {
      * @return Boolean value to represent if there is containment
      */
     public Boolean doesContain(Rectangle rect2) {
-        // First Rectangle
-        Integer x1L = this.coordinates.get(2).get(0);
-        Integer y1L = this.coordinates.get(2).get(1);
-        Integer x1R = this.coordinates.get(1).get(0);
-        Integer y1R = this.coordinates.get(1).get(1);
-
-        // Second Rectangle
-        Integer x2L = rect2.getCoordinates().get(2).get(0);
-        Integer y2L = rect2.getCoordinates().get(2).get(1);
-        Integer x2R = rect2.getCoordinates().get(1).get(0);
-        Integer y2R = rect2.getCoordinates().get(1).get(1);
-
-        // Check for containment
-        if (x1L < x2L && y1L < y2L && x1R > x2R && y1R > y2R) {
-            return true;
-        }
+        return GeometryUtils.contains(x, y, width, height, rect2.getX(), rect2.getY(), rect2.getWidth(), rect2.getHeight());
+    }
 
-        // Return false by default if nothing matches
-        return false;
+    /**
+     * <p>This method measures the distance from the edges of this Rectangle to the edges of the Rectangle sent in</p>
+     * <p>Rectangles that touch or intersect are 0 apart, otherwise it is the straight line distance between their closest points</p>
+     * @param rect2 Rectangle sent in to measure the distance to
+     * @return The distance between the Rectangles
+     */
+    public double getDistance(Rectangle rect2) {
+        return GeometryUtils.distance(x, y, width, height, rect2.getX(), rect2.getY(), rect2.getWidth(), rect2.getHeight());
     }
 
     /**
      * <p>This method checks for adjacency, including sub-line, proper, and partial</p>
-     * <p>Uses all of the coordinates of each Rectangle</p>
-     * <p>Checks if a Rectangle has all of the coordinates of another Rectangle for proper and sub-line</p>
-     * <p>Checks if a Rectangle has any of the coordinates of another Rectangle for partial</p>
+     * <p>Compares the bounds of each side of the Rectangles (see {@link GeometryUtils#adjacency})</p>
+     * <p>Checks if a side of one Rectangle covers a side of the other for proper and sub-line</p>
+     * <p>Checks if the Rectangles touch without intersecting for partial</p>
      * @param rect2 Rectangle sent in to see if this Rectangle is adjacent
      * @return Adjacency (enum) value to represent what, if any, adjacency is present (PROPER, SUBLINE, PARTIAL, NONE)
      */
     public Adjacency isAdjacent(Rectangle rect2) {
-        List<List<Pair<Integer, Integer>>> firstCoordinates = this.getAllCoordinates();
-        List<List<Pair<Integer, Integer>>> secondCoordinates = rect2.getAllCoordinates();
-        Adjacency adjacency = Adjacency.NONE;
-
-        // Check for perfect overlap, skip if true
-        if (!doesRectanglesOverlap(rect2)) {
-            // Check for PROPER or SUBLINE first
-            // Check each side of the first Rectangle
-            for (int i = 0; i < firstCoordinates.size(); i++) {
-                // Check each side of the second Rectangle against each side of the first
-                for (int j = 0; j < secondCoordinates.size(); j++) {
-                    // Check if all coordinates match
-                    Boolean allMatchOne = firstCoordinates.get(i).containsAll(secondCoordinates.get(j));
-                    Boolean allMatchTwo = secondCoordinates.get(j).containsAll(firstCoordinates.get(i));
-                    if (allMatchOne || allMatchTwo) {
-                        // Check if the amount of coordinates is the same
-                        if (firstCoordinates.get(i).size() == secondCoordinates.get(j).size()) {
-                            return Adjacency.PROPER;
-                        } else {
-                            return Adjacency.SUBLINE;
-                        }
-                    }
-                }
-            }
-
-            // Check if it is an intersection first, skip if true
-            if (!doesIntersect(rect2)) {
-                // Check again for Partial if PROPER or SUBLINE was not found
-                for (int i = 0; i < firstCoordinates.size(); i++) {
-                    // Check each side of the second Rectangle against each side of the first
-                    for (int j = 0; j < secondCoordinates.size(); j++) {
-                        // Check if any of the coordinates match
-                        Boolean anyMatch = CollectionUtils.containsAny(firstCoordinates.get(i), secondCoordinates.get(j));
-                        if (anyMatch) {
-                            return Adjacency.PARTIAL;
-                        }
-                    }
-                }
-            }
-        }
-
-        return adjacency;
+        return GeometryUtils.adjacency(x, y, width, height, rect2.getX(), rect2.getY(), rect2.getWidth(), rect2.getHeight());
     }
 
     /**
-     * Gets all of the Rectangle's coordinates
+     * <p>Gets all of the Rectangle's coordinates, built from {@link #forEachCoordinate} with one list a side sized up front</p>
+     * <p>Boxes every point, use {@link #forEachCoordinate} or {@link #getEdgePoints(int)} to walk the perimeter without building lists</p>
      * @return A List containing Lists of pairs of coordinates for the top, right, bottom, and left of the Rectangle
      */
     public List<List<Pair<Integer, Integer>>> getAllCoordinates() {
-        List<List<Pair<Integer, Integer>>> results = new ArrayList<>();
-
-        // Top Coordinates
-        results.add(getCoordinateRange(0, 1));
-        // Right Coordinates
-        results.add(getCoordinateRange(3, 1));
-        // Bottom Coordinates
-        results.add(getCoordinateRange(2, 3));
-        // Left Coordinates
-        results.add(getCoordinateRange(2, 0));
+        List<List<Pair<Integer, Integer>>> results = new ArrayList<>(4);
+
+        // Top, Right, Bottom, then Left Coordinates
+        for (int edge = GeometryUtils.TOP; edge <= GeometryUtils.LEFT; edge++) {
+            boolean horizontal = edge == GeometryUtils.TOP || edge == GeometryUtils.BOTTOM;
+            List<Pair<Integer, Integer>> side = new ArrayList<>(Math.max((horizontal ? width : height) + 1, 0));
+            GeometryUtils.forEachEdgePoint(x, y, width, height, edge, (px, py) -> side.add(new ImmutablePair<>(px, py)));
+            results.add(side);
+        }
 
         return results;
     }
 
+    /**
+     * <p>Visits every point on the Rectangle's perimeter, in the same order as {@link #getAllCoordinates()}, without creating any objects</p>
+     * @param visitor Receives the x, y values of each point
+     */
+    public void forEachCoordinate(GeometryUtils.PointVisitor visitor) {
+        GeometryUtils.forEachPerimeterPoint(x, y, width, height, visitor);
+    }
+
+    /**
+     * <p>Gets the points of one side of the Rectangle lazily, each packed into a long (see {@link GeometryUtils#edgePoints})</p>
+     * <p>Use with `StreamSupport.longStream` for a LongStream of the side</p>
+     * @param edge Side to walk, {@link GeometryUtils#TOP}, {@link GeometryUtils#RIGHT}, {@link GeometryUtils#BOTTOM}, or {@link GeometryUtils#LEFT}
+     * @return A Spliterator over the side, in the same order as the matching list of {@link #getAllCoordinates()}
+     */
+    public Spliterator.OfLong getEdgePoints(int edge) {
+        return GeometryUtils.edgePoints(x, y, width, height, edge);
+    }
+
     // Helper functions
     // Grab the coordinates and return them as a string
     private String getCoordinatesFromList(List<List<Integer>> coordinates, int index) {
@@ -326,61 +295,12 @@ public class Rectangle {
         return x + ", " + y;
     }
 
-    // Grab the range of coordinates between two coordinates
-    private List<Pair<Integer, Integer>> getCoordinateRange(Integer firstCoordinate, Integer secondCoordinate) {
-        List<Pair<Integer, Integer>> coordinates = new ArrayList<>();
-        List<Integer> xCoordinates = new ArrayList<>();
-        List<Integer> yCoordinates = new ArrayList<>();
-        Integer x1;
-        Integer y1;
-        Integer x2;
-        Integer y2;
-
-        x1 = this.coordinates.get(firstCoordinate).get(0);
-        y1 = this.coordinates.get(firstCoordinate).get(1);
-        x2 = this.coordinates.get(secondCoordinate).get(0);
-        y2 = this.coordinates.get(secondCoordinate).get(1);
-
-        // Check for a static coordinate between both points
-        if (x1 == x2) {
-            xCoordinates.add(x1);
-        } else {
-            xCoordinates = IntStream.range(x1, x2 + 1).boxed().collect(Collectors.toList());
-        }
-
-        if (y1 == y2) {
-            yCoordinates.add(y1);
-        } else {
-            yCoordinates = IntStream.range(y1, y2 + 1).boxed().collect(Collectors.toList());
-        }
-
-        // Check if a list needs to be populated
-        if (xCoordinates.size() == 1) {
-            List<Integer> tempList = new ArrayList<>();
-            for (int i = 0; i < yCoordinates.size(); i++) {
-                tempList.add(xCoordinates.get(0));
-            }
-            xCoordinates = tempList;
-        }
-
-        if (yCoordinates.size() == 1) {
-            List<Integer> tempList = new ArrayList<>();
-            for (int i = 0; i < xCoordinates.size(); i++) {
-                tempList.add(yCoordinates.get(0));
-            }
-            yCoordinates = tempList;
-        }
-
-        // Create the pairs and add to the list
-        for (int i = 0; i < xCoordinates.size(); i++) {
-            ImmutablePair<Integer, Integer> p = new ImmutablePair<>(xCoordinates.get(i), yCoordinates.get(i));
-            coordinates.add(p);
-        }
-
-        return coordinates;
-    }
-
+    /**
+     * Checks if both Rectangles have the same bounds (perfect overlap)
+     * @param rect2 Rectangle sent in to compare with this Rectangle
+     * @return Boolean value to represent if the bounds match
+     */
     public Boolean doesRectanglesOverlap(Rectangle rect2) {
-        return (this.height == rect2.getHeight() && this.width == rect2.getWidth() && this.x == rect2.getX() && this.y == rect2.getY());
+        return GeometryUtils.isSameRectangle(x, y, width, height, rect2.getX(), rect2.getY(), rect2.getWidth(), rect2.getHeight());
     }
 }
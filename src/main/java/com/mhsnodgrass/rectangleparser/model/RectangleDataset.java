@@ -0,0 +1,153 @@
+package com.mhsnodgrass.rectangleparser.model;
+
+import com.mhsnodgrass.rectangleparser.util.GeometryUtils;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/** Read only access to a set of Rectangles held as columns, each Rectangle is a slot (0 to size - 1).
+ * <p>Implemented by {@link RectangleStore} (on the heap, filled from XML) and {@link MappedRectangleStore} (a memory mapped binary file)</p>
+ * <p>Ids are unique within a dataset</p>
+ * @author Matthew Snodgrass
+ */
+public interface RectangleDataset {
+    /**
+     * Gets the number of Rectangles in the dataset
+     * @return The number of slots
+     */
+    int size();
+
+    /**
+     * Gets the id of the Rectangle in a slot
+     * @param slot Slot of the Rectangle
+     * @return An int representing a unique Rectangle
+     */
+    int getId(int slot);
+
+    /**
+     * Gets the height of the Rectangle in a slot
+     * @param slot Slot of the Rectangle
+     * @return An int representing the Rectangle's height
+     */
+    int getHeight(int slot);
+
+    /**
+     * Gets the width of the Rectangle in a slot
+     * @param slot Slot of the Rectangle
+     * @return An int representing the Rectangle's width
+     */
+    int getWidth(int slot);
+
+    /**
+     * Gets the top left x coordinate of the Rectangle in a slot
+     * @param slot Slot of the Rectangle
+     * @return An int representing the Rectangle's top left x coordinate
+     */
+    int getX(int slot);
+
+    /**
+     * Gets the top left y coordinate of the Rectangle in a slot
+     * @param slot Slot of the Rectangle
+     * @return An int representing the Rectangle's top left y coordinate
+     */
+    int getY(int slot);
+
+    /**
+     * Finds the slot of a Rectangle by its id
+     * @param id Id of the Rectangle to find
+     * @return The slot of the Rectangle, or -1 if the id is not in the dataset
+     */
+    int indexOf(int id);
+
+    /**
+     * Checks if every Rectangle in the source was read, a load that stopped on an error (a broken or unreadable file) is not complete
+     * @return Boolean value to represent if the load finished, true unless the dataset says otherwise
+     */
+    default boolean isComplete() {
+        return true;
+    }
+
+    /**
+     * Checks if a Rectangle with the id is in the dataset
+     * @param id Id of the Rectangle to find
+     * @return Boolean value to represent if the id is present
+     */
+    default boolean containsId(int id) {
+        return indexOf(id) >= 0;
+    }
+
+    /**
+     * Creates a {@link Rectangle} from the values in a slot
+     * @param slot Slot of the Rectangle
+     * @return A new Rectangle with the same id, height, width, x, and y
+     */
+    default Rectangle getRectangle(int slot) {
+        return new Rectangle(getId(slot), getHeight(slot), getWidth(slot), getX(slot), getY(slot));
+    }
+
+    /**
+     * <p>Gets a read only List view of the dataset</p>
+     * <p>Each {@link Rectangle} is created when it is accessed, so only the ones in use take up memory</p>
+     * @return A List backed by the dataset
+     */
+    default List<Rectangle> asList() {
+        RectangleDataset dataset = this;
+        class RectangleListView extends AbstractList<Rectangle> implements RandomAccess {
+            @Override
+            public Rectangle get(int index) {
+                return dataset.getRectangle(index);
+            }
+
+            @Override
+            public int size() {
+                return dataset.size();
+            }
+        }
+        return new RectangleListView();
+    }
+
+    /**
+     * Checks if the Rectangle in the first slot intersects the Rectangle in the second, same rules as {@link Rectangle#doesIntersect(Rectangle)}
+     * @param slotOne Slot of the first Rectangle
+     * @param slotTwo Slot of the second Rectangle
+     * @return Boolean value to represent if an intersection is present
+     */
+    default boolean intersects(int slotOne, int slotTwo) {
+        return GeometryUtils.intersects(getX(slotOne), getY(slotOne), getWidth(slotOne), getHeight(slotOne),
+                getX(slotTwo), getY(slotTwo), getWidth(slotTwo), getHeight(slotTwo));
+    }
+
+    /**
+     * Checks if the Rectangle in the first slot contains the Rectangle in the second, same rules as {@link Rectangle#doesContain(Rectangle)}
+     * @param slotOne Slot of the first Rectangle
+     * @param slotTwo Slot of the second Rectangle
+     * @return Boolean value to represent if there is containment
+     */
+    default boolean contains(int slotOne, int slotTwo) {
+        return GeometryUtils.contains(getX(slotOne), getY(slotOne), getWidth(slotOne), getHeight(slotOne),
+                getX(slotTwo), getY(slotTwo), getWidth(slotTwo), getHeight(slotTwo));
+    }
+
+    /**
+     * Checks what type of adjacency the Rectangles in both slots have, same rules as {@link Rectangle#isAdjacent(Rectangle)}
+     * @param slotOne Slot of the first Rectangle
+     * @param slotTwo Slot of the second Rectangle
+     * @return Adjacency (enum) value to represent what, if any, adjacency is present (PROPER, SUBLINE, PARTIAL, NONE)
+     */
+    default Rectangle.Adjacency adjacency(int slotOne, int slotTwo) {
+        return GeometryUtils.adjacency(getX(slotOne), getY(slotOne), getWidth(slotOne), getHeight(slotOne),
+                getX(slotTwo), getY(slotTwo), getWidth(slotTwo), getHeight(slotTwo));
+    }
+
+    /**
+     * Measures the distance between the edges of the Rectangles in both slots, same rules as {@link Rectangle#getDistance(Rectangle)}
+     * @param slotOne Slot of the first Rectangle
+     * @param slotTwo Slot of the second Rectangle
+     * @return The distance between the closest points of the Rectangles, 0 if they touch or intersect
+     */
+    default double distance(int slotOne, int slotTwo) {
+        return GeometryUtils.distance(getX(slotOne), getY(slotOne), getWidth(slotOne), getHeight(slotOne),
+                getX(slotTwo), getY(slotTwo), getWidth(slotTwo), getHeight(slotTwo));
+    }
+}
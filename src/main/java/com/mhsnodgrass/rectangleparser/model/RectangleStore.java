@@ -0,0 +1,301 @@
+package com.mhsnodgrass.rectangleparser.model;
+
+import com.mhsnodgrass.rectangleparser.util.GeometryUtils;
+import com.mhsnodgrass.rectangleparser.util.IntIntHashMap;
+
+import java.util.Arrays;
+
+/** Holds many Rectangles as parallel primitive columns (id, height, width, x, y).
+ * <p>Each Rectangle is a slot (0 to size - 1) in the columns, slots follow the order the Rectangles were added</p>
+ * <p>Costs 20 bytes a Rectangle, compared to several hundred for a {@link Rectangle} object with its coordinate lists</p>
+ * <p>Ids are unique, an id index is kept up to date as Rectangles are added so {@link #indexOf(int)} is a single hash lookup</p>
+ * <p>Code that still needs {@link Rectangle} objects can use {@link #getRectangle(int)} or {@link #asList()}, which create them on demand</p>
+ * <p>Once loaded, a store can be written out as a binary file with {@link MappedRectangleStore#write}</p>
+ * @author Matthew Snodgrass
+ */
+public class RectangleStore implements RectangleDataset {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    // Columns, the same slot in each column is one Rectangle
+    private int[] ids;
+    private int[] heights;
+    private int[] widths;
+    private int[] xs;
+    private int[] ys;
+    private int size;
+    private boolean complete = true;
+
+    // Id to slot index
+    private final IntIntHashMap idIndex;
+
+    // Constructors
+    /**
+     * Creates an empty RectangleStore with a small starting capacity
+     */
+    public RectangleStore() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty RectangleStore that can hold the capacity given before growing
+     * @param capacity Number of Rectangles to make room for
+     */
+    public RectangleStore(int capacity) {
+        int start = Math.max(capacity, 1);
+        ids = new int[start];
+        heights = new int[start];
+        widths = new int[start];
+        xs = new int[start];
+        ys = new int[start];
+        idIndex = new IntIntHashMap(start);
+    }
+
+    // Getters
+    /**
+     * Gets the number of Rectangles in the store
+     * @return The number of slots in use
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the id of the Rectangle in a slot
+     * @param slot Slot of the Rectangle
+     * @return An int representing a unique Rectangle
+     */
+    @Override
+    public int getId(int slot) {
+        return ids[checkSlot(slot)];
+    }
+
+    /**
+     * Gets the height of the Rectangle in a slot
+     * @param slot Slot of the Rectangle
+     * @return An int representing the Rectangle's height
+     */
+    @Override
+    public int getHeight(int slot) {
+        return heights[checkSlot(slot)];
+    }
+
+    /**
+     * Gets the width of the Rectangle in a slot
+     * @param slot Slot of the Rectangle
+     * @return An int representing the Rectangle's width
+     */
+    @Override
+    public int getWidth(int slot) {
+        return widths[checkSlot(slot)];
+    }
+
+    /**
+     * Gets the top left x coordinate of the Rectangle in a slot
+     * @param slot Slot of the Rectangle
+     * @return An int representing the Rectangle's top left x coordinate
+     */
+    @Override
+    public int getX(int slot) {
+        return xs[checkSlot(slot)];
+    }
+
+    /**
+     * Gets the top left y coordinate of the Rectangle in a slot
+     * @param slot Slot of the Rectangle
+     * @return An int representing the Rectangle's top left y coordinate
+     */
+    @Override
+    public int getY(int slot) {
+        return ys[checkSlot(slot)];
+    }
+
+    /**
+     * Checks if every Rectangle in the source was read
+     * @return False once {@link #markIncomplete()} has been called
+     */
+    @Override
+    public boolean isComplete() {
+        return complete;
+    }
+
+    // Methods
+    /**
+     * Adds a Rectangle to the end of the store, growing the columns if needed
+     * @param id An int representing a unique Rectangle
+     * @param height An int representing the height of the Rectangle
+     * @param width An int representing the width of the Rectangle
+     * @param x An int representing the top left x coordinate of the Rectangle
+     * @param y An int representing the top left y coordinate of the Rectangle
+     * @return The slot the Rectangle was added to
+     * @throws IllegalArgumentException If the id is already in the store
+     */
+    public int add(int id, int height, int width, int x, int y) {
+        if (idIndex.containsKey(id)) {
+            throw new IllegalArgumentException("Id " + id + " is already in the store");
+        }
+        if (size == ids.length) {
+            grow();
+        }
+
+        ids[size] = id;
+        heights[size] = height;
+        widths[size] = width;
+        xs[size] = x;
+        ys[size] = y;
+        idIndex.put(id, size);
+
+        return size++;
+    }
+
+    /**
+     * Replaces the height, width, and position of the Rectangle in a slot, the id stays the same
+     * @param slot Slot of the Rectangle
+     * @param height An int representing the new height of the Rectangle
+     * @param width An int representing the new width of the Rectangle
+     * @param x An int representing the new top left x coordinate of the Rectangle
+     * @param y An int representing the new top left y coordinate of the Rectangle
+     */
+    public void set(int slot, int height, int width, int x, int y) {
+        checkSlot(slot);
+        heights[slot] = height;
+        widths[slot] = width;
+        xs[slot] = x;
+        ys[slot] = y;
+    }
+
+    /**
+     * <p>Removes the Rectangle in a slot, the last Rectangle is moved into the slot to keep the columns packed</p>
+     * <p>Only the slot given and the last slot change, every other Rectangle keeps its slot</p>
+     * @param slot Slot of the Rectangle to remove
+     * @return The slot the moved Rectangle came from, or -1 if the removed Rectangle was the last one
+     */
+    public int remove(int slot) {
+        checkSlot(slot);
+        idIndex.remove(ids[slot]);
+
+        int last = --size;
+        if (slot == last) {
+            return -1;
+        }
+
+        ids[slot] = ids[last];
+        heights[slot] = heights[last];
+        widths[slot] = widths[last];
+        xs[slot] = xs[last];
+        ys[slot] = ys[last];
+        idIndex.put(ids[slot], slot);
+        return last;
+    }
+
+    /**
+     * Finds the slot of a Rectangle by its id, using the id index
+     * @param id Id of the Rectangle to find
+     * @return The slot of the Rectangle, or -1 if the id is not in the store
+     */
+    @Override
+    public int indexOf(int id) {
+        return idIndex.get(id);
+    }
+
+    /**
+     * Checks if a Rectangle with the id is in the store
+     * @param id Id of the Rectangle to find
+     * @return Boolean value to represent if the id is present
+     */
+    @Override
+    public boolean containsId(int id) {
+        return idIndex.containsKey(id);
+    }
+
+    /**
+     * Creates a {@link Rectangle} from the values in a slot
+     * @param slot Slot of the Rectangle
+     * @return A new Rectangle with the same id, height, width, x, and y
+     */
+    @Override
+    public Rectangle getRectangle(int slot) {
+        checkSlot(slot);
+        return new Rectangle(ids[slot], heights[slot], widths[slot], xs[slot], ys[slot]);
+    }
+
+    /**
+     * Checks if the Rectangle in the first slot intersects the Rectangle in the second, same rules as {@link Rectangle#doesIntersect(Rectangle)}
+     * @param slotOne Slot of the first Rectangle
+     * @param slotTwo Slot of the second Rectangle
+     * @return Boolean value to represent if an intersection is present
+     */
+    @Override
+    public boolean intersects(int slotOne, int slotTwo) {
+        checkSlot(slotOne);
+        checkSlot(slotTwo);
+        return GeometryUtils.intersects(xs[slotOne], ys[slotOne], widths[slotOne], heights[slotOne],
+                xs[slotTwo], ys[slotTwo], widths[slotTwo], heights[slotTwo]);
+    }
+
+    /**
+     * Checks if the Rectangle in the first slot contains the Rectangle in the second, same rules as {@link Rectangle#doesContain(Rectangle)}
+     * @param slotOne Slot of the first Rectangle
+     * @param slotTwo Slot of the second Rectangle
+     * @return Boolean value to represent if there is containment
+     */
+    @Override
+    public boolean contains(int slotOne, int slotTwo) {
+        checkSlot(slotOne);
+        checkSlot(slotTwo);
+        return GeometryUtils.contains(xs[slotOne], ys[slotOne], widths[slotOne], heights[slotOne],
+                xs[slotTwo], ys[slotTwo], widths[slotTwo], heights[slotTwo]);
+    }
+
+    /**
+     * Checks what type of adjacency the Rectangles in both slots have, same rules as {@link Rectangle#isAdjacent(Rectangle)}
+     * @param slotOne Slot of the first Rectangle
+     * @param slotTwo Slot of the second Rectangle
+     * @return Adjacency (enum) value to represent what, if any, adjacency is present (PROPER, SUBLINE, PARTIAL, NONE)
+     */
+    @Override
+    public Rectangle.Adjacency adjacency(int slotOne, int slotTwo) {
+        checkSlot(slotOne);
+        checkSlot(slotTwo);
+        return GeometryUtils.adjacency(xs[slotOne], ys[slotOne], widths[slotOne], heights[slotOne],
+                xs[slotTwo], ys[slotTwo], widths[slotTwo], heights[slotTwo]);
+    }
+
+    /**
+     * Marks the store as holding only part of its source, used when loading stops on an error
+     */
+    public void markIncomplete() {
+        complete = false;
+    }
+
+    /**
+     * Shrinks the columns to the number of Rectangles in the store, used once loading is done
+     */
+    public void trimToSize() {
+        if (size < ids.length) {
+            resize(Math.max(size, 1));
+        }
+    }
+
+    // Helper functions
+    private int checkSlot(int slot) {
+        if (slot < 0 || slot >= size) {
+            throw new IndexOutOfBoundsException("Slot: " + slot + ", Size: " + size);
+        }
+        return slot;
+    }
+
+    private void grow() {
+        // Grow by half, like ArrayList
+        long newCapacity = (long) ids.length + (ids.length >> 1) + 1;
+        resize((int) Math.min(newCapacity, Integer.MAX_VALUE - 8));
+    }
+
+    private void resize(int capacity) {
+        ids = Arrays.copyOf(ids, capacity);
+        heights = Arrays.copyOf(heights, capacity);
+        widths = Arrays.copyOf(widths, capacity);
+        xs = Arrays.copyOf(xs, capacity);
+        ys = Arrays.copyOf(ys, capacity);
+    }
+}
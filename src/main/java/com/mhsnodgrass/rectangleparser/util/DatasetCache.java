@@ -0,0 +1,205 @@
+package com.mhsnodgrass.rectangleparser.util;
+
+import com.mhsnodgrass.rectangleparser.model.MappedRectangleStore;
+import com.mhsnodgrass.rectangleparser.model.RectangleDataset;
+import com.mhsnodgrass.rectangleparser.model.RectangleStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/** Cache of loaded datasets, keyed by the canonical path, size, and last modified time of the file they were loaded from.
+ * <p>Keeps an in memory LRU of datasets up to rectangleparser.cache.max-bytes (0 turns it off). The cost of a {@link RectangleStore}
+ * is estimated from its size, a {@link MappedRectangleStore} is mapped from disk and costs close to nothing</p>
+ * <p>If rectangleparser.cache.snapshot-dir is set, each parsed file is also written there as a binary snapshot. Later loads of the same,
+ * unchanged file map the snapshot instead of parsing again, even from a new process</p>
+ * <p>Only loads that finished are cached, a file that could not be read or parsed is loaded again each time</p>
+ * <p>Any change to the file changes its size or time, so the old entry is never used again (its snapshot is replaced the next time it is loaded)</p>
+ * @author Matthew Snodgrass
+ */
+@Slf4j
+@Component
+public class DatasetCache {
+    // Columns plus the id index of a RectangleStore, per Rectangle
+    private static final long STORE_BYTES_PER_RECTANGLE = 40;
+    // Header, buffers, and index of a mapped file that live on the heap
+    private static final long MAPPED_BYTES = 512;
+
+    @Value("${rectangleparser.cache.max-bytes:268435456}")
+    private long maxBytes = 268435456;
+
+    @Value("${rectangleparser.cache.snapshot-dir:}")
+    private String snapshotDir = "";
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long usedBytes;
+
+    /**
+     * <p>Gets the dataset for a file, from memory, then from a snapshot, and only then by calling the loader</p>
+     * <p>Files that do not exist are passed straight to the loader and not cached, nor are loads that stopped on an error
+     * (see {@link RectangleDataset#isComplete()}), so a broken load is tried again next time</p>
+     * @param file File the dataset comes from
+     * @param loader Loads the dataset when it is not cached, ie: parses the XML file
+     * @return The dataset for the file
+     */
+    public RectangleDataset get(File file, Function<File, RectangleDataset> loader) {
+        String key;
+        try {
+            key = keyOf(file);
+        } catch (IOException e) {
+            return loader.apply(file);
+        }
+
+        RectangleDataset cached = getFromMemory(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        RectangleDataset dataset = readSnapshot(key);
+        if (dataset == null) {
+            dataset = loader.apply(file);
+            if (!dataset.isComplete()) {
+                log.warn("Load of " + file.getName() + " did not finish, it is not cached");
+                return dataset;
+            }
+            writeSnapshot(key, dataset);
+        }
+
+        putInMemory(key, dataset);
+        return dataset;
+    }
+
+    /**
+     * Drops every dataset held in memory, snapshots on disk are kept
+     */
+    public synchronized void clear() {
+        entries.clear();
+        usedBytes = 0;
+    }
+
+    /**
+     * Gets the estimated number of bytes used by the datasets held in memory
+     * @return The estimated bytes in use
+     */
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    // Helper functions
+    private static String keyOf(File file) throws IOException {
+        Path path = file.toPath().toRealPath();
+        return path + "|" + Files.size(path) + "|" + Files.getLastModifiedTime(path).toMillis();
+    }
+
+    private synchronized RectangleDataset getFromMemory(String key) {
+        Entry entry = entries.get(key);
+        return entry == null ? null : entry.dataset;
+    }
+
+    private synchronized void putInMemory(String key, RectangleDataset dataset) {
+        long bytes = dataset instanceof MappedRectangleStore ? MAPPED_BYTES : dataset.size() * STORE_BYTES_PER_RECTANGLE;
+        if (bytes > maxBytes) {
+            return;
+        }
+
+        Entry old = entries.put(key, new Entry(dataset, bytes));
+        usedBytes += bytes - (old == null ? 0 : old.bytes);
+
+        // Evict the least recently used datasets until the budget is met
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (usedBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Entry> eldest = iterator.next();
+            usedBytes -= eldest.getValue().bytes;
+            iterator.remove();
+        }
+    }
+
+    private RectangleDataset readSnapshot(String key) {
+        if (snapshotDir.isEmpty()) {
+            return null;
+        }
+
+        File snapshot = snapshotFile(key).toFile();
+        if (!snapshot.isFile()) {
+            return null;
+        }
+        try {
+            return MappedRectangleStore.open(snapshot);
+        } catch (IOException e) {
+            log.warn("Snapshot " + snapshot.getName() + " could not be opened, the file will be parsed again: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeSnapshot(String key, RectangleDataset dataset) {
+        if (snapshotDir.isEmpty()) {
+            return;
+        }
+
+        Path snapshot = snapshotFile(key);
+        try {
+            Files.createDirectories(snapshot.getParent());
+            removeOldSnapshots(snapshot);
+            MappedRectangleStore.write(dataset, snapshot.toFile());
+        } catch (IOException e) {
+            log.warn("Snapshot " + snapshot.getFileName() + " could not be written: " + e.getMessage());
+        }
+    }
+
+    // Snapshots of older versions of the same file share the path hash
+    private void removeOldSnapshots(Path snapshot) throws IOException {
+        String name = snapshot.getFileName().toString();
+        String prefix = name.substring(0, name.indexOf('-') + 1);
+        try (DirectoryStream<Path> old = Files.newDirectoryStream(snapshot.getParent(), prefix + "*" + MappedRectangleStore.EXTENSION)) {
+            for (Path path : old) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    // <hash of the path>-<size>-<time>.rbin
+    private Path snapshotFile(String key) {
+        int time = key.lastIndexOf('|');
+        int size = key.lastIndexOf('|', time - 1);
+        return Paths.get(snapshotDir, hash(key.substring(0, size)) + "-" + key.substring(size + 1, time) + "-"
+                + key.substring(time + 1) + MappedRectangleStore.EXTENSION);
+    }
+
+    private static String hash(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+            for (int i = 0; i < 16; i++) {
+                hex.append(String.format("%02x", digest[i]));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform has SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // A cached dataset and its estimated cost
+    private static class Entry {
+        private final RectangleDataset dataset;
+        private final long bytes;
+
+        Entry(RectangleDataset dataset, long bytes) {
+            this.dataset = dataset;
+            this.bytes = bytes;
+        }
+    }
+}
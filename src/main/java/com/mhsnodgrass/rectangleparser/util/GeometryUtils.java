@@ -0,0 +1,476 @@
+package com.mhsnodgrass.rectangleparser.util;
+
+import com.mhsnodgrass.rectangleparser.model.Rectangle;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.function.LongConsumer;
+
+/** Interval arithmetic for Rectangles, every answer is worked out from the edge bounds alone.
+ * <p>Rectangles are passed in as primitive x, y, width, and height values, where x and y are the top left coordinate</p>
+ * <p>The bottom of a Rectangle is y - height, and the right is x + width (the same layout used by {@link Rectangle})</p>
+ * <p>Width and height are expected to be zero or above, as they are in the XML files</p>
+ * @author Matthew Snodgrass
+ */
+public final class GeometryUtils {
+    // Edge indexes, in the same order the perimeter is walked (top, right, bottom, left)
+    public static final int TOP = 0;
+    public static final int RIGHT = 1;
+    public static final int BOTTOM = 2;
+    public static final int LEFT = 3;
+
+    /**
+     * Receives the x, y values of a point without boxing them
+     */
+    @FunctionalInterface
+    public interface PointVisitor {
+        void visit(int x, int y);
+    }
+
+    private GeometryUtils() {
+    }
+
+    /**
+     * Checks if both Rectangles have the exact same bounds (perfect overlap)
+     * @return Boolean value to represent if the bounds match
+     */
+    public static boolean isSameRectangle(int ax, int ay, int aw, int ah, int bx, int by, int bw, int bh) {
+        return ax == bx && ay == by && aw == bw && ah == bh;
+    }
+
+    /**
+     * <p>Checks for intersection, including perfect overlap</p>
+     * <p>Same rules as {@link Rectangle#doesIntersect(Rectangle)}, the open areas of the Rectangles have to overlap</p>
+     * @return Boolean value to represent if an intersection is present
+     */
+    public static boolean intersects(int ax, int ay, int aw, int ah, int bx, int by, int bw, int bh) {
+        if (isSameRectangle(ax, ay, aw, ah, bx, by, bw, bh)) {
+            return true;
+        }
+
+        return bx + bw > ax && by > ay - ah && ax + aw > bx && ay > by - bh;
+    }
+
+    /**
+     * <p>Checks if the first Rectangle contains the second</p>
+     * <p>Same rules as {@link Rectangle#doesContain(Rectangle)}, every edge of the second has to be strictly inside the first</p>
+     * @return Boolean value to represent if there is containment
+     */
+    public static boolean contains(int ax, int ay, int aw, int ah, int bx, int by, int bw, int bh) {
+        return ax < bx && ay - ah < by - bh && ax + aw > bx + bw && ay > by;
+    }
+
+    /**
+     * <p>Checks if the closed areas of the Rectangles share at least one point (touching counts)</p>
+     * <p>Used to find candidates before running one of the exact checks</p>
+     * @return Boolean value to represent if the bounds touch or overlap
+     */
+    public static boolean touches(int ax, int ay, int aw, int ah, int bx, int by, int bw, int bh) {
+        return bx + bw >= ax && by >= ay - ah && ax + aw >= bx && ay >= by - bh;
+    }
+
+    /**
+     * <p>Measures the shortest distance between the edges of two Rectangles</p>
+     * <p>Rectangles that touch or intersect are 0 apart</p>
+     * @return The straight line distance between the closest points of the Rectangles
+     */
+    public static double distance(int ax, int ay, int aw, int ah, int bx, int by, int bw, int bh) {
+        return Math.sqrt(boxDistanceSquared(ax, ay - ah, (long) ax + aw, ay, bx, by - bh, (long) bx + bw, by));
+    }
+
+    /**
+     * <p>Squared distance between two boxes given by their bounds, 0 when their closed bounds share a point</p>
+     * <p>Kept squared so the closest of many boxes can be picked without a square root</p>
+     * @return The squared straight line distance between the closest points of the boxes
+     */
+    public static double boxDistanceSquared(long aMinX, long aMinY, long aMaxX, long aMaxY, long bMinX, long bMinY, long bMaxX, long bMaxY) {
+        double dx = Math.max(0, Math.max(aMinX - bMaxX, bMinX - aMaxX));
+        double dy = Math.max(0, Math.max(aMinY - bMaxY, bMinY - aMaxY));
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * <p>Checks for adjacency, including sub-line, proper, and partial</p>
+     * <p>Each side of the first Rectangle is compared to each side of the second, in the order top, right, bottom, left</p>
+     * <p>A side that fully covers another is PROPER when they are the same length, otherwise SUBLINE</p>
+     * <p>If no side covers another, the Rectangles are PARTIAL when they do not intersect but still touch</p>
+     * @return Adjacency (enum) value to represent what, if any, adjacency is present (PROPER, SUBLINE, PARTIAL, NONE)
+     */
+    public static Rectangle.Adjacency adjacency(int ax, int ay, int aw, int ah, int bx, int by, int bw, int bh) {
+        // Perfect overlap is never adjacent
+        if (isSameRectangle(ax, ay, aw, ah, bx, by, bw, bh)) {
+            return Rectangle.Adjacency.NONE;
+        }
+
+        // Check for PROPER or SUBLINE first
+        for (int i = TOP; i <= LEFT; i++) {
+            int aMinX = edgeMinX(i, ax, aw);
+            int aMaxX = edgeMaxX(i, ax, aw);
+            int aMinY = edgeMinY(i, ay, ah);
+            int aMaxY = edgeMaxY(i, ay, ah);
+
+            for (int j = TOP; j <= LEFT; j++) {
+                int bMinX = edgeMinX(j, bx, bw);
+                int bMaxX = edgeMaxX(j, bx, bw);
+                int bMinY = edgeMinY(j, by, bh);
+                int bMaxY = edgeMaxY(j, by, bh);
+
+                boolean aCoversB = aMinX <= bMinX && bMaxX <= aMaxX && aMinY <= bMinY && bMaxY <= aMaxY;
+                boolean bCoversA = bMinX <= aMinX && aMaxX <= bMaxX && bMinY <= aMinY && aMaxY <= bMaxY;
+                if (aCoversB || bCoversA) {
+                    // Sides are axis aligned, so the length is the span of the one axis that moves
+                    int aLength = (aMaxX - aMinX) + (aMaxY - aMinY);
+                    int bLength = (bMaxX - bMinX) + (bMaxY - bMinY);
+                    return aLength == bLength ? Rectangle.Adjacency.PROPER : Rectangle.Adjacency.SUBLINE;
+                }
+            }
+        }
+
+        // Partial only counts when the Rectangles do not intersect, the shared points are then always on both perimeters
+        if (!intersects(ax, ay, aw, ah, bx, by, bw, bh) && touches(ax, ay, aw, ah, bx, by, bw, bh)) {
+            return Rectangle.Adjacency.PARTIAL;
+        }
+
+        return Rectangle.Adjacency.NONE;
+    }
+
+    /**
+     * <p>Visits every integer point on one side of a Rectangle, top and bottom left to right, right and left bottom to top</p>
+     * <p>Nothing is allocated, each point is handed to the visitor as two ints</p>
+     * @param edge Side to walk, {@link #TOP}, {@link #RIGHT}, {@link #BOTTOM}, or {@link #LEFT}
+     * @param visitor Receives each point
+     */
+    public static void forEachEdgePoint(int x, int y, int width, int height, int edge, PointVisitor visitor) {
+        int fromX = edgeMinX(edge, x, width);
+        int fromY = edgeMinY(edge, y, height);
+        if (edge == TOP || edge == BOTTOM) {
+            for (long p = fromX, to = edgeMaxX(edge, x, width); p <= to; p++) {
+                visitor.visit((int) p, fromY);
+            }
+        } else {
+            for (long p = fromY, to = edgeMaxY(edge, y, height); p <= to; p++) {
+                visitor.visit(fromX, (int) p);
+            }
+        }
+    }
+
+    /**
+     * <p>Visits every integer point on the perimeter of a Rectangle, side by side in the order top, right, bottom, left (see {@link #forEachEdgePoint})</p>
+     * <p>Corners belong to two sides, so each corner is visited twice, the same as {@link Rectangle#getAllCoordinates()}</p>
+     * @param visitor Receives each point
+     */
+    public static void forEachPerimeterPoint(int x, int y, int width, int height, PointVisitor visitor) {
+        for (int edge = TOP; edge <= LEFT; edge++) {
+            forEachEdgePoint(x, y, width, height, edge, visitor);
+        }
+    }
+
+    /**
+     * <p>Same points and order as {@link #forEachEdgePoint}, as a Spliterator of points packed with {@link #packPoint(int, int)}</p>
+     * <p>The Spliterator is sized and splits in half, so `StreamSupport.longStream(edgePoints(...), true)` walks a long side on several threads</p>
+     * @param edge Side to walk, {@link #TOP}, {@link #RIGHT}, {@link #BOTTOM}, or {@link #LEFT}
+     * @return A lazy Spliterator over the points of the side
+     */
+    public static Spliterator.OfLong edgePoints(int x, int y, int width, int height, int edge) {
+        if (edge == TOP || edge == BOTTOM) {
+            return new EdgePointSpliterator(true, edgeMinY(edge, y, height), edgeMinX(edge, x, width), edgeMaxX(edge, x, width) + 1L);
+        }
+        return new EdgePointSpliterator(false, edgeMinX(edge, x, width), edgeMinY(edge, y, height), edgeMaxY(edge, y, height) + 1L);
+    }
+
+    /**
+     * <p>Walks the perimeter of the first Rectangle and visits every integer point that is also on the perimeter of the second</p>
+     * <p>Sides are walked top (left to right), right (bottom to top), bottom (left to right), then left (bottom to top)</p>
+     * <p>Corners belong to two sides, so a shared corner is visited once for each side, the same as {@link Rectangle#getAllCoordinates()}</p>
+     * <p>Only the shared ranges are worked out, so the cost is the number of points visited and not the size of the Rectangles</p>
+     * @param visitor Receives each shared point
+     */
+    public static void forEachIntersectionPoint(int ax, int ay, int aw, int ah, int bx, int by, int bw, int bh, PointVisitor visitor) {
+        int[] ranges = new int[8];
+
+        for (int i = TOP; i <= LEFT; i++) {
+            boolean horizontal = i == TOP || i == BOTTOM;
+            int fixed = horizontal ? edgeMinY(i, ay, ah) : edgeMinX(i, ax, aw);
+            int count = sharedRanges(i, ax, ay, aw, ah, bx, by, bw, bh, ranges);
+
+            for (int k = 0; k < count; k++) {
+                for (long p = ranges[k * 2]; p <= ranges[k * 2 + 1]; p++) {
+                    if (horizontal) {
+                        visitor.visit((int) p, fixed);
+                    } else {
+                        visitor.visit(fixed, (int) p);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * <p>Same points and order as {@link #forEachIntersectionPoint}, handed out one at a time instead of pushed to a visitor</p>
+     * <p>Each point is packed into a long with {@link #packPoint(int, int)}, so nothing is boxed. Ranges are worked out one side at a time as the iterator reaches it</p>
+     * @return A lazy iterator over the shared points
+     */
+    public static PrimitiveIterator.OfLong intersectionPoints(int ax, int ay, int aw, int ah, int bx, int by, int bw, int bh) {
+        return new IntersectionPointIterator(ax, ay, aw, ah, bx, by, bw, bh);
+    }
+
+    /**
+     * <p>Works out the region both Rectangles cover, the overlap of their closed bounds</p>
+     * <p>Only given when the Rectangles intersect (see {@link #intersects}), Rectangles that only touch have no region</p>
+     * @return The region as {x, y, width, height} with x and y the top left, or null if the Rectangles do not intersect
+     */
+    public static int[] intersectRegion(int ax, int ay, int aw, int ah, int bx, int by, int bw, int bh) {
+        if (!intersects(ax, ay, aw, ah, bx, by, bw, bh)) {
+            return null;
+        }
+
+        int left = Math.max(ax, bx);
+        int right = Math.min(ax + aw, bx + bw);
+        int top = Math.min(ay, by);
+        int bottom = Math.max(ay - ah, by - bh);
+        return new int[] {left, top, right - left, top - bottom};
+    }
+
+    /**
+     * Packs a point into a long, x in the high 32 bits and y in the low 32 bits
+     * @return The packed point
+     */
+    public static long packPoint(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Gets the x value of a point packed with {@link #packPoint(int, int)}
+     * @param point Packed point
+     * @return The x value
+     */
+    public static int unpackX(long point) {
+        return (int) (point >> 32);
+    }
+
+    /**
+     * Gets the y value of a point packed with {@link #packPoint(int, int)}
+     * @param point Packed point
+     * @return The y value
+     */
+    public static int unpackY(long point) {
+        return (int) point;
+    }
+
+    /**
+     * <p>Counts the points {@link #forEachIntersectionPoint} would visit, without visiting them</p>
+     * @return The number of shared perimeter points, corners counted once for each side
+     */
+    public static long countIntersectionPoints(int ax, int ay, int aw, int ah, int bx, int by, int bw, int bh) {
+        int[] ranges = new int[8];
+        long total = 0;
+
+        for (int i = TOP; i <= LEFT; i++) {
+            int count = sharedRanges(i, ax, ay, aw, ah, bx, by, bw, bh, ranges);
+            for (int k = 0; k < count; k++) {
+                total += (long) ranges[k * 2 + 1] - ranges[k * 2] + 1;
+            }
+        }
+
+        return total;
+    }
+
+    /**
+     * Counts the points on the perimeter of a Rectangle, corners counted once for each side
+     * @return The number of perimeter points
+     */
+    public static long countPerimeterPoints(int width, int height) {
+        return 2L * ((long) width + 1) + 2L * ((long) height + 1);
+    }
+
+    // Helper functions
+    // Fills ranges with the sorted, non overlapping (start, end) pairs of one side of the first Rectangle
+    // that are on the perimeter of the second, returns the number of pairs
+    private static int sharedRanges(int edge, int ax, int ay, int aw, int ah, int bx, int by, int bw, int bh, int[] ranges) {
+        boolean horizontal = edge == TOP || edge == BOTTOM;
+        int aMinX = edgeMinX(edge, ax, aw);
+        int aMaxX = edgeMaxX(edge, ax, aw);
+        int aMinY = edgeMinY(edge, ay, ah);
+        int aMaxY = edgeMaxY(edge, ay, ah);
+
+        // Grab the range of this side covered by each side of the second Rectangle
+        int count = 0;
+        for (int j = TOP; j <= LEFT; j++) {
+            int minX = Math.max(aMinX, edgeMinX(j, bx, bw));
+            int maxX = Math.min(aMaxX, edgeMaxX(j, bx, bw));
+            int minY = Math.max(aMinY, edgeMinY(j, by, bh));
+            int maxY = Math.min(aMaxY, edgeMaxY(j, by, bh));
+            if (minX <= maxX && minY <= maxY) {
+                ranges[count * 2] = horizontal ? minX : minY;
+                ranges[count * 2 + 1] = horizontal ? maxX : maxY;
+                count++;
+            }
+        }
+
+        // Sort the ranges by start, at most four so insertion sort is enough
+        for (int k = 1; k < count; k++) {
+            int start = ranges[k * 2];
+            int end = ranges[k * 2 + 1];
+            int m = k - 1;
+            while (m >= 0 && ranges[m * 2] > start) {
+                ranges[(m + 1) * 2] = ranges[m * 2];
+                ranges[(m + 1) * 2 + 1] = ranges[m * 2 + 1];
+                m--;
+            }
+            ranges[(m + 1) * 2] = start;
+            ranges[(m + 1) * 2 + 1] = end;
+        }
+
+        // Merge overlapping ranges so each point is only counted once per side
+        int merged = 0;
+        for (int k = 0; k < count; k++) {
+            int start = ranges[k * 2];
+            int end = ranges[k * 2 + 1];
+            if (merged > 0 && start <= ranges[(merged - 1) * 2 + 1]) {
+                ranges[(merged - 1) * 2 + 1] = Math.max(end, ranges[(merged - 1) * 2 + 1]);
+            } else {
+                ranges[merged * 2] = start;
+                ranges[merged * 2 + 1] = end;
+                merged++;
+            }
+        }
+
+        return merged;
+    }
+
+    // Bounds of a single side, a side is a box with no width or no height
+    static int edgeMinX(int edge, int x, int width) {
+        return edge == RIGHT ? x + width : x;
+    }
+
+    static int edgeMaxX(int edge, int x, int width) {
+        return edge == LEFT ? x : x + width;
+    }
+
+    static int edgeMinY(int edge, int y, int height) {
+        return edge == TOP ? y : y - height;
+    }
+
+    static int edgeMaxY(int edge, int y, int height) {
+        return edge == BOTTOM ? y - height : y;
+    }
+
+    // Walks the shared ranges of each side in turn, only the ranges of the current side are held
+    private static final class IntersectionPointIterator implements PrimitiveIterator.OfLong {
+        private final int ax;
+        private final int ay;
+        private final int aw;
+        private final int ah;
+        private final int bx;
+        private final int by;
+        private final int bw;
+        private final int bh;
+        private final int[] ranges = new int[8];
+
+        private int edge = -1;
+        private int rangeCount;
+        private int range;
+        private long position;
+        private long end = -1;
+
+        IntersectionPointIterator(int ax, int ay, int aw, int ah, int bx, int by, int bw, int bh) {
+            this.ax = ax;
+            this.ay = ay;
+            this.aw = aw;
+            this.ah = ah;
+            this.bx = bx;
+            this.by = by;
+            this.bw = bw;
+            this.bh = bh;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (position > end) {
+                if (range + 1 < rangeCount) {
+                    range++;
+                } else if (edge < LEFT) {
+                    edge++;
+                    rangeCount = sharedRanges(edge, ax, ay, aw, ah, bx, by, bw, bh, ranges);
+                    range = 0;
+                    if (rangeCount == 0) {
+                        continue;
+                    }
+                } else {
+                    return false;
+                }
+                position = ranges[range * 2];
+                end = ranges[range * 2 + 1];
+            }
+            return true;
+        }
+
+        @Override
+        public long nextLong() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int p = (int) position++;
+            return edge == TOP || edge == BOTTOM ? packPoint(p, edgeMinY(edge, ay, ah)) : packPoint(edgeMinX(edge, ax, aw), p);
+        }
+    }
+
+    // Points from position to end - 1 along one side, the other coordinate stays fixed
+    private static final class EdgePointSpliterator implements Spliterator.OfLong {
+        private final boolean horizontal;
+        private final int fixed;
+        private long position;
+        private final long end;
+
+        EdgePointSpliterator(boolean horizontal, int fixed, long position, long end) {
+            this.horizontal = horizontal;
+            this.fixed = fixed;
+            this.position = position;
+            this.end = end;
+        }
+
+        @Override
+        public boolean tryAdvance(LongConsumer action) {
+            if (position >= end) {
+                return false;
+            }
+            action.accept(point(position++));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(LongConsumer action) {
+            long last = end;
+            for (long p = position; p < last; p++) {
+                action.accept(point(p));
+            }
+            position = last;
+        }
+
+        @Override
+        public Spliterator.OfLong trySplit() {
+            long middle = position + ((end - position) >>> 1);
+            if (middle <= position) {
+                return null;
+            }
+            EdgePointSpliterator prefix = new EdgePointSpliterator(horizontal, fixed, position, middle);
+            position = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return Math.max(end - position, 0);
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | IMMUTABLE | NONNULL | DISTINCT;
+        }
+
+        private long point(long p) {
+            return horizontal ? packPoint((int) p, fixed) : packPoint(fixed, (int) p);
+        }
+    }
+}
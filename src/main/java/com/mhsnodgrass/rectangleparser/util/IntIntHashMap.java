@@ -0,0 +1,188 @@
+package com.mhsnodgrass.rectangleparser.util;
+
+import java.util.Arrays;
+
+/** Hash map from int keys to non-negative int values, with no boxing.
+ * <p>Uses open addressing with linear probing, the keys and values sit in two flat arrays</p>
+ * <p>Used to find the slot of a Rectangle by its id, so get and put never create objects</p>
+ * @author Matthew Snodgrass
+ */
+public class IntIntHashMap {
+    /**
+     * Returned by get and remove when the key is not in the map
+     */
+    public static final int NO_VALUE = -1;
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private int[] keys;
+    // NO_VALUE marks an empty entry, so values have to be zero or above
+    private int[] values;
+    private int mask;
+    private int size;
+    private int resizeAt;
+
+    // Constructors
+    /**
+     * Creates an empty map with a small starting capacity
+     */
+    public IntIntHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty map that can hold the number of entries given before growing
+     * @param expectedSize Number of entries to make room for
+     */
+    public IntIntHashMap(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    // Methods
+    /**
+     * Gets the number of entries in the map
+     * @return The number of keys
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the value for a key
+     * @param key Key to look up
+     * @return The value, or {@link #NO_VALUE} if the key is not in the map
+     */
+    public int get(int key) {
+        int index = hash(key) & mask;
+        while (values[index] != NO_VALUE) {
+            if (keys[index] == key) {
+                return values[index];
+            }
+            index = (index + 1) & mask;
+        }
+        return NO_VALUE;
+    }
+
+    /**
+     * Checks if a key is in the map
+     * @param key Key to look up
+     * @return Boolean value to represent if the key is present
+     */
+    public boolean containsKey(int key) {
+        return get(key) != NO_VALUE;
+    }
+
+    /**
+     * Adds or replaces the value for a key
+     * @param key Key to add
+     * @param value Value for the key, has to be zero or above
+     * @return The old value, or {@link #NO_VALUE} if the key was not in the map
+     */
+    public int put(int key, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Value has to be zero or above: " + value);
+        }
+
+        int index = hash(key) & mask;
+        while (values[index] != NO_VALUE) {
+            if (keys[index] == key) {
+                int old = values[index];
+                values[index] = value;
+                return old;
+            }
+            index = (index + 1) & mask;
+        }
+
+        keys[index] = key;
+        values[index] = value;
+        if (++size >= resizeAt) {
+            rehash(keys.length * 2);
+        }
+        return NO_VALUE;
+    }
+
+    /**
+     * Removes a key from the map
+     * @param key Key to remove
+     * @return The old value, or {@link #NO_VALUE} if the key was not in the map
+     */
+    public int remove(int key) {
+        int index = hash(key) & mask;
+        while (values[index] != NO_VALUE) {
+            if (keys[index] == key) {
+                int old = values[index];
+                shiftBack(index);
+                size--;
+                return old;
+            }
+            index = (index + 1) & mask;
+        }
+        return NO_VALUE;
+    }
+
+    /**
+     * Removes every key from the map, the table keeps its capacity
+     */
+    public void clear() {
+        Arrays.fill(values, NO_VALUE);
+        size = 0;
+    }
+
+    // Helper functions
+    private static int hash(int key) {
+        // Spread the bits so sequential ids do not cluster
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        long needed = (long) Math.ceil(Math.max(expectedSize, DEFAULT_CAPACITY) / (double) LOAD_FACTOR);
+        int capacity = Integer.highestOneBit((int) Math.min(needed, 1 << 30));
+        return capacity < needed ? capacity << 1 : capacity;
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, NO_VALUE);
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != NO_VALUE) {
+                int index = hash(oldKeys[i]) & mask;
+                while (values[index] != NO_VALUE) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    // Fills the gap left by a removed entry so later entries in the probe chain can still be found
+    private void shiftBack(int gap) {
+        int index = gap;
+        while (true) {
+            index = (index + 1) & mask;
+            if (values[index] == NO_VALUE) {
+                break;
+            }
+            int home = hash(keys[index]) & mask;
+            // Move the entry if its home is not between the gap and its current spot
+            if (((index - home) & mask) >= ((index - gap) & mask)) {
+                keys[gap] = keys[index];
+                values[gap] = values[index];
+                gap = index;
+            }
+        }
+        values[gap] = NO_VALUE;
+    }
+}
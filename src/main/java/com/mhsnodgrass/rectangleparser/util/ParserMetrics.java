@@ -0,0 +1,249 @@
+package com.mhsnodgrass.rectangleparser.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/** Timings and counts for each phase of a run (parsing, building Rectangles, filtering, the pair checks, and writing results), kept in a Micrometer registry.
+ * <p>Each phase has a timer (rectangleparser.phase), a summary of the bytes the calling thread allocated while it ran
+ * (rectangleparser.phase.allocated), and a gauge of the allocation rate (rectangleparser.phase.allocation.rate)</p>
+ * <p>Phases can run inside other phases (a load parses the file), each one counts everything that happened while it was open.
+ * Allocations are read from the calling thread only, so the worker threads of a parallel parse are not counted</p>
+ * <p>Rectangles read from XML files are counted as parsed or skipped (bad data or a duplicate id)</p>
+ * <p>{@link #summary()} gives every phase that ran as one result, printed at exit with --stats</p>
+ * @author Matthew Snodgrass
+ */
+@Component
+public class ParserMetrics {
+    /** XML file to {@link com.mhsnodgrass.rectangleparser.model.RectangleStore} */
+    public static final String PARSE = "parse";
+    /** File to dataset, from the cache, a snapshot, or parsing */
+    public static final String LOAD = "load";
+    /** Dataset to {@link com.mhsnodgrass.rectangleparser.model.Rectangle} objects */
+    public static final String CONSTRUCT = "construct";
+    /** Finding two Rectangles by id */
+    public static final String FILTER = "filter";
+    public static final String INTERSECT = "intersect";
+    public static final String CONTAIN = "contain";
+    public static final String ADJACENT = "adjacent";
+    /** Finding the closest Rectangles to one Rectangle */
+    public static final String NEAREST = "nearest";
+    /** Results written out by the {@link ResultWriter} */
+    public static final String OUTPUT = "output";
+
+    /** Reasons a Rectangle is skipped */
+    public static final String BAD_DATA = "bad-data";
+    public static final String DUPLICATE_ID = "duplicate-id";
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final Map<String, PhaseMeters> phases = new LinkedHashMap<>();
+    private final Counter parsed = Counter.builder("rectangleparser.rectangles.parsed").register(registry);
+    private final Counter badData = skippedCounter(BAD_DATA);
+    private final Counter duplicateId = skippedCounter(DUPLICATE_ID);
+
+    // Getters
+    /**
+     * Gets the registry every meter is kept in
+     * @return The MeterRegistry of this run
+     */
+    public MeterRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * Gets the number of Rectangles added from XML files
+     * @return The number of Rectangles parsed
+     */
+    public long getParsedCount() {
+        return (long) parsed.count();
+    }
+
+    /**
+     * Gets the number of Rectangles skipped for a reason
+     * @param reason {@link #BAD_DATA} or {@link #DUPLICATE_ID}
+     * @return The number of Rectangles skipped for that reason
+     */
+    public long getSkippedCount(String reason) {
+        return (long) (DUPLICATE_ID.equals(reason) ? duplicateId : badData).count();
+    }
+
+    /**
+     * Gets the number of times a phase has run
+     * @param phase Name of the phase, ie: {@link #PARSE}
+     * @return The number of times the phase was closed, 0 if it never ran
+     */
+    public long getPhaseCount(String phase) {
+        PhaseMeters meters;
+        synchronized (phases) {
+            meters = phases.get(phase);
+        }
+        return meters == null ? 0 : meters.timer.count();
+    }
+
+    // Methods
+    /**
+     * <p>Starts timing a phase, it is recorded when the returned Phase is closed</p>
+     * <p>Meant for try-with-resources: `try (ParserMetrics.Phase ignored = parserMetrics.start(ParserMetrics.PARSE)) { ... }`</p>
+     * @param phase Name of the phase, ie: {@link #PARSE}
+     * @return An open Phase
+     */
+    public Phase start(String phase) {
+        PhaseMeters meters;
+        synchronized (phases) {
+            meters = phases.computeIfAbsent(phase, name -> new PhaseMeters(registry, name));
+        }
+        return new Phase(meters);
+    }
+
+    /**
+     * Counts a Rectangle added from an XML file
+     */
+    public void countParsed() {
+        parsed.increment();
+    }
+
+    /**
+     * Counts a Rectangle that was skipped while reading an XML file
+     * @param reason {@link #BAD_DATA} or {@link #DUPLICATE_ID}
+     */
+    public void countSkipped(String reason) {
+        (DUPLICATE_ID.equals(reason) ? duplicateId : badData).increment();
+    }
+
+    /**
+     * <p>Sums up every phase that has run, and the number of Rectangles parsed and skipped</p>
+     * <p>Text is one line per phase with its count, total and longest time, and allocations. JSON has the same values as fields named after the phase</p>
+     * @return A `stats` result
+     */
+    public ResultWriter.Result summary() {
+        List<PhaseMeters> ran = new ArrayList<>();
+        synchronized (phases) {
+            for (PhaseMeters meters : phases.values()) {
+                if (meters.timer.count() > 0) {
+                    ran.add(meters);
+                }
+            }
+        }
+
+        ResultWriter.Result result = new ResultWriter.Result("stats")
+                .text(ResultWriter.SEPARATOR)
+                .text("STATS");
+        List<String> names = new ArrayList<>(ran.size());
+        for (PhaseMeters meters : ran) {
+            names.add(meters.name);
+            long allocated = (long) meters.allocated.totalAmount();
+            result.text(String.format(Locale.ROOT, "PHASE: %s, COUNT: %d, TOTAL: %.3f ms, MAX: %.3f ms, ALLOCATED: %d bytes (%.1f MB/s)",
+                            meters.name, meters.timer.count(), meters.timer.totalTime(TimeUnit.MILLISECONDS),
+                            meters.timer.max(TimeUnit.MILLISECONDS), allocated, meters.allocationRate() / (1024 * 1024)))
+                    .put(meters.name + ".count", meters.timer.count())
+                    .put(meters.name + ".totalNanos", (long) meters.timer.totalTime(TimeUnit.NANOSECONDS))
+                    .put(meters.name + ".maxNanos", (long) meters.timer.max(TimeUnit.NANOSECONDS))
+                    .put(meters.name + ".allocatedBytes", allocated)
+                    .put(meters.name + ".allocationRate", (long) meters.allocationRate());
+        }
+
+        return result.text("RECTANGLES PARSED: " + getParsedCount() + ", SKIPPED: " + (getSkippedCount(BAD_DATA) + getSkippedCount(DUPLICATE_ID))
+                        + " (BAD DATA: " + getSkippedCount(BAD_DATA) + ", DUPLICATE ID: " + getSkippedCount(DUPLICATE_ID) + ")")
+                .put("phases", names)
+                .put("parsed", getParsedCount())
+                .put("skippedBadData", getSkippedCount(BAD_DATA))
+                .put("skippedDuplicateId", getSkippedCount(DUPLICATE_ID));
+    }
+
+    /**
+     * Writes the JSON form of {@link #summary()} to a file, replacing it if it is there
+     * @param path File to write
+     * @throws IOException If the file can not be written
+     */
+    public void writeJson(Path path) throws IOException {
+        Files.write(path, (summary().toJson() + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Helper functions
+    private Counter skippedCounter(String reason) {
+        return Counter.builder("rectangleparser.rectangles.skipped").tag("reason", reason).register(registry);
+    }
+
+    // Bytes allocated by the calling thread so far, or -1 if the JVM can not tell
+    private static long allocatedBytes() {
+        if (THREADS instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) THREADS;
+            if (threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+                return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    /** One timing of a phase, recorded when it is closed.
+     * @author Matthew Snodgrass
+     */
+    public static final class Phase implements AutoCloseable {
+        private final PhaseMeters meters;
+        private final long startNanos;
+        private final long startAllocated;
+        private boolean closed;
+
+        private Phase(PhaseMeters meters) {
+            this.meters = meters;
+            this.startAllocated = allocatedBytes();
+            this.startNanos = System.nanoTime();
+        }
+
+        /**
+         * Records the time and allocations since the phase started, only the first call counts
+         */
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            meters.timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            long endAllocated = allocatedBytes();
+            if (startAllocated >= 0 && endAllocated >= startAllocated) {
+                meters.allocated.record(endAllocated - startAllocated);
+            }
+        }
+    }
+
+    // Every meter for one phase, tagged with its name
+    private static final class PhaseMeters {
+        private final String name;
+        private final Timer timer;
+        private final DistributionSummary allocated;
+
+        PhaseMeters(MeterRegistry registry, String name) {
+            this.name = name;
+            this.timer = Timer.builder("rectangleparser.phase").tag("phase", name).register(registry);
+            this.allocated = DistributionSummary.builder("rectangleparser.phase.allocated").baseUnit("bytes").tag("phase", name).register(registry);
+            Gauge.builder("rectangleparser.phase.allocation.rate", this, PhaseMeters::allocationRate)
+                    .baseUnit("bytes/s").tag("phase", name).register(registry);
+        }
+
+        // Bytes allocated a second while the phase was running
+        double allocationRate() {
+            double seconds = timer.totalTime(TimeUnit.SECONDS);
+            return seconds > 0 ? allocated.totalAmount() / seconds : 0;
+        }
+    }
+}
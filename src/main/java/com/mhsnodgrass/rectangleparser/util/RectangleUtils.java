@@ -1,7 +1,10 @@
 package com.mhsnodgrass.rectangleparser.util;
 
 import com.mhsnodgrass.rectangleparser.model.Rectangle;
+import com.mhsnodgrass.rectangleparser.model.RectangleStore;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
@@ -11,11 +14,26 @@ import org.xml.sax.SAXException;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 /** Utility class for Rectangles.
  * @author Matthew Snodgrass
@@ -28,21 +46,197 @@ public class RectangleUtils {
     private final static String WIDTH = "width";
     private final static String X = "x";
     private final static String Y = "y";
+    private final static String RECTANGLE = "rectangle";
+    // Field order used when reading with StAX
+    private final static String[] FIELDS = {ID, HEIGHT, WIDTH, X, Y};
+    private final static int BUFFER_SIZE = 64 * 1024;
+    // Smallest chunk handed to a parallel worker, and how many chunks each worker gets on average
+    private final static long MIN_CHUNK_SIZE = 1024 * 1024;
+    private final static int CHUNKS_PER_THREAD = 4;
+    // Each chunk is wrapped in a root element so it is a full document on its own
+    private final static byte[] CHUNK_START = "<rectangles>".getBytes(StandardCharsets.US_ASCII);
+    private final static byte[] CHUNK_END = "</rectangles>".getBytes(StandardCharsets.US_ASCII);
+
+    @Value("${rectangleparser.streaming.threshold:1048576}")
+    private long streamingThreshold = 1048576;
+
+    @Value("${rectangleparser.parallel.threshold:67108864}")
+    private long parallelThreshold = 67108864;
+
+    @Value("${rectangleparser.parallel.threads:0}")
+    private int parallelThreads = 0;
+
+    @Autowired
+    private ParserMetrics parserMetrics;
 
     /**
      * <p>Parses the XML file input into Rectangle Entities by looping through each `rectangle` element found in XML file</p>
      * <p>Please see the {@link Rectangle} class for context</p>
-     * <p>Grabs each element (id, height, width, etc) and assigns it to a variable, then creates the Rectangle using the values</p>
+     * <p>Uses {@link #parseXmlToRectangleStore(File)} and creates a Rectangle for each slot</p>
      * <p>If bad data is found (not an Integer, missing data, etc), it will skip the Rectangle</p>
      * <p>If a duplicate Id is found, it will skip the Rectangle</p>
      * @param xmlFile XML file to be parsed into Rectangle objects
      * @return A List of created Rectangles from the XML file
      */
     public List<Rectangle> parseXmlToListOfRectangles(File xmlFile) {
-        // Create a list of Rectangles
-        List<Rectangle> rectangleList = new ArrayList<>();
-        // Create a set of ids to avoid duplicates
-        HashSet<Integer> rectangleIds = new HashSet<>();
+        RectangleStore rectangleStore = parseXmlToRectangleStore(xmlFile);
+        try (ParserMetrics.Phase ignored = parserMetrics.start(ParserMetrics.CONSTRUCT)) {
+            return new ArrayList<>(rectangleStore.asList());
+        }
+    }
+
+    /**
+     * <p>Parses the XML file input into a {@link RectangleStore} by looping through each `rectangle` element found in XML file</p>
+     * <p>Grabs each element (id, height, width, etc) and adds the values to the store, no Rectangle objects are created</p>
+     * <p>Files at or above the streaming threshold (rectangleparser.streaming.threshold) are read with {@link #streamXmlToRectangleStore(File)}</p>
+     * <p>Files at or above the parallel threshold (rectangleparser.parallel.threshold) are read with
+     * {@link #parseXmlToRectangleStoreParallel(File, int)} when more than one thread is available</p>
+     * <p>If bad data is found (not an Integer, missing data, etc), it will skip the Rectangle</p>
+     * <p>If a duplicate Id is found, it will skip the Rectangle</p>
+     * <p>Each call is timed as the {@link ParserMetrics#PARSE} phase</p>
+     * @param xmlFile XML file to be parsed
+     * @return A RectangleStore holding the Rectangles from the XML file, in the same order as the file
+     */
+    public RectangleStore parseXmlToRectangleStore(File xmlFile) {
+        try (ParserMetrics.Phase ignored = parserMetrics.start(ParserMetrics.PARSE)) {
+            return readXml(xmlFile);
+        }
+    }
+
+    /**
+     * <p>Streams the XML file input into a {@link RectangleStore}, reading one `rectangle` element at a time</p>
+     * <p>Uses a StAX pull parser, so the whole document is never held in memory and each field is read once</p>
+     * <p>Uses the same rules as {@link #parseXmlToRectangleStore(File)}, bad data and duplicate Ids are skipped with the same messages</p>
+     * <p>If the file is broken part way through, the Rectangles read before the error are kept and the store is marked incomplete</p>
+     * @param xmlFile XML file to be parsed
+     * @return A RectangleStore holding the Rectangles from the XML file, in the same order as the file
+     */
+    public RectangleStore streamXmlToRectangleStore(File xmlFile) {
+        // Create the store of Rectangles
+        RectangleStore rectangleStore = new RectangleStore();
+
+        XMLStreamReader reader = null;
+        try (InputStream input = new BufferedInputStream(new FileInputStream(xmlFile), BUFFER_SIZE)) {
+            reader = createInputFactory().createXMLStreamReader(input);
+
+            // Reused for every rectangle, one text value for each field (null when the field is missing)
+            String[] values = new String[FIELDS.length];
+            StringBuilder text = new StringBuilder();
+            int index = 0;
+
+            while (reader.hasNext()) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT && RECTANGLE.equals(reader.getLocalName())) {
+                    readRectangleElement(reader, values, text);
+
+                    Integer id = getIntegerFromText(values[0], ID);
+                    Integer height = getIntegerFromText(values[1], HEIGHT);
+                    Integer width = getIntegerFromText(values[2], WIDTH);
+                    Integer x = getIntegerFromText(values[3], X);
+                    Integer y = getIntegerFromText(values[4], Y);
+
+                    addRectangle(rectangleStore, index++, id, height, width, x, y);
+                }
+            }
+        } catch (IOException e) {
+            log.error("Error retrieving file: " + xmlFile.getName() + ".", e);
+            rectangleStore.markIncomplete();
+        } catch (XMLStreamException e) {
+            log.error("Error parsing file: " + xmlFile.getName() + ".", e);
+            rectangleStore.markIncomplete();
+        } finally {
+            closeReader(reader);
+        }
+
+        rectangleStore.trimToSize();
+        return rectangleStore;
+    }
+
+    /**
+     * Same as {@link #parseXmlToRectangleStoreParallel(File, int, long)}, with the chunk size worked out from the file size
+     * @param xmlFile XML file to be parsed
+     * @param parallelism Number of threads to parse with
+     * @return A RectangleStore holding the Rectangles from the XML file, in the same order as the file
+     */
+    public RectangleStore parseXmlToRectangleStoreParallel(File xmlFile, int parallelism) {
+        long chunkSize = Math.max(MIN_CHUNK_SIZE, xmlFile.length() / ((long) Math.max(parallelism, 1) * CHUNKS_PER_THREAD));
+        return parseXmlToRectangleStoreParallel(xmlFile, parallelism, chunkSize);
+    }
+
+    /**
+     * <p>Parses the XML file input into a {@link RectangleStore} on several threads</p>
+     * <p>The file is split into chunks at `rectangle` start tags, and each chunk is streamed with StAX on a fork/join pool</p>
+     * <p>Chunks are merged in file order once every chunk has parsed, so the store, the indexes in warnings, and the duplicate Id rules
+     * are the same as {@link #streamXmlToRectangleStore(File)}</p>
+     * <p>Falls back to {@link #streamXmlToRectangleStore(File)} if the file is not UTF-8, has no `rectangle` elements, or any
+     * chunk fails to parse (ie: the `rectangle` elements sit inside wrapper elements, so a chunk holds end tags it never opened)</p>
+     * @param xmlFile XML file to be parsed
+     * @param parallelism Number of threads to parse with
+     * @param chunkSize Target size of each chunk in bytes
+     * @return A RectangleStore holding the Rectangles from the XML file, in the same order as the file
+     */
+    public RectangleStore parseXmlToRectangleStoreParallel(File xmlFile, int parallelism, long chunkSize) {
+        RectangleStore rectangleStore = new RectangleStore();
+
+        try (FileChannel channel = FileChannel.open(xmlFile.toPath(), StandardOpenOption.READ)) {
+            long[] boundaries = XmlChunkSplitter.isSplittable(channel) ? XmlChunkSplitter.split(channel, chunkSize) : null;
+            if (boundaries == null) {
+                return streamXmlToRectangleStore(xmlFile);
+            }
+
+            ForkJoinPool pool = new ForkJoinPool(Math.max(parallelism, 1));
+            try {
+                List<ForkJoinTask<ParsedChunk>> tasks = new ArrayList<>(boundaries.length - 1);
+                for (int i = 0; i + 1 < boundaries.length; i++) {
+                    long start = boundaries[i];
+                    long end = boundaries[i + 1];
+                    tasks.add(pool.submit(() -> parseChunk(channel, start, end)));
+                }
+
+                // Nothing is merged (or logged) until every chunk has parsed, so a failed chunk can hand the whole file to the stream parser
+                List<ParsedChunk> chunks = new ArrayList<>(tasks.size());
+                for (ForkJoinTask<ParsedChunk> task : tasks) {
+                    ParsedChunk chunk = task.join();
+                    if (chunk.error != null) {
+                        log.debug("Chunk of " + xmlFile.getName() + " could not be parsed on its own, streaming the whole file instead: "
+                                + chunk.error.getMessage());
+                        return streamXmlToRectangleStore(xmlFile);
+                    }
+                    chunks.add(chunk);
+                }
+
+                // Merge in file order
+                int base = 0;
+                for (int i = 0; i < chunks.size(); i++) {
+                    ParsedChunk chunk = chunks.get(i);
+                    chunks.set(i, null);
+                    mergeChunk(rectangleStore, chunk, base);
+                    base += chunk.count;
+                }
+            } finally {
+                pool.shutdownNow();
+            }
+        } catch (IOException e) {
+            log.error("Error retrieving file: " + xmlFile.getName() + ".", e);
+            rectangleStore.markIncomplete();
+        }
+
+        rectangleStore.trimToSize();
+        return rectangleStore;
+    }
+
+    // Helper functions
+    // Picks the parser for the size of the file, small files are read as a DOM
+    private RectangleStore readXml(File xmlFile) {
+        int threads = parallelThreads > 0 ? parallelThreads : Runtime.getRuntime().availableProcessors();
+        if (xmlFile.length() >= parallelThreshold && threads > 1) {
+            return parseXmlToRectangleStoreParallel(xmlFile, threads);
+        }
+        if (xmlFile.length() >= streamingThreshold) {
+            return streamXmlToRectangleStore(xmlFile);
+        }
+
+        // Create the store of Rectangles
+        RectangleStore rectangleStore = new RectangleStore();
 
         try {
             // Create XML document
@@ -51,9 +245,9 @@ public class RectangleUtils {
             Document document = builder.parse(xmlFile);
 
             // Grab all rectangle nodes
-            NodeList rectangles = document.getElementsByTagName("rectangle");
+            NodeList rectangles = document.getElementsByTagName(RECTANGLE);
 
-            // Loop through each node and create a rectangle, add it to the list
+            // Loop through each node and add the rectangle to the store
             for (int i = 0; i < rectangles.getLength(); i++) {
                 // Grab each element
                 Element element = (Element) rectangles.item(i);
@@ -63,32 +257,199 @@ public class RectangleUtils {
                 Integer x = getIntegerFromElement(element, X);
                 Integer y = getIntegerFromElement(element, Y);
 
-                // Check if there was issues, skip
-                if (id == null || height == null || width == null || x == null || y == null) {
-                    log.warn("Rectangle at index " + i + " was not processed. Please check error to see what failed.");
-                    continue;
-                }
-
-                // Check if id is in the HashSet
-                if (rectangleIds.contains(id)) {
-                    log.warn("Rectangle at index " + i + " was not processed. The Id of the Rectangle has already been used.");
-                    continue;
-                }
-                rectangleIds.add(id);
-
-                // Add to the rectangle list
-                Rectangle rectangle = new Rectangle(id, height, width, x, y);
-                rectangleList.add(rectangle);
+                addRectangle(rectangleStore, i, id, height, width, x, y);
             }
         } catch (ParserConfigurationException e) {
             log.error("Error creating XML document to parse", e);
+            rectangleStore.markIncomplete();
         } catch (IOException e) {
             log.error("Error retrieving file: " + xmlFile.getName() + ".", e);
+            rectangleStore.markIncomplete();
         } catch (SAXException e) {
             log.error("Error parsing file: " + xmlFile.getName() + ".", e);
+            rectangleStore.markIncomplete();
         }
 
-        return rectangleList;
+        rectangleStore.trimToSize();
+        return rectangleStore;
+    }
+
+    // Applies the skip rules and adds the Rectangle to the store, returns false if it was skipped
+    private boolean addRectangle(RectangleStore rectangleStore, int index,
+                                 Integer id, Integer height, Integer width, Integer x, Integer y) {
+        // Check if there was issues, skip
+        if (id == null || height == null || width == null || x == null || y == null) {
+            log.warn("Rectangle at index " + index + " was not processed. Please check error to see what failed.");
+            parserMetrics.countSkipped(ParserMetrics.BAD_DATA);
+            return false;
+        }
+
+        return addRectangleValues(rectangleStore, index, id, height, width, x, y);
+    }
+
+    // Duplicate Id check and add, for values that are already known to be good
+    private boolean addRectangleValues(RectangleStore rectangleStore, int index, int id, int height, int width, int x, int y) {
+        // Check if id is already in the store
+        if (rectangleStore.containsId(id)) {
+            log.warn("Rectangle at index " + index + " was not processed. The Id of the Rectangle has already been used.");
+            parserMetrics.countSkipped(ParserMetrics.DUPLICATE_ID);
+            return false;
+        }
+
+        // Add to the rectangle store
+        rectangleStore.add(id, height, width, x, y);
+        parserMetrics.countParsed();
+        return true;
+    }
+
+    // Runs on a worker thread, nothing is logged here so messages come out in file order when the chunk is merged
+    private ParsedChunk parseChunk(FileChannel channel, long start, long end) {
+        ParsedChunk chunk = new ParsedChunk();
+
+        XMLStreamReader reader = null;
+        try (InputStream input = new BufferedInputStream(new SequenceInputStream(Collections.enumeration(Arrays.asList(
+                new ByteArrayInputStream(CHUNK_START), XmlChunkSplitter.openRange(channel, start, end),
+                new ByteArrayInputStream(CHUNK_END)))), BUFFER_SIZE)) {
+            reader = createInputFactory().createXMLStreamReader(input, StandardCharsets.UTF_8.name());
+
+            String[] values = new String[FIELDS.length];
+            StringBuilder text = new StringBuilder();
+            int[] parsed = new int[FIELDS.length];
+
+            while (reader.hasNext()) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT && RECTANGLE.equals(reader.getLocalName())) {
+                    readRectangleElement(reader, values, text);
+                    if (parseValuesQuietly(values, parsed)) {
+                        chunk.addValid(parsed);
+                    } else {
+                        chunk.addRejected(values.clone());
+                    }
+                }
+            }
+        } catch (IOException | XMLStreamException e) {
+            chunk.error = e;
+        } finally {
+            closeReader(reader);
+        }
+
+        return chunk;
+    }
+
+    // Adds the Rectangles of a chunk, rejected ones are run through the normal checks again so the same errors are logged
+    private void mergeChunk(RectangleStore rectangleStore, ParsedChunk chunk, int base) {
+        int[] values = chunk.values;
+        int nextRejected = 0;
+        for (int i = 0; i < chunk.count; i++) {
+            int offset = chunk.valueOffsets[i];
+            if (offset < 0) {
+                String[] rejected = chunk.rejected.get(nextRejected++);
+                Integer id = getIntegerFromText(rejected[0], ID);
+                Integer height = getIntegerFromText(rejected[1], HEIGHT);
+                Integer width = getIntegerFromText(rejected[2], WIDTH);
+                Integer x = getIntegerFromText(rejected[3], X);
+                Integer y = getIntegerFromText(rejected[4], Y);
+                addRectangle(rectangleStore, base + i, id, height, width, x, y);
+            } else {
+                addRectangleValues(rectangleStore, base + i,
+                        values[offset], values[offset + 1], values[offset + 2], values[offset + 3], values[offset + 4]);
+            }
+        }
+    }
+
+    // Parses every field without logging, returns false if any of them is missing or not an Integer
+    private boolean parseValuesQuietly(String[] values, int[] parsed) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == null || values[i].isEmpty()) {
+                return false;
+            }
+            try {
+                parsed[i] = Integer.parseInt(values[i]);
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        // Rectangle files have no need for DTDs or external entities
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    // Reads from the start of a rectangle element to its end, keeping the text of the first match for each field
+    private void readRectangleElement(XMLStreamReader reader, String[] values, StringBuilder text) throws XMLStreamException {
+        Arrays.fill(values, null);
+        int depth = 1;
+
+        while (depth > 0 && reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                int field = getFieldIndex(reader.getLocalName());
+                if (field >= 0 && values[field] == null) {
+                    // Reads through the matching end element, so the depth does not change
+                    values[field] = readElementText(reader, text);
+                } else {
+                    depth++;
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    // Reads all of the text inside the current element (including child elements) and stops at its end element
+    private String readElementText(XMLStreamReader reader, StringBuilder text) throws XMLStreamException {
+        text.setLength(0);
+        int depth = 1;
+
+        while (depth > 0 && reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA || event == XMLStreamConstants.SPACE) {
+                text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+            } else if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+
+        return text.toString();
+    }
+
+    private int getFieldIndex(String elementName) {
+        for (int i = 0; i < FIELDS.length; i++) {
+            if (FIELDS[i].equals(elementName)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void closeReader(XMLStreamReader reader) {
+        if (reader != null) {
+            try {
+                reader.close();
+            } catch (XMLStreamException e) {
+                log.error("Error closing the XML reader", e);
+            }
+        }
+    }
+
+    // Same checks as getIntegerFromElement, for text that has already been read (null when the element was missing)
+    private Integer getIntegerFromText(String text, String elementName) {
+        if (text == null) {
+            log.error("Error accessing the " + elementName + " in the rectangle node, please check the XML file");
+            return null;
+        }
+        if (text.isEmpty()) {
+            log.error("Error getting the value of the " + elementName + " in the rectangle node, please check the XML file");
+            return null;
+        }
+
+        return parseInteger(text, elementName);
     }
 
     private Integer getIntegerFromElement(Element element, String elementName) {
@@ -118,14 +479,51 @@ public class RectangleUtils {
         if (stringResult.isEmpty()) {
             intResult = null;
         } else {
-            try {
-                intResult = Integer.parseInt(stringResult);
-            } catch (NumberFormatException e) {
-                log.error("Parsing the integer for " + elementName + " failed.", e);
-                intResult = null;
-            }
+            intResult = parseInteger(stringResult, elementName);
         }
 
         return intResult;
     }
+
+    private Integer parseInteger(String stringResult, String elementName) {
+        try {
+            return Integer.parseInt(stringResult);
+        } catch (NumberFormatException e) {
+            log.error("Parsing the integer for " + elementName + " failed.", e);
+            return null;
+        }
+    }
+
+    // Result of parsing one chunk, good Rectangles are kept as packed values and bad ones as their raw text
+    private static class ParsedChunk {
+        private int count;
+        private int[] values = new int[FIELDS.length * 1024];
+        private int valueCount;
+        // Start of each Rectangle in values, -1 for rejected ones, whose raw text is next in rejected
+        private int[] valueOffsets = new int[1024];
+        private final List<String[]> rejected = new ArrayList<>();
+        private Exception error;
+
+        private void addValid(int[] parsed) {
+            if (valueCount + parsed.length > values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+            ensureOffsets();
+            valueOffsets[count++] = valueCount;
+            System.arraycopy(parsed, 0, values, valueCount, parsed.length);
+            valueCount += parsed.length;
+        }
+
+        private void addRejected(String[] raw) {
+            ensureOffsets();
+            valueOffsets[count++] = -1;
+            rejected.add(raw);
+        }
+
+        private void ensureOffsets() {
+            if (count == valueOffsets.length) {
+                valueOffsets = Arrays.copyOf(valueOffsets, count * 2);
+            }
+        }
+    }
 }
@@ -0,0 +1,398 @@
+package com.mhsnodgrass.rectangleparser.util;
+
+import com.mhsnodgrass.rectangleparser.model.Rectangle;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PrimitiveIterator;
+
+/** Writes the results of each option, kept apart from the diagnostic logging done with SLF4J.
+ * <p>Results are gathered in a buffer and written to a channel once it is full (or on {@link #flush()}), instead of one
+ * synchronous log call per line. They go to rectangleparser.results.file, or standard output if it is not set</p>
+ * <p>rectangleparser.results.format picks the layout, text (the same lines the program has always printed) or ndjson (one JSON object per result)</p>
+ * <p>Used from one thread at a time, the thread running the option</p>
+ * @author Matthew Snodgrass
+ */
+@Component
+public class ResultWriter {
+    /** Line printed between results in text output */
+    public static final String SEPARATOR = "--------------------";
+
+    @Value("${rectangleparser.results.file:}")
+    private String resultsFile = "";
+
+    @Value("${rectangleparser.results.format:text}")
+    private String format = "text";
+
+    @Value("${rectangleparser.results.buffer-size:65536}")
+    private int bufferSize = 65536;
+
+    @Autowired
+    private ParserMetrics parserMetrics;
+
+    private StringBuilder pending;
+    private WritableByteChannel channel;
+    private ByteBuffer bytes;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+    // Getters
+    /**
+     * Checks if results are written as NDJSON
+     * @return Boolean value to represent if the format is ndjson
+     */
+    public boolean isJson() {
+        return "ndjson".equalsIgnoreCase(format);
+    }
+
+    // Methods
+    /**
+     * Adds a result to the buffer, writing the buffer out if it is full
+     * @param result Result to write
+     */
+    public void write(Result result) {
+        writeRendered(render(result));
+    }
+
+    /**
+     * Turns a result into the text it is written as, without the last line break. Does not touch the buffer, so it is safe to call from any thread
+     * @param result Result to render
+     * @return The text lines or the JSON object of the result
+     */
+    public String render(Result result) {
+        return isJson() ? result.toJson() : result.toText();
+    }
+
+    /**
+     * Adds a result that was already rendered with {@link #render(Result)}
+     * @param rendered Rendered result, a line break is added after it
+     */
+    public void writeRendered(String rendered) {
+        if (rendered.isEmpty()) {
+            return;
+        }
+        append(rendered);
+        append("\n");
+    }
+
+    /**
+     * <p>Adds a Rectangle, the text is the same as {@link Rectangle#toString()}</p>
+     * <p>In verbose mode each side is written as a range (ie: `TOP: x=0..10, y=0`) instead of one line for every point on it</p>
+     * @param number Number of the Rectangle in the output, starting at 1
+     * @param rect Rectangle to write
+     * @param verbose Boolean value that decides if the sides of the Rectangle are written
+     */
+    public void writeRectangle(int number, Rectangle rect, boolean verbose) {
+        Result result = new Result("rectangle")
+                .text(SEPARATOR)
+                .text("RECTANGLE #" + number)
+                .text(rect.toString())
+                .put("number", number)
+                .put("id", rect.getId())
+                .put("height", rect.getHeight())
+                .put("width", rect.getWidth())
+                .put("x", rect.getX())
+                .put("y", rect.getY());
+
+        if (verbose) {
+            int left = rect.getX();
+            int right = rect.getX() + rect.getWidth();
+            int top = rect.getY();
+            int bottom = rect.getY() - rect.getHeight();
+            result.text("TOP: " + edge(left, right, top, top))
+                    .text("RIGHT: " + edge(right, right, bottom, top))
+                    .text("BOTTOM: " + edge(left, right, bottom, bottom))
+                    .text("LEFT: " + edge(left, left, bottom, top))
+                    .put("top", left, top, right, top)
+                    .put("right", right, bottom, right, top)
+                    .put("bottom", left, bottom, right, bottom)
+                    .put("left", left, bottom, left, top);
+        }
+        write(result);
+    }
+
+    /**
+     * <p>Adds a list of points straight from an iterator, the buffer is written out as it fills so the list is never held in memory</p>
+     * <p>Text is `LABEL: (x, y) | (x, y)`, JSON is an object of the type given with a `points` array of [x, y] pairs</p>
+     * @param type Value of the JSON `type` field
+     * @param label Start of the text line, ie: INTERSECTING COORDINATES
+     * @param points Points packed with {@link GeometryUtils#packPoint(int, int)}
+     */
+    public void writePoints(String type, String label, PrimitiveIterator.OfLong points) {
+        boolean json = isJson();
+        append(json ? new Result(type).json + ",\"points\":[" : label + ": ");
+
+        StringBuilder point = new StringBuilder(32);
+        boolean first = true;
+        while (points.hasNext()) {
+            long next = points.nextLong();
+            point.setLength(0);
+            if (!first) {
+                point.append(json ? "," : " | ");
+            }
+            point.append(json ? '[' : '(').append(GeometryUtils.unpackX(next)).append(json ? "," : ", ")
+                    .append(GeometryUtils.unpackY(next)).append(json ? ']' : ')');
+            append(point);
+            first = false;
+        }
+        append(json ? "]}\n" : "\n");
+    }
+
+    /**
+     * Writes out everything in the buffer
+     */
+    public void flush() {
+        if (pending != null && pending.length() > 0) {
+            drain();
+        }
+    }
+
+    /**
+     * Writes out the buffer and closes the results file, standard output is left open
+     */
+    @PreDestroy
+    public void close() {
+        flush();
+        if (channel instanceof FileChannel && !resultsFile.isEmpty()) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        channel = null;
+    }
+
+    // Helper functions
+    private void append(CharSequence text) {
+        if (pending == null) {
+            pending = new StringBuilder(bufferSize + 256);
+        }
+        pending.append(text);
+        if (pending.length() >= bufferSize) {
+            drain();
+        }
+    }
+
+    // x=0..10, y=0 style range, a single value when both ends are the same
+    private static String edge(int fromX, int toX, int fromY, int toY) {
+        return "x=" + (fromX == toX ? fromX : fromX + ".." + toX) + ", y=" + (fromY == toY ? fromY : fromY + ".." + toY);
+    }
+
+    // Each write of the buffer is timed as the output phase
+    private void drain() {
+        try (ParserMetrics.Phase ignored = parserMetrics.start(ParserMetrics.OUTPUT)) {
+            if (channel == null) {
+                channel = openChannel();
+                bytes = ByteBuffer.allocateDirect(Math.max(bufferSize, 1024));
+            }
+
+            CharBuffer chars = CharBuffer.wrap(pending);
+            encoder.reset();
+            while (encoder.encode(chars, bytes, true).isOverflow()) {
+                writeBytes();
+            }
+            encoder.flush(bytes);
+            writeBytes();
+            pending.setLength(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error writing results", e);
+        }
+    }
+
+    private void writeBytes() throws IOException {
+        bytes.flip();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        bytes.clear();
+    }
+
+    private WritableByteChannel openChannel() throws IOException {
+        if (resultsFile.isEmpty()) {
+            return new FileOutputStream(FileDescriptor.out).getChannel();
+        }
+        Path path = Paths.get(resultsFile);
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    /** One result, holding both its text lines and its JSON fields, so it can be written in either format.
+     * <p>Text lines and fields are added separately, the text keeps the wording of the program's output while the JSON keeps the values</p>
+     * @author Matthew Snodgrass
+     */
+    public static final class Result {
+        private final List<String> lines = new ArrayList<>(4);
+        private final StringBuilder json = new StringBuilder(64);
+
+        /**
+         * Creates an empty result
+         * @param type Value of the JSON `type` field, ie: rectangle
+         */
+        public Result(String type) {
+            json.append("{\"type\":");
+            appendString(json, type);
+        }
+
+        /**
+         * Adds a line to the text output
+         * @param line Line of text, without a line break
+         * @return This result
+         */
+        public Result text(String line) {
+            lines.add(line);
+            return this;
+        }
+
+        /**
+         * Adds a number field to the JSON output
+         * @param key Name of the field
+         * @param value Value of the field
+         * @return This result
+         */
+        public Result put(String key, long value) {
+            key(key).append(value);
+            return this;
+        }
+
+        /**
+         * Adds a true/false field to the JSON output
+         * @param key Name of the field
+         * @param value Value of the field
+         * @return This result
+         */
+        public Result put(String key, boolean value) {
+            key(key).append(value);
+            return this;
+        }
+
+        /**
+         * Adds a string field to the JSON output
+         * @param key Name of the field
+         * @param value Value of the field, null is written as null
+         * @return This result
+         */
+        public Result put(String key, String value) {
+            if (value == null) {
+                key(key).append("null");
+            } else {
+                appendString(key(key), value);
+            }
+            return this;
+        }
+
+        /**
+         * Adds an array of numbers to the JSON output
+         * @param key Name of the field
+         * @param values Values of the array
+         * @return This result
+         */
+        public Result put(String key, int... values) {
+            StringBuilder out = key(key).append('[');
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    out.append(',');
+                }
+                out.append(values[i]);
+            }
+            out.append(']');
+            return this;
+        }
+
+        /**
+         * Adds an array of decimal numbers to the JSON output
+         * @param key Name of the field
+         * @param values Values of the array, each one has to be finite
+         * @return This result
+         */
+        public Result put(String key, double[] values) {
+            StringBuilder out = key(key).append('[');
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    out.append(',');
+                }
+                out.append(values[i]);
+            }
+            out.append(']');
+            return this;
+        }
+
+        /**
+         * Adds an array of strings to the JSON output
+         * @param key Name of the field
+         * @param values Values of the array
+         * @return This result
+         */
+        public Result put(String key, List<String> values) {
+            StringBuilder out = key(key).append('[');
+            for (int i = 0; i < values.size(); i++) {
+                if (i > 0) {
+                    out.append(',');
+                }
+                appendString(out, values.get(i));
+            }
+            out.append(']');
+            return this;
+        }
+
+        /**
+         * Gets the text output
+         * @return Each text line, split by line breaks
+         */
+        public String toText() {
+            return String.join("\n", lines);
+        }
+
+        /**
+         * Gets the JSON output
+         * @return The JSON object on one line
+         */
+        public String toJson() {
+            return json + "}";
+        }
+
+        // Helper functions
+        private StringBuilder key(String key) {
+            json.append(',');
+            appendString(json, key);
+            return json.append(':');
+        }
+
+        private static void appendString(StringBuilder out, String value) {
+            out.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"' || c == '\\') {
+                    out.append('\\').append(c);
+                } else if (c == '\n') {
+                    out.append("\\n");
+                } else if (c == '\t') {
+                    out.append("\\t");
+                } else if (c < 0x20) {
+                    out.append(String.format("\\u%04x", (int) c));
+                } else {
+                    out.append(c);
+                }
+            }
+            out.append('"');
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.mhsnodgrass.rectangleparser.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/** Splits a Rectangle XML file into byte ranges that each start at a `rectangle` element, so they can be parsed on their own.
+ * <p>Split points are found by scanning the raw bytes for the `&lt;rectangle` start tag, the DOM is never built</p>
+ * <p>The tag text is not expected inside comments or CDATA sections, and the file has to be UTF-8 (or plain ASCII)</p>
+ * @author Matthew Snodgrass
+ */
+final class XmlChunkSplitter {
+    private static final byte[] START_TAG = "<rectangle".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] END_TAG = "</".getBytes(StandardCharsets.US_ASCII);
+    private static final int SCAN_SIZE = 64 * 1024;
+    private static final int HEADER_SIZE = 256;
+    private static final Pattern ENCODING = Pattern.compile("encoding\\s*=\\s*[\"']([^\"']+)[\"']");
+
+    private XmlChunkSplitter() {
+    }
+
+    /**
+     * <p>Finds the chunk boundaries of a file, each chunk holds whole `rectangle` elements</p>
+     * <p>The first chunk starts at the first `rectangle` element and the last one ends before the end tag of the root element</p>
+     * @param channel Channel of the file to split
+     * @param chunkSize Target size of each chunk in bytes, chunks are stretched to the next element
+     * @return Boundaries of the chunks (chunk i runs from boundaries[i] to boundaries[i + 1]), or null if there are no `rectangle` elements
+     * @throws IOException If the file can not be read
+     */
+    static long[] split(FileChannel channel, long chunkSize) throws IOException {
+        long end = findRootEnd(channel);
+        long first = findStartTag(channel, 0, end);
+        if (first < 0) {
+            return null;
+        }
+
+        long step = Math.max(chunkSize, 1);
+        long[] boundaries = new long[16];
+        int count = 0;
+        boundaries[count++] = first;
+
+        long previous = first;
+        while (true) {
+            long next = findStartTag(channel, Math.max(previous + step, previous + 1), end);
+            if (next < 0) {
+                break;
+            }
+            if (count == boundaries.length) {
+                boundaries = Arrays.copyOf(boundaries, count * 2);
+            }
+            boundaries[count++] = next;
+            previous = next;
+        }
+
+        if (count == boundaries.length) {
+            boundaries = Arrays.copyOf(boundaries, count + 1);
+        }
+        boundaries[count++] = end;
+        return Arrays.copyOf(boundaries, count);
+    }
+
+    /**
+     * Checks the start of the file for a byte order mark or an encoding other than UTF-8, which the byte scan can not handle
+     * @param channel Channel of the file to check
+     * @return Boolean value to represent if the file can be split
+     * @throws IOException If the file can not be read
+     */
+    static boolean isSplittable(FileChannel channel) throws IOException {
+        byte[] header = read(channel, 0, HEADER_SIZE);
+        if (header.length >= 2 && ((header[0] == (byte) 0xFE && header[1] == (byte) 0xFF) || (header[0] == (byte) 0xFF && header[1] == (byte) 0xFE))) {
+            return false;
+        }
+
+        Matcher matcher = ENCODING.matcher(new String(header, StandardCharsets.ISO_8859_1));
+        if (matcher.find()) {
+            String encoding = matcher.group(1).toUpperCase(Locale.ROOT);
+            return encoding.equals("UTF-8") || encoding.equals("US-ASCII") || encoding.equals("ASCII");
+        }
+        return true;
+    }
+
+    /**
+     * Opens a stream over a byte range of the file, reads use the position of the range so many streams can share one channel
+     * @param channel Channel of the file
+     * @param start First byte of the range
+     * @param end Byte after the last byte of the range
+     * @return An InputStream over the range
+     */
+    static InputStream openRange(FileChannel channel, long start, long end) {
+        return new RangeInputStream(channel, start, end);
+    }
+
+    // Helper functions
+    // Finds the next `<rectangle` start tag (not `<rectangles`) at or after from, returns -1 if there is none before limit
+    private static long findStartTag(FileChannel channel, long from, long limit) throws IOException {
+        long position = from;
+        while (position < limit) {
+            // Read one extra byte for the character after the tag name
+            byte[] bytes = read(channel, position, (int) Math.min(SCAN_SIZE, limit - position + 1));
+            if (bytes.length <= START_TAG.length) {
+                return -1;
+            }
+
+            for (int i = 0; i + START_TAG.length < bytes.length; i++) {
+                if (matches(bytes, i, START_TAG) && isTagEnd(bytes[i + START_TAG.length])) {
+                    return position + i < limit ? position + i : -1;
+                }
+            }
+
+            // Step back so a tag split across two reads is still found
+            position += bytes.length - START_TAG.length;
+        }
+        return -1;
+    }
+
+    // Finds the end tag of the root element, which is the last `</` in the file
+    private static long findRootEnd(FileChannel channel) throws IOException {
+        long size = channel.size();
+        int length = (int) Math.min(SCAN_SIZE, size);
+        byte[] bytes = read(channel, size - length, length);
+
+        for (int i = bytes.length - END_TAG.length; i >= 0; i--) {
+            if (matches(bytes, i, END_TAG)) {
+                return size - length + i;
+            }
+        }
+        return size;
+    }
+
+    private static boolean matches(byte[] bytes, int offset, byte[] pattern) {
+        for (int i = 0; i < pattern.length; i++) {
+            if (bytes[offset + i] != pattern[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isTagEnd(byte value) {
+        return value == '>' || value == '/' || value == ' ' || value == '\t' || value == '\n' || value == '\r';
+    }
+
+    private static byte[] read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Math.max(length, 0));
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                break;
+            }
+        }
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    // InputStream over one byte range of a channel, using positional reads
+    private static class RangeInputStream extends InputStream {
+        private final FileChannel channel;
+        private final long end;
+        private long position;
+
+        RangeInputStream(FileChannel channel, long start, long end) {
+            this.channel = channel;
+            this.position = start;
+            this.end = end;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (position >= end) {
+                return -1;
+            }
+            int count = channel.read(ByteBuffer.wrap(bytes, offset, (int) Math.min(length, end - position)), position);
+            if (count > 0) {
+                position += count;
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.mhsnodgrass.rectangleparser.watch;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+/** Watches one file with a {@link WatchService} and calls back once each time it settles after a change.
+ * <p>The service watches the directory, events for other files are ignored</p>
+ * <p>Editors often write a file in several steps (or replace it), so the callback only runs once the size and modified time
+ * have stayed the same for the settle time</p>
+ * @author Matthew Snodgrass
+ */
+public final class FileWatcher {
+    private FileWatcher() {
+    }
+
+    /**
+     * Blocks and watches the file until the thread is interrupted
+     * @param file File to watch
+     * @param settleMillis How long the file has to stay the same before the callback runs
+     * @param onChange Called after each change
+     * @throws IOException If the directory can not be watched
+     * @throws InterruptedException When the thread is interrupted, which is the way to stop watching
+     */
+    public static void watch(Path file, long settleMillis, Runnable onChange) throws IOException, InterruptedException {
+        Path target = file.toAbsolutePath();
+        Path directory = target.getParent();
+
+        try (WatchService service = FileSystems.getDefault().newWatchService()) {
+            directory.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            String lastSeen = stamp(target);
+
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = service.take();
+                boolean touched = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW || target.getFileName().equals(event.context())) {
+                        touched = true;
+                    }
+                }
+                if (!key.reset()) {
+                    throw new IOException("Directory " + directory + " can no longer be watched");
+                }
+                if (!touched) {
+                    continue;
+                }
+
+                // Wait for the file to settle, soaking up the events of the same write
+                String current = stamp(target);
+                String previous;
+                do {
+                    previous = current;
+                    WatchKey more = service.poll(settleMillis, TimeUnit.MILLISECONDS);
+                    if (more != null) {
+                        more.pollEvents();
+                        more.reset();
+                    }
+                    current = stamp(target);
+                } while (!current.equals(previous));
+
+                if (!current.equals(lastSeen) && Files.exists(target)) {
+                    lastSeen = current;
+                    onChange.run();
+                }
+            }
+        }
+        throw new InterruptedException();
+    }
+
+    // Size and modified time, or empty if the file is missing (ie: part way through being replaced)
+    private static String stamp(Path file) {
+        try {
+            return Files.size(file) + "|" + Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return "";
+        }
+    }
+}
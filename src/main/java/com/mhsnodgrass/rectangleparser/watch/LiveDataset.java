@@ -0,0 +1,92 @@
+package com.mhsnodgrass.rectangleparser.watch;
+
+import com.mhsnodgrass.rectangleparser.index.LiveSpatialIndex;
+import com.mhsnodgrass.rectangleparser.model.RectangleDataset;
+import com.mhsnodgrass.rectangleparser.model.RectangleStore;
+import com.mhsnodgrass.rectangleparser.util.GeometryUtils;
+
+import java.util.stream.IntStream;
+
+/** A loaded file that is kept up to date as the file changes, by applying a {@link RectangleDiff} instead of starting over.
+ * <p>Only the Rectangles in the diff are touched, in the store (and its id index) and in the {@link LiveSpatialIndex}</p>
+ * <p>Removing a Rectangle moves the last slot into its place, so slots stop following the order of the file once something is removed</p>
+ * @author Matthew Snodgrass
+ */
+public class LiveDataset {
+    private final RectangleStore store;
+    private final LiveSpatialIndex index;
+
+    /**
+     * Takes over a store and builds its spatial index
+     * @param store Rectangles from the first load of the file, changed in place from now on
+     */
+    public LiveDataset(RectangleStore store) {
+        this.store = store;
+        this.index = new LiveSpatialIndex(store);
+    }
+
+    // Getters
+    /**
+     * Gets the store, it is changed by every {@link #apply(RectangleDataset)}
+     * @return The live RectangleStore
+     */
+    public RectangleStore getStore() {
+        return store;
+    }
+
+    /**
+     * Gets the spatial index, kept in step with the store
+     * @return The live index
+     */
+    public LiveSpatialIndex getIndex() {
+        return index;
+    }
+
+    // Methods
+    /**
+     * Brings the store and index in line with a new load of the file
+     * @param fresh Rectangles from the new version of the file
+     * @return What changed
+     */
+    public RectangleDiff apply(RectangleDataset fresh) {
+        RectangleDiff diff = RectangleDiff.compute(store, fresh);
+
+        for (int id : diff.getRemoved()) {
+            store.remove(store.indexOf(id));
+            index.remove(id);
+        }
+        for (int id : diff.getAdded()) {
+            int freshSlot = fresh.indexOf(id);
+            store.add(id, fresh.getHeight(freshSlot), fresh.getWidth(freshSlot), fresh.getX(freshSlot), fresh.getY(freshSlot));
+            index.update(id);
+        }
+        for (int id : diff.getChanged()) {
+            int freshSlot = fresh.indexOf(id);
+            store.set(store.indexOf(id), fresh.getHeight(freshSlot), fresh.getWidth(freshSlot), fresh.getX(freshSlot), fresh.getY(freshSlot));
+            index.update(id);
+        }
+
+        return diff;
+    }
+
+    /**
+     * Finds every Rectangle that intersects a window, same rules as {@link com.mhsnodgrass.rectangleparser.RectangleParser#window}
+     * @param x Top left x coordinate of the window
+     * @param y Top left y coordinate of the window
+     * @param width Width of the window
+     * @param height Height of the window
+     * @return The ids of the Rectangles found, sorted
+     */
+    public int[] window(int x, int y, int width, int height) {
+        IntStream.Builder results = IntStream.builder();
+
+        index.search(x, y - height, x + width, y, id -> {
+            int slot = store.indexOf(id);
+            if (GeometryUtils.intersects(x, y, width, height, store.getX(slot), store.getY(slot), store.getWidth(slot), store.getHeight(slot))) {
+                results.add(id);
+            }
+        });
+
+        return results.build().sorted().toArray();
+    }
+}
@@ -0,0 +1,84 @@
+package com.mhsnodgrass.rectangleparser.watch;
+
+import com.mhsnodgrass.rectangleparser.model.RectangleDataset;
+
+import java.util.stream.IntStream;
+
+/** The ids that were added, removed, or changed between two loads of the same file.
+ * <p>Rectangles are matched by id, so both datasets have to follow the unique id rule used when parsing (the first Rectangle with an id is kept)</p>
+ * @author Matthew Snodgrass
+ */
+public class RectangleDiff {
+    private final int[] added;
+    private final int[] removed;
+    private final int[] changed;
+
+    private RectangleDiff(int[] added, int[] removed, int[] changed) {
+        this.added = added;
+        this.removed = removed;
+        this.changed = changed;
+    }
+
+    /**
+     * Compares two datasets by id, each id is one lookup in the other dataset
+     * @param current Rectangles that are loaded now
+     * @param fresh Rectangles from the new version of the file
+     * @return The differences, each list of ids is sorted
+     */
+    public static RectangleDiff compute(RectangleDataset current, RectangleDataset fresh) {
+        IntStream.Builder added = IntStream.builder();
+        IntStream.Builder removed = IntStream.builder();
+        IntStream.Builder changed = IntStream.builder();
+
+        for (int freshSlot = 0; freshSlot < fresh.size(); freshSlot++) {
+            int id = fresh.getId(freshSlot);
+            int slot = current.indexOf(id);
+            if (slot < 0) {
+                added.add(id);
+            } else if (current.getX(slot) != fresh.getX(freshSlot) || current.getY(slot) != fresh.getY(freshSlot)
+                    || current.getWidth(slot) != fresh.getWidth(freshSlot) || current.getHeight(slot) != fresh.getHeight(freshSlot)) {
+                changed.add(id);
+            }
+        }
+        for (int slot = 0; slot < current.size(); slot++) {
+            if (!fresh.containsId(current.getId(slot))) {
+                removed.add(current.getId(slot));
+            }
+        }
+
+        return new RectangleDiff(added.build().sorted().toArray(), removed.build().sorted().toArray(), changed.build().sorted().toArray());
+    }
+
+    // Getters
+    /**
+     * Gets the ids that are only in the new version
+     * @return Sorted ids
+     */
+    public int[] getAdded() {
+        return added;
+    }
+
+    /**
+     * Gets the ids that are no longer in the new version
+     * @return Sorted ids
+     */
+    public int[] getRemoved() {
+        return removed;
+    }
+
+    /**
+     * Gets the ids whose height, width, or position changed
+     * @return Sorted ids
+     */
+    public int[] getChanged() {
+        return changed;
+    }
+
+    /**
+     * Checks if anything changed
+     * @return Boolean value to represent if there are no differences
+     */
+    public boolean isEmpty() {
+        return added.length == 0 && removed.length == 0 && changed.length == 0;
+    }
+}
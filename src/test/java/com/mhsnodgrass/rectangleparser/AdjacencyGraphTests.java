@@ -0,0 +1,76 @@
+package com.mhsnodgrass.rectangleparser;
+
+import com.mhsnodgrass.rectangleparser.analysis.AdjacencyGraph;
+import com.mhsnodgrass.rectangleparser.model.Rectangle;
+import com.mhsnodgrass.rectangleparser.model.RectangleStore;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest
+public class AdjacencyGraphTests {
+    @Value("${rectangleparser.default.filename}")
+    private String filename;
+
+    @Autowired
+    private RectangleParser rectangleParser;
+
+    private RectangleStore testStore;
+
+    @BeforeAll
+    public void loadRectanglesFromFile() {
+        ClassLoader classLoader = getClass().getClassLoader();
+        testStore = rectangleParser.getRectangleStoreFromFile(new File(classLoader.getResource(filename).getFile()).getPath());
+    }
+
+    @Test
+    public void testAdjacencyGraphFromFile() {
+        assertThat(edges(testStore)).isNotEmpty().isEqualTo(bruteForceEdges(testStore));
+    }
+
+    @Test
+    public void testAdjacencyGraphRandom() {
+        // Small coordinates so there are plenty of shared sides, shared corners, and zero size Rectangles
+        Random random = new Random(16);
+        RectangleStore store = new RectangleStore();
+        for (int id = 0; id < 400; id++) {
+            store.add(id, random.nextInt(6), random.nextInt(6), random.nextInt(40) - 20, random.nextInt(40) - 20);
+        }
+
+        assertThat(edges(store)).isEqualTo(bruteForceEdges(store));
+    }
+
+    // Helper Functions
+    private List<String> edges(RectangleStore store) {
+        AdjacencyGraph graph = rectangleParser.adjacencyGraph(store);
+        List<String> edges = new ArrayList<>();
+        for (int edge = 0; edge < graph.size(); edge++) {
+            edges.add(graph.getSlotOne(edge) + " " + graph.getSlotTwo(edge) + " " + graph.getAdjacency(edge));
+        }
+        return edges;
+    }
+
+    private List<String> bruteForceEdges(RectangleStore store) {
+        List<String> edges = new ArrayList<>();
+        for (int one = 0; one < store.size(); one++) {
+            for (int two = one + 1; two < store.size(); two++) {
+                Rectangle.Adjacency adjacency = store.getRectangle(one).isAdjacent(store.getRectangle(two));
+                if (adjacency != Rectangle.Adjacency.NONE) {
+                    edges.add(one + " " + two + " " + adjacency);
+                }
+            }
+        }
+        return edges;
+    }
+}
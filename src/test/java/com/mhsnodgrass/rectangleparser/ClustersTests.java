@@ -0,0 +1,99 @@
+package com.mhsnodgrass.rectangleparser;
+
+import com.mhsnodgrass.rectangleparser.analysis.Clusters;
+import com.mhsnodgrass.rectangleparser.model.Rectangle;
+import com.mhsnodgrass.rectangleparser.model.RectangleStore;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest
+public class ClustersTests {
+    @Value("${rectangleparser.default.filename}")
+    private String filename;
+
+    @Autowired
+    private RectangleParser rectangleParser;
+
+    private RectangleStore testStore;
+
+    @BeforeAll
+    public void loadRectanglesFromFile() {
+        ClassLoader classLoader = getClass().getClassLoader();
+        testStore = rectangleParser.getRectangleStoreFromFile(new File(classLoader.getResource(filename).getFile()).getPath());
+    }
+
+    @Test
+    public void testChainOfRectangles() {
+        // 0 and 1 share an edge, 1 and 2 overlap, 3 only touches 2 at a corner, 4 is on its own
+        RectangleStore store = new RectangleStore();
+        store.add(1, 10, 10, 0, 0);
+        store.add(2, 10, 10, 10, 0);
+        store.add(3, 10, 10, 15, -5);
+        store.add(4, 5, 5, 25, -15);
+        store.add(5, 5, 5, 100, 100);
+
+        Clusters clusters = rectangleParser.clusters(store);
+        assertThat(clusters.getClusterCount()).isEqualTo(2);
+        assertThat(new int[] {clusters.getCluster(0), clusters.getCluster(1), clusters.getCluster(2), clusters.getCluster(3), clusters.getCluster(4)})
+                .containsExactly(0, 0, 0, 0, 1);
+        assertThat(clusters.getSize(0)).isEqualTo(4);
+        assertThat(clusters.getSize(1)).isEqualTo(1);
+        assertThat(clusters.getLargestSize()).isEqualTo(4);
+    }
+
+    @Test
+    public void testMatchesBruteForce() {
+        checkAgainstBruteForce(testStore);
+
+        Random random = new Random(17);
+        RectangleStore store = new RectangleStore();
+        for (int id = 0; id < 600; id++) {
+            store.add(id, random.nextInt(5), random.nextInt(5), random.nextInt(80) - 40, random.nextInt(80) - 40);
+        }
+        checkAgainstBruteForce(store);
+    }
+
+    // Helper Functions
+    // Labels each Rectangle by flooding over every pair that intersects or is adjacent, in slot order
+    private void checkAgainstBruteForce(RectangleStore store) {
+        int[] expected = new int[store.size()];
+        Arrays.fill(expected, -1);
+        int clusterCount = 0;
+        for (int start = 0; start < store.size(); start++) {
+            if (expected[start] >= 0) {
+                continue;
+            }
+            int[] stack = new int[store.size()];
+            int top = 0;
+            stack[top++] = start;
+            expected[start] = clusterCount;
+            while (top > 0) {
+                int slot = stack[--top];
+                for (int other = 0; other < store.size(); other++) {
+                    if (expected[other] < 0 && (store.intersects(slot, other) || store.adjacency(slot, other) != Rectangle.Adjacency.NONE)) {
+                        expected[other] = clusterCount;
+                        stack[top++] = other;
+                    }
+                }
+            }
+            clusterCount++;
+        }
+
+        Clusters clusters = rectangleParser.clusters(store);
+        assertThat(clusters.getClusterCount()).isEqualTo(clusterCount);
+        for (int slot = 0; slot < store.size(); slot++) {
+            assertThat(clusters.getCluster(slot)).isEqualTo(expected[slot]);
+        }
+    }
+}
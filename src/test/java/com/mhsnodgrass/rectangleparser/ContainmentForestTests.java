@@ -0,0 +1,104 @@
+package com.mhsnodgrass.rectangleparser;
+
+import com.mhsnodgrass.rectangleparser.analysis.ContainmentForest;
+import com.mhsnodgrass.rectangleparser.model.RectangleStore;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.File;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest
+public class ContainmentForestTests {
+    @Value("${rectangleparser.default.filename}")
+    private String filename;
+
+    @Autowired
+    private RectangleParser rectangleParser;
+
+    private RectangleStore testStore;
+
+    @BeforeAll
+    public void loadRectanglesFromFile() {
+        ClassLoader classLoader = getClass().getClassLoader();
+        testStore = rectangleParser.getRectangleStoreFromFile(new File(classLoader.getResource(filename).getFile()).getPath());
+    }
+
+    @Test
+    public void testNestedRectangles() {
+        // 0 holds 1 and 3, 1 holds 2, 4 shares an edge with 0 so it is not contained
+        RectangleStore store = new RectangleStore();
+        store.add(10, 100, 100, 0, 0);
+        store.add(11, 50, 50, 10, -10);
+        store.add(12, 10, 10, 20, -20);
+        store.add(13, 10, 10, 80, -80);
+        store.add(14, 10, 10, 0, -5);
+
+        ContainmentForest forest = rectangleParser.nesting(store);
+        assertThat(new int[] {forest.getParent(0), forest.getParent(1), forest.getParent(2), forest.getParent(3), forest.getParent(4)})
+                .containsExactly(-1, 0, 1, 0, -1);
+        assertThat(new int[] {forest.getDepth(0), forest.getDepth(1), forest.getDepth(2), forest.getDepth(3), forest.getDepth(4)})
+                .containsExactly(0, 1, 2, 1, 0);
+        assertThat(forest.getRootCount()).isEqualTo(2);
+        assertThat(forest.getMaxDepth()).isEqualTo(2);
+    }
+
+    @Test
+    public void testMatchesBruteForce() {
+        checkAgainstBruteForce(testStore);
+
+        // Small coordinates so there are plenty of shared edges, crossing containers, and equal left edges
+        Random random = new Random(15);
+        RectangleStore store = new RectangleStore();
+        for (int id = 0; id < 500; id++) {
+            store.add(id, random.nextInt(30), random.nextInt(30), random.nextInt(60) - 30, random.nextInt(60) - 30);
+        }
+        checkAgainstBruteForce(store);
+    }
+
+    @Test
+    public void testDeepNesting() {
+        // Each Rectangle holds the next one, so about n^2 / 2 pairs overlap and the sweep must not visit them
+        int count = 200000;
+        RectangleStore store = new RectangleStore(count);
+        for (int id = 0; id < count; id++) {
+            store.add(id, (count - id) * 4, (count - id) * 4, id * 2, -id * 2);
+        }
+
+        ContainmentForest forest = rectangleParser.nesting(store);
+        for (int slot = 0; slot < count; slot++) {
+            assertThat(forest.getParent(slot)).isEqualTo(slot - 1);
+        }
+        assertThat(forest.getDepth(count - 1)).isEqualTo(count - 1);
+        assertThat(forest.getRootCount()).isEqualTo(1);
+        assertThat(forest.getMaxDepth()).isEqualTo(count - 1);
+    }
+
+    // Helper Functions
+    private void checkAgainstBruteForce(RectangleStore store) {
+        ContainmentForest forest = rectangleParser.nesting(store);
+
+        for (int child = 0; child < store.size(); child++) {
+            int expected = -1;
+            for (int container = 0; container < store.size(); container++) {
+                if (store.contains(container, child) && (expected < 0 || store.getX(container) > store.getX(expected))) {
+                    expected = container;
+                }
+            }
+            assertThat(forest.getParent(child)).isEqualTo(expected);
+
+            int depth = 0;
+            for (int parent = expected; parent >= 0; parent = forest.getParent(parent)) {
+                depth++;
+            }
+            assertThat(forest.getDepth(child)).isEqualTo(depth);
+        }
+    }
+}
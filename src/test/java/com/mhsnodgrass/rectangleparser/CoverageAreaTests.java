@@ -0,0 +1,97 @@
+package com.mhsnodgrass.rectangleparser;
+
+import com.mhsnodgrass.rectangleparser.analysis.CoverageArea;
+import com.mhsnodgrass.rectangleparser.model.RectangleStore;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.File;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest
+public class CoverageAreaTests {
+    @Value("${rectangleparser.default.filename}")
+    private String filename;
+
+    @Autowired
+    private RectangleParser rectangleParser;
+
+    private RectangleStore testStore;
+
+    @BeforeAll
+    public void loadRectanglesFromFile() {
+        ClassLoader classLoader = getClass().getClassLoader();
+        testStore = rectangleParser.getRectangleStoreFromFile(new File(classLoader.getResource(filename).getFile()).getPath());
+    }
+
+    @Test
+    public void testOverlappingRectangles() {
+        // Two 10 x 10 squares overlapping in a 5 x 5 corner, a third covering the overlap again, and a line with no area
+        RectangleStore store = new RectangleStore();
+        store.add(1, 10, 10, 0, 0);
+        store.add(2, 10, 10, 5, -5);
+        store.add(3, 5, 5, 5, -5);
+        store.add(4, 0, 50, -20, 0);
+
+        CoverageArea coverage = rectangleParser.coverage(store);
+        assertThat(coverage.getUnionArea()).isEqualTo(175);
+        assertThat(coverage.getOverlapArea()).isEqualTo(25);
+        assertThat(rectangleParser.coverage(new RectangleStore()).getUnionArea()).isEqualTo(0);
+    }
+
+    @Test
+    public void testMatchesGridCount() {
+        checkAgainstGrid(testStore);
+
+        Random random = new Random(18);
+        RectangleStore store = new RectangleStore();
+        for (int id = 0; id < 300; id++) {
+            store.add(id, random.nextInt(15), random.nextInt(15), random.nextInt(60) - 30, random.nextInt(60) - 30);
+        }
+        checkAgainstGrid(store);
+    }
+
+    // Helper Functions
+    // Counts how many Rectangles cover each unit square
+    private void checkAgainstGrid(RectangleStore store) {
+        int minX = Integer.MAX_VALUE;
+        int minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int maxY = Integer.MIN_VALUE;
+        for (int slot = 0; slot < store.size(); slot++) {
+            minX = Math.min(minX, store.getX(slot));
+            maxX = Math.max(maxX, store.getX(slot) + store.getWidth(slot));
+            minY = Math.min(minY, store.getY(slot) - store.getHeight(slot));
+            maxY = Math.max(maxY, store.getY(slot));
+        }
+
+        int[][] grid = new int[maxX - minX][maxY - minY];
+        for (int slot = 0; slot < store.size(); slot++) {
+            for (int x = store.getX(slot); x < store.getX(slot) + store.getWidth(slot); x++) {
+                for (int y = store.getY(slot) - store.getHeight(slot); y < store.getY(slot); y++) {
+                    grid[x - minX][y - minY]++;
+                }
+            }
+        }
+
+        long union = 0;
+        long overlap = 0;
+        for (int[] column : grid) {
+            for (int cover : column) {
+                union += cover >= 1 ? 1 : 0;
+                overlap += cover >= 2 ? 1 : 0;
+            }
+        }
+
+        CoverageArea coverage = rectangleParser.coverage(store);
+        assertThat(coverage.getUnionArea()).isEqualTo(union);
+        assertThat(coverage.getOverlapArea()).isEqualTo(overlap);
+    }
+}
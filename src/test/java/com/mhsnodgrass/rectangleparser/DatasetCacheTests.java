@@ -0,0 +1,130 @@
+package com.mhsnodgrass.rectangleparser;
+
+import com.mhsnodgrass.rectangleparser.model.MappedRectangleStore;
+import com.mhsnodgrass.rectangleparser.model.RectangleDataset;
+import com.mhsnodgrass.rectangleparser.model.RectangleStore;
+import com.mhsnodgrass.rectangleparser.util.DatasetCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "rectangleparser.cache.max-bytes=2000",
+        "rectangleparser.cache.snapshot-dir=target/dataset-cache-test"})
+public class DatasetCacheTests {
+    private static final String SNAPSHOT_DIR = "target/dataset-cache-test";
+
+    @Autowired
+    private DatasetCache datasetCache;
+
+    @Autowired
+    private RectangleParser rectangleParser;
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final Function<File, RectangleDataset> loader = file -> {
+        loads.incrementAndGet();
+        return rectangleParser.getRectangleStoreFromFile(file.getPath());
+    };
+
+    @BeforeEach
+    public void clearCache() {
+        datasetCache.clear();
+        FileSystemUtils.deleteRecursively(new File(SNAPSHOT_DIR));
+        loads.set(0);
+    }
+
+    @Test
+    public void testMemoryHitAndChangedFile(@TempDir File tempDir) throws IOException {
+        File xmlFile = copyTestFile(tempDir, "one.xml");
+
+        RectangleDataset first = datasetCache.get(xmlFile, loader);
+        assertThat(first).isInstanceOf(RectangleStore.class);
+        assertThat(datasetCache.get(xmlFile, loader)).isSameAs(first);
+        assertThat(loads.get()).isEqualTo(1);
+
+        // A new modified time is a new file as far as the cache is concerned
+        Files.setLastModifiedTime(xmlFile.toPath(), FileTime.fromMillis(xmlFile.lastModified() + 5000));
+        assertThat(datasetCache.get(xmlFile, loader)).isNotSameAs(first);
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void testSnapshot(@TempDir File tempDir) throws IOException {
+        File xmlFile = copyTestFile(tempDir, "two.xml");
+        RectangleDataset parsed = datasetCache.get(xmlFile, loader);
+
+        // Dropping memory is like starting a new process, the snapshot is mapped in place of parsing again
+        datasetCache.clear();
+        RectangleDataset snapshot = datasetCache.get(xmlFile, loader);
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(snapshot).isInstanceOf(MappedRectangleStore.class);
+        assertThat(snapshot.size()).isEqualTo(parsed.size());
+        for (int slot = 0; slot < parsed.size(); slot++) {
+            assertThat(snapshot.getId(slot)).isEqualTo(parsed.getId(slot));
+            assertThat(snapshot.getX(slot)).isEqualTo(parsed.getX(slot));
+            assertThat(snapshot.getY(slot)).isEqualTo(parsed.getY(slot));
+        }
+
+        // Only the snapshot of the newest version of a file is kept
+        Files.setLastModifiedTime(xmlFile.toPath(), FileTime.fromMillis(xmlFile.lastModified() + 5000));
+        datasetCache.get(xmlFile, loader);
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(new File(SNAPSHOT_DIR).list()).hasSize(1);
+    }
+
+    @Test
+    public void testEviction(@TempDir File tempDir) throws IOException {
+        // Each parsed test file is about 840 bytes against a 2000 byte budget, so the third one pushes out the least recently used
+        File one = copyTestFile(tempDir, "one.xml");
+        File two = copyTestFile(tempDir, "two.xml");
+        File three = copyTestFile(tempDir, "three.xml");
+
+        RectangleDataset first = datasetCache.get(one, loader);
+        RectangleDataset second = datasetCache.get(two, loader);
+        assertThat(datasetCache.get(one, loader)).isSameAs(first);
+        datasetCache.get(three, loader);
+
+        assertThat(datasetCache.getUsedBytes()).isLessThanOrEqualTo(2000);
+        assertThat(datasetCache.get(one, loader)).isSameAs(first);
+        assertThat(datasetCache.get(two, loader)).isNotSameAs(second);
+    }
+
+    @Test
+    public void testFailedLoadIsNotCached(@TempDir File tempDir) throws IOException {
+        // Cut off part way through, the parse stops with an error and only part of the file (here nothing) is loaded
+        File xmlFile = new File(tempDir, "broken.xml");
+        byte[] content = Files.readAllBytes(Paths.get("src/test/resources/testRectangles.xml"));
+        Files.write(xmlFile.toPath(), Arrays.copyOf(content, content.length / 2));
+
+        RectangleDataset first = datasetCache.get(xmlFile, loader);
+        assertThat(first.isComplete()).isFalse();
+        assertThat(datasetCache.getUsedBytes()).isZero();
+        assertThat(new File(SNAPSHOT_DIR).list()).isNullOrEmpty();
+
+        // Tried again on the next load, not served from memory or a snapshot
+        assertThat(datasetCache.get(xmlFile, loader)).isNotSameAs(first);
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    // Helper Functions
+    private File copyTestFile(File tempDir, String name) throws IOException {
+        File copy = new File(tempDir, name);
+        Files.copy(Paths.get("src/test/resources/testRectangles.xml"), copy.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        return copy;
+    }
+}
@@ -0,0 +1,172 @@
+package com.mhsnodgrass.rectangleparser;
+
+import com.mhsnodgrass.rectangleparser.model.Rectangle;
+import com.mhsnodgrass.rectangleparser.util.GeometryUtils;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+public class GeometryUtilsTests {
+    @Test
+    public void testLargeRectanglesIntersect() {
+        Rectangle rect1 = new Rectangle(1, 100000, 100000, 0, 0);
+        Rectangle rect2 = new Rectangle(2, 100000, 100000, 50000, 50000);
+
+        List<Pair<Integer, Integer>> result = rect1.getIntersect(rect2);
+        assertThat(result).containsExactly(new ImmutablePair<>(50000, 0), new ImmutablePair<>(100000, -50000));
+        assertThat(rect1.isAdjacent(rect2)).isEqualTo(Rectangle.Adjacency.NONE);
+    }
+
+    @Test
+    public void testLargeIdsPerfectOverlap() {
+        Rectangle rect1 = new Rectangle(1000, 500, 500, 200, 200);
+        Rectangle rect2 = new Rectangle(1001, 500, 500, 200, 200);
+
+        assertThat(rect1.doesRectanglesOverlap(rect2)).isTrue();
+        assertThat(rect1.isAdjacent(rect2)).isEqualTo(Rectangle.Adjacency.NONE);
+        assertThat(rect1.getIntersect(rect2)).isNull();
+    }
+
+    @Test
+    public void testMatchesPerimeterPoints() {
+        // Compare against the point by point checks on small Rectangles, including zero width and height
+        Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            Rectangle rect1 = new Rectangle(1, random.nextInt(4), random.nextInt(4), random.nextInt(6), random.nextInt(6));
+            Rectangle rect2 = new Rectangle(2, random.nextInt(4), random.nextInt(4), random.nextInt(6), random.nextInt(6));
+
+            assertThat(rect1.isAdjacent(rect2)).as(rect1 + " / " + rect2).isEqualTo(referenceAdjacency(rect1, rect2));
+            assertThat(rect1.getIntersect(rect2)).as(rect1 + " / " + rect2).isEqualTo(referenceIntersect(rect1, rect2));
+        }
+    }
+
+    @Test
+    public void testDistance() {
+        Rectangle rect1 = new Rectangle(1, 10, 10, 0, 10);
+        // Touching and overlapping are 0 apart
+        assertThat(rect1.getDistance(new Rectangle(2, 10, 10, 10, 10))).isZero();
+        assertThat(rect1.getDistance(new Rectangle(3, 4, 4, 3, 7))).isZero();
+        // Straight across, then corner to corner (3, 4, 5)
+        assertThat(rect1.getDistance(new Rectangle(4, 10, 10, 15, 10))).isEqualTo(5.0);
+        assertThat(rect1.getDistance(new Rectangle(5, 2, 2, 13, -4))).isEqualTo(5.0);
+        assertThat(new Rectangle(5, 2, 2, 13, -4).getDistance(rect1)).isEqualTo(5.0);
+        // Far apart values do not overflow
+        assertThat(new Rectangle(6, 0, 0, Integer.MIN_VALUE, 0).getDistance(new Rectangle(7, 0, 0, Integer.MAX_VALUE, 0)))
+                .isEqualTo((double) Integer.MAX_VALUE - Integer.MIN_VALUE);
+    }
+
+    @Test
+    public void testIntersectRegion() {
+        Rectangle rect1 = new Rectangle(1, 100000, 100000, 0, 0);
+        Rectangle rect2 = new Rectangle(2, 100000, 100000, 50000, 50000);
+
+        Rectangle region = rect1.getIntersectRegion(rect2);
+        assertThat(region).isNotNull();
+        assertThat(region.getX()).isEqualTo(50000);
+        assertThat(region.getY()).isEqualTo(0);
+        assertThat(region.getWidth()).isEqualTo(50000);
+        assertThat(region.getHeight()).isEqualTo(50000);
+
+        assertThat(rect1.getIntersectRegion(new Rectangle(3, 10, 10, 200000, 0))).isNull();
+    }
+
+    @Test
+    public void testIntersectPointsMatchIntersect() {
+        Random random = new Random(7);
+        for (int i = 0; i < 20000; i++) {
+            Rectangle rect1 = new Rectangle(1, random.nextInt(4), random.nextInt(4), random.nextInt(6), random.nextInt(6));
+            Rectangle rect2 = new Rectangle(2, random.nextInt(4), random.nextInt(4), random.nextInt(6), random.nextInt(6));
+
+            List<Pair<Integer, Integer>> expected = rect1.getIntersect(rect2);
+            if (expected == null) {
+                continue;
+            }
+            List<Pair<Integer, Integer>> points = new ArrayList<>();
+            PrimitiveIterator.OfLong iterator = rect1.getIntersectPoints(rect2);
+            while (iterator.hasNext()) {
+                long point = iterator.nextLong();
+                points.add(new ImmutablePair<>(GeometryUtils.unpackX(point), GeometryUtils.unpackY(point)));
+            }
+            assertThat(points).as(rect1 + " / " + rect2).isEqualTo(expected);
+            assertThat(rect1.getIntersectRegion(rect2) != null).as(rect1 + " / " + rect2).isEqualTo(rect1.doesIntersect(rect2));
+        }
+    }
+
+    // Helper Functions
+    // Point by point versions of the checks, every perimeter point is built and compared
+    private List<Pair<Integer, Integer>> referenceIntersect(Rectangle rect1, Rectangle rect2) {
+        List<Pair<Integer, Integer>> results = new ArrayList<>();
+        if (rect1.doesIntersect(rect2)) {
+            results = flatten(perimeter(rect1));
+            if (!results.retainAll(flatten(perimeter(rect2)))) {
+                results = null;
+            }
+        }
+        return results;
+    }
+
+    private Rectangle.Adjacency referenceAdjacency(Rectangle rect1, Rectangle rect2) {
+        List<List<Pair<Integer, Integer>>> first = perimeter(rect1);
+        List<List<Pair<Integer, Integer>>> second = perimeter(rect2);
+
+        if (rect1.doesRectanglesOverlap(rect2)) {
+            return Rectangle.Adjacency.NONE;
+        }
+        for (List<Pair<Integer, Integer>> a : first) {
+            for (List<Pair<Integer, Integer>> b : second) {
+                if (a.containsAll(b) || b.containsAll(a)) {
+                    return a.size() == b.size() ? Rectangle.Adjacency.PROPER : Rectangle.Adjacency.SUBLINE;
+                }
+            }
+        }
+        if (!rect1.doesIntersect(rect2)) {
+            for (List<Pair<Integer, Integer>> a : first) {
+                for (List<Pair<Integer, Integer>> b : second) {
+                    if (a.stream().anyMatch(b::contains)) {
+                        return Rectangle.Adjacency.PARTIAL;
+                    }
+                }
+            }
+        }
+        return Rectangle.Adjacency.NONE;
+    }
+
+    private List<List<Pair<Integer, Integer>>> perimeter(Rectangle rect) {
+        int left = rect.getX();
+        int right = rect.getX() + rect.getWidth();
+        int top = rect.getY();
+        int bottom = rect.getY() - rect.getHeight();
+
+        List<List<Pair<Integer, Integer>>> sides = new ArrayList<>();
+        sides.add(line(left, right, top, top));
+        sides.add(line(right, right, bottom, top));
+        sides.add(line(left, right, bottom, bottom));
+        sides.add(line(left, left, bottom, top));
+        return sides;
+    }
+
+    private List<Pair<Integer, Integer>> line(int x1, int x2, int y1, int y2) {
+        List<Pair<Integer, Integer>> points = new ArrayList<>();
+        for (int x = x1; x <= x2; x++) {
+            for (int y = y1; y <= y2; y++) {
+                points.add(new ImmutablePair<>(x, y));
+            }
+        }
+        return points;
+    }
+
+    private List<Pair<Integer, Integer>> flatten(List<List<Pair<Integer, Integer>>> sides) {
+        List<Pair<Integer, Integer>> points = new ArrayList<>();
+        sides.forEach(points::addAll);
+        return points;
+    }
+}
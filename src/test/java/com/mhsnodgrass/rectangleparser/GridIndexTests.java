@@ -0,0 +1,159 @@
+package com.mhsnodgrass.rectangleparser;
+
+import com.mhsnodgrass.rectangleparser.analysis.PlaneSweep;
+import com.mhsnodgrass.rectangleparser.index.GridIndex;
+import com.mhsnodgrass.rectangleparser.index.RTree;
+import com.mhsnodgrass.rectangleparser.index.SpatialIndex;
+import com.mhsnodgrass.rectangleparser.model.RectangleStore;
+import com.mhsnodgrass.rectangleparser.util.GeometryUtils;
+import com.mhsnodgrass.rectangleparser.util.RectangleUtils;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(properties = {
+        "rectangleparser.index.type=grid"
+})
+public class GridIndexTests {
+    @Value("${rectangleparser.default.filename}")
+    private String filename;
+
+    @Autowired
+    private RectangleUtils rectangleUtils;
+
+    @Autowired
+    private RectangleParser rectangleParser;
+
+    private RectangleStore testStore;
+    private RectangleStore denseStore;
+
+    @BeforeAll
+    public void loadRectangles() {
+        ClassLoader classLoader = getClass().getClassLoader();
+        File xmlFile = new File(classLoader.getResource(filename).getFile());
+        testStore = rectangleUtils.parseXmlToRectangleStore(xmlFile);
+
+        // Small Rectangles of about the same size, plus a few large ones that span many cells
+        Random random = new Random(21);
+        denseStore = new RectangleStore();
+        for (int id = 0; id < 5000; id++) {
+            denseStore.add(id, random.nextInt(12), random.nextInt(12), random.nextInt(600) - 300, random.nextInt(600) - 300);
+        }
+        for (int id = 5000; id < 5010; id++) {
+            denseStore.add(id, random.nextInt(300), random.nextInt(300), random.nextInt(600) - 300, random.nextInt(600) - 300);
+        }
+    }
+
+    @Test
+    public void testWindowMatchesScan() {
+        SpatialIndex index = rectangleParser.buildSpatialIndex(denseStore);
+        assertThat(index).isInstanceOf(GridIndex.class);
+        assertThat(index.size()).isEqualTo(denseStore.size());
+
+        Random random = new Random(22);
+        for (int i = 0; i < 200; i++) {
+            int x = random.nextInt(800) - 400;
+            int y = random.nextInt(800) - 400;
+            int width = random.nextInt(60);
+            int height = random.nextInt(60);
+
+            int[] expected = IntStream.range(0, denseStore.size())
+                    .filter(slot -> GeometryUtils.intersects(x, y, width, height,
+                            denseStore.getX(slot), denseStore.getY(slot), denseStore.getWidth(slot), denseStore.getHeight(slot)))
+                    .toArray();
+            assertThat(rectangleParser.window(denseStore, index, x, y, width, height)).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    public void testPointMatchesScan() {
+        SpatialIndex index = rectangleParser.buildSpatialIndex(denseStore);
+
+        Random random = new Random(23);
+        for (int i = 0; i < 200; i++) {
+            int x = random.nextInt(800) - 400;
+            int y = random.nextInt(800) - 400;
+
+            int[] expected = IntStream.range(0, denseStore.size())
+                    .filter(slot -> denseStore.getX(slot) <= x && x <= denseStore.getX(slot) + denseStore.getWidth(slot)
+                            && denseStore.getY(slot) - denseStore.getHeight(slot) <= y && y <= denseStore.getY(slot))
+                    .toArray();
+            assertThat(rectangleParser.containingPoint(index, x, y)).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    public void testRelationsMatchRTree() {
+        for (RectangleStore store : new RectangleStore[] {testStore, denseStore}) {
+            SpatialIndex grid = rectangleParser.buildSpatialIndex(store);
+            RTree rTree = RTree.build(store);
+
+            for (int slot = 0; slot < Math.min(store.size(), 300); slot++) {
+                assertThat(rectangleParser.intersecting(store, grid, slot)).isEqualTo(rectangleParser.intersecting(store, rTree, slot));
+                assertThat(rectangleParser.containedBy(store, grid, slot)).isEqualTo(rectangleParser.containedBy(store, rTree, slot));
+                assertThat(rectangleParser.adjacentTo(store, grid, slot)).isEqualTo(rectangleParser.adjacentTo(store, rTree, slot));
+            }
+        }
+    }
+
+    @Test
+    public void testPairJoinMatchesSweep() {
+        for (RectangleStore store : new RectangleStore[] {testStore, denseStore}) {
+            Set<Long> expected = new HashSet<>();
+            PlaneSweep.forEachIntersectingPair(store, (a, b) -> expected.add(pack(a, b)));
+
+            // Pairs that share several cells must still be reported once
+            Set<Long> actual = new HashSet<>();
+            long count = rectangleParser.intersectAll(store, (a, b) -> {
+                assertThat(a).isLessThan(b);
+                assertThat(actual.add(pack(a, b))).isTrue();
+            });
+            assertThat(actual).isEqualTo(expected);
+            assertThat(count).isEqualTo(expected.size());
+
+            Set<Long> expectedTouching = new HashSet<>();
+            PlaneSweep.forEachTouchingPair(store, (a, b) -> expectedTouching.add(pack(a, b)));
+            Set<Long> actualTouching = new HashSet<>();
+            GridIndex.build(store).forEachTouchingPair((a, b) -> assertThat(actualTouching.add(pack(a, b))).isTrue());
+            assertThat(actualTouching).isEqualTo(expectedTouching);
+        }
+    }
+
+    @Test
+    public void testCellSize() {
+        GridIndex dense = GridIndex.build(denseStore);
+        assertThat(dense.getCellWidth()).isBetween(2L, 24L);
+        assertThat(dense.getCellCount()).isLessThanOrEqualTo(denseStore.size() * 2);
+
+        // Far apart Rectangles would leave most cells empty, the cells grow instead
+        RectangleStore sparse = new RectangleStore();
+        sparse.add(1, 1, 1, -1000000, 1000000);
+        sparse.add(2, 1, 1, 1000000, -1000000);
+        sparse.add(3, 1, 1, 0, 0);
+        GridIndex grid = GridIndex.build(sparse);
+        assertThat(grid.getCellCount()).isLessThanOrEqualTo(6);
+        assertThat(rectangleParser.containingPoint(grid, 1000001, -1000001)).containsExactly(1);
+        assertThat(rectangleParser.containingPoint(grid, 5, 5)).isEmpty();
+
+        GridIndex empty = GridIndex.build(new RectangleStore());
+        assertThat(empty.size()).isZero();
+        assertThat(rectangleParser.containingPoint(empty, 0, 0)).isEmpty();
+    }
+
+    // Helper Functions
+    private long pack(int a, int b) {
+        return ((long) a << 32) | b;
+    }
+}
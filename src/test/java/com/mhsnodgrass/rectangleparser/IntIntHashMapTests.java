@@ -0,0 +1,54 @@
+package com.mhsnodgrass.rectangleparser;
+
+import com.mhsnodgrass.rectangleparser.util.IntIntHashMap;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+public class IntIntHashMapTests {
+    @Test
+    public void testPutAndGet() {
+        IntIntHashMap map = new IntIntHashMap();
+        map.put(1000, 0);
+        map.put(-5, 1);
+        map.put(0, 2);
+
+        assertThat(map.size()).isEqualTo(3);
+        assertThat(map.get(1000)).isEqualTo(0);
+        assertThat(map.get(-5)).isEqualTo(1);
+        assertThat(map.get(0)).isEqualTo(2);
+        assertThat(map.get(7)).isEqualTo(IntIntHashMap.NO_VALUE);
+        assertThat(map.put(1000, 5)).isEqualTo(0);
+        assertThat(map.get(1000)).isEqualTo(5);
+    }
+
+    @Test
+    public void testMatchesHashMap() {
+        // Random puts and removes, checked against a regular HashMap
+        IntIntHashMap map = new IntIntHashMap();
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(7);
+
+        for (int i = 0; i < 50000; i++) {
+            int key = random.nextInt(2000) - 1000;
+            if (random.nextInt(3) == 0) {
+                Integer old = expected.remove(key);
+                assertThat(map.remove(key)).isEqualTo(old == null ? IntIntHashMap.NO_VALUE : old);
+            } else {
+                Integer old = expected.put(key, i);
+                assertThat(map.put(key, i)).isEqualTo(old == null ? IntIntHashMap.NO_VALUE : old);
+            }
+        }
+
+        assertThat(map.size()).isEqualTo(expected.size());
+        for (int key = -1000; key < 1000; key++) {
+            assertThat(map.get(key)).isEqualTo(expected.getOrDefault(key, IntIntHashMap.NO_VALUE));
+        }
+    }
+}
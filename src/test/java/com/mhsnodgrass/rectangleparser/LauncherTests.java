@@ -0,0 +1,51 @@
+package com.mhsnodgrass.rectangleparser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// No Spring context, the launcher is meant to run without one
+public class LauncherTests {
+    @Test
+    public void testResolvePlaceholders() {
+        Properties properties = new Properties();
+        properties.setProperty("rectangleparser.default.filename", "rectangles.xml");
+        properties.setProperty("rectangleparser.server.datasets", "${rectangleparser.default.filename}");
+
+        assertThat(Launcher.resolve(properties, "${rectangleparser.server.datasets}")).isEqualTo("rectangles.xml");
+        assertThat(Launcher.resolve(properties, "${rectangleparser.batch.threads:0}")).isEqualTo("0");
+        assertThat(Launcher.resolve(properties, "${missing:${rectangleparser.default.filename}}")).isEqualTo("rectangles.xml");
+        assertThatThrownBy(() -> Launcher.resolve(properties, "${missing}")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testArgumentsOverrideProperties() {
+        Properties properties = Launcher.loadProperties(new String[] {"-i", "--rectangleparser.results.format=ndjson"});
+
+        assertThat(properties.getProperty("rectangleparser.default.filename")).isEqualTo("testRectangles.xml");
+        assertThat(properties.getProperty("rectangleparser.results.format")).isEqualTo("ndjson");
+    }
+
+    @Test
+    public void testRunsOptionsWithoutSpring(@TempDir Path tempDir) throws IOException {
+        File xmlFile = new File(getClass().getClassLoader().getResource("testRectangles.xml").getFile());
+        Path results = tempDir.resolve("results.txt");
+        Properties properties = Launcher.loadProperties(new String[0]);
+        properties.setProperty("rectangleparser.results.file", results.toString());
+
+        Launcher.run(properties, new String[] {"-c", xmlFile.getPath(), "1", "2"});
+
+        List<String> lines = Files.readAllLines(results, StandardCharsets.UTF_8);
+        assertThat(lines).contains("RECTANGLE #1", "RECTANGLE #2", "DOES RECTANGLE #1 CONTAIN RECTANGLE #2: No");
+    }
+}
@@ -0,0 +1,94 @@
+package com.mhsnodgrass.rectangleparser;
+
+import com.mhsnodgrass.rectangleparser.model.RectangleStore;
+import com.mhsnodgrass.rectangleparser.util.GeometryUtils;
+import com.mhsnodgrass.rectangleparser.watch.LiveDataset;
+import com.mhsnodgrass.rectangleparser.watch.RectangleDiff;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+public class LiveDatasetTests {
+
+    @Test
+    public void testDiff() {
+        RectangleStore current = new RectangleStore();
+        current.add(1, 5, 10, 0, 0);
+        current.add(2, 5, 10, 20, 0);
+        current.add(3, 5, 10, 40, 0);
+
+        RectangleStore fresh = new RectangleStore();
+        fresh.add(3, 5, 10, 40, 0);
+        fresh.add(1, 6, 10, 0, 0);
+        fresh.add(4, 1, 1, 0, 0);
+
+        RectangleDiff diff = RectangleDiff.compute(current, fresh);
+        assertThat(diff.getAdded()).containsExactly(4);
+        assertThat(diff.getRemoved()).containsExactly(2);
+        assertThat(diff.getChanged()).containsExactly(1);
+        assertThat(RectangleDiff.compute(fresh, fresh).isEmpty()).isTrue();
+    }
+
+    @Test
+    public void testApplyMatchesFreshLoad() {
+        // Enough rounds of edits for the index to run on its delta and to rebuild more than once
+        Random random = new Random(13);
+        RectangleStore fresh = randomStore(random, 3000, 0);
+        LiveDataset live = new LiveDataset(randomStore(new Random(13), 3000, 0));
+
+        for (int round = 1; round <= 12; round++) {
+            fresh = editStore(random, fresh, round);
+            live.apply(fresh);
+
+            assertThat(live.getStore().size()).isEqualTo(fresh.size());
+            assertThat(RectangleDiff.compute(live.getStore(), fresh).isEmpty()).isTrue();
+
+            for (int query = 0; query < 50; query++) {
+                int x = random.nextInt(2200) - 1100;
+                int y = random.nextInt(2200) - 1100;
+                int width = random.nextInt(300);
+                int height = random.nextInt(300);
+                assertThat(live.window(x, y, width, height)).containsExactly(bruteForceWindow(fresh, x, y, width, height));
+            }
+        }
+    }
+
+    // Helper Functions
+    private RectangleStore randomStore(Random random, int count, int firstId) {
+        RectangleStore store = new RectangleStore();
+        for (int i = 0; i < count; i++) {
+            store.add(firstId + i, random.nextInt(50), random.nextInt(50), random.nextInt(2000) - 1000, random.nextInt(2000) - 1000);
+        }
+        return store;
+    }
+
+    // Removes, moves, and adds a few hundred Rectangles, the order of the rest is shuffled the way a rewritten file would be
+    private RectangleStore editStore(Random random, RectangleStore store, int round) {
+        RectangleStore edited = new RectangleStore();
+        for (int slot = store.size() - 1; slot >= 0; slot--) {
+            int roll = random.nextInt(20);
+            if (roll == 0) {
+                continue;
+            }
+            int x = roll == 1 ? random.nextInt(2000) - 1000 : store.getX(slot);
+            edited.add(store.getId(slot), store.getHeight(slot), store.getWidth(slot), x, store.getY(slot));
+        }
+        for (int i = 0; i < 150; i++) {
+            edited.add(100000 * round + i, random.nextInt(50), random.nextInt(50), random.nextInt(2000) - 1000, random.nextInt(2000) - 1000);
+        }
+        return edited;
+    }
+
+    private int[] bruteForceWindow(RectangleStore store, int x, int y, int width, int height) {
+        return IntStream.range(0, store.size())
+                .filter(slot -> GeometryUtils.intersects(x, y, width, height, store.getX(slot), store.getY(slot), store.getWidth(slot), store.getHeight(slot)))
+                .map(store::getId)
+                .sorted()
+                .toArray();
+    }
+}
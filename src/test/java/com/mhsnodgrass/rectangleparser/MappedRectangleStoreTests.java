@@ -0,0 +1,116 @@
+package com.mhsnodgrass.rectangleparser;
+
+import com.mhsnodgrass.rectangleparser.model.MappedRectangleStore;
+import com.mhsnodgrass.rectangleparser.model.RectangleDataset;
+import com.mhsnodgrass.rectangleparser.model.RectangleStore;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest
+public class MappedRectangleStoreTests {
+    @Value("${rectangleparser.default.filename}")
+    private String filename;
+
+    @Autowired
+    private RectangleParser rectangleParser;
+
+    private String xmlFilename;
+    private RectangleStore testStore;
+
+    @BeforeAll
+    public void loadRectanglesFromFile() {
+        ClassLoader classLoader = getClass().getClassLoader();
+        xmlFilename = new File(classLoader.getResource(filename).getFile()).getPath();
+        testStore = rectangleParser.getRectangleStoreFromFile(xmlFilename);
+    }
+
+    @Test
+    public void testConvertAndOpen(@TempDir File tempDir) {
+        // The binary file has to load the same Rectangles, in the same slots, as the XML file
+        String binaryFilename = new File(tempDir, "testRectangles.rbin").getPath();
+        assertThat(rectangleParser.convertToBinary(xmlFilename, binaryFilename)).isEqualTo(testStore.size());
+
+        RectangleDataset mapped = rectangleParser.getRectangleDatasetFromFile(binaryFilename);
+        assertThat(mapped).isInstanceOf(MappedRectangleStore.class);
+        assertSameRectangles(mapped, testStore);
+        assertThat(mapped.asList()).hasSize(testStore.size());
+    }
+
+    @Test
+    public void testIdLookup(@TempDir File tempDir) throws IOException {
+        // Random ids, including negatives and the int limits, have to be found by binary search
+        Random random = new Random(3);
+        RectangleStore store = new RectangleStore();
+        store.add(Integer.MIN_VALUE, 1, 1, 0, 0);
+        store.add(Integer.MAX_VALUE, 1, 1, 0, 0);
+        while (store.size() < 5000) {
+            int id = random.nextInt();
+            if (!store.containsId(id)) {
+                store.add(id, random.nextInt(100), random.nextInt(100), random.nextInt(), random.nextInt());
+            }
+        }
+
+        File binaryFile = new File(tempDir, "random.rbin");
+        MappedRectangleStore.write(store, binaryFile);
+        MappedRectangleStore mapped = MappedRectangleStore.open(binaryFile);
+        assertSameRectangles(mapped, store);
+
+        for (int slot = 0; slot < store.size(); slot++) {
+            assertThat(mapped.indexOf(store.getId(slot))).isEqualTo(slot);
+        }
+        for (int i = 0; i < 1000; i++) {
+            int id = random.nextInt();
+            assertThat(mapped.indexOf(id)).isEqualTo(store.indexOf(id));
+        }
+    }
+
+    @Test
+    public void testEmptyAndBadFiles(@TempDir File tempDir) throws IOException {
+        File emptyFile = new File(tempDir, "empty.rbin");
+        MappedRectangleStore.write(new RectangleStore(), emptyFile);
+        MappedRectangleStore empty = MappedRectangleStore.open(emptyFile);
+        assertThat(empty.size()).isEqualTo(0);
+        assertThat(empty.indexOf(1)).isEqualTo(-1);
+
+        // Not a binary file at all
+        File xmlFile = new File(tempDir, "wrong.rbin");
+        Files.copy(new File(xmlFilename).toPath(), xmlFile.toPath());
+        assertThatThrownBy(() -> MappedRectangleStore.open(xmlFile)).isInstanceOf(IOException.class);
+        assertThat(rectangleParser.getRectangleDatasetFromFile(xmlFile.getPath()).size()).isEqualTo(0);
+
+        // Cut short
+        File fullFile = new File(tempDir, "full.rbin");
+        MappedRectangleStore.write(testStore, fullFile);
+        byte[] bytes = Files.readAllBytes(fullFile.toPath());
+        File shortFile = new File(tempDir, "short.rbin");
+        Files.write(shortFile.toPath(), Arrays.copyOf(bytes, bytes.length - 4));
+        assertThatThrownBy(() -> MappedRectangleStore.open(shortFile)).isInstanceOf(IOException.class);
+    }
+
+    // Helper Functions
+    private void assertSameRectangles(RectangleDataset actual, RectangleDataset expected) {
+        assertThat(actual.size()).isEqualTo(expected.size());
+        for (int slot = 0; slot < expected.size(); slot++) {
+            assertThat(actual.getId(slot)).isEqualTo(expected.getId(slot));
+            assertThat(actual.getHeight(slot)).isEqualTo(expected.getHeight(slot));
+            assertThat(actual.getWidth(slot)).isEqualTo(expected.getWidth(slot));
+            assertThat(actual.getX(slot)).isEqualTo(expected.getX(slot));
+            assertThat(actual.getY(slot)).isEqualTo(expected.getY(slot));
+        }
+    }
+}
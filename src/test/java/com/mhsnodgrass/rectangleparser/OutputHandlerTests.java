@@ -0,0 +1,106 @@
+package com.mhsnodgrass.rectangleparser;
+
+import com.mhsnodgrass.rectangleparser.model.Rectangle;
+import com.mhsnodgrass.rectangleparser.model.RectangleStore;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest
+public class OutputHandlerTests {
+    @Value("${rectangleparser.default.filename}")
+    private String filename;
+
+    @Autowired
+    private RectangleParser rectangleParser;
+
+    @Autowired
+    private OutputHandler outputHandler;
+
+    private RectangleStore testStore;
+    private ExecutorService pool;
+
+    @BeforeAll
+    public void loadRectanglesFromFile() {
+        ClassLoader classLoader = getClass().getClassLoader();
+        testStore = rectangleParser.getRectangleStoreFromFile(new File(classLoader.getResource(filename).getFile()).getPath());
+        pool = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterAll
+    public void stopPool() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void testBatchMatchesPairChecks() {
+        // Every pair, checked on 4 threads, has to come back in order and match the Rectangle methods
+        List<String> lines = new ArrayList<>();
+        List<String> expected = new ArrayList<>();
+        for (Rectangle one : testStore.asList()) {
+            for (Rectangle two : testStore.asList()) {
+                lines.add(one.getId() + " " + two.getId());
+                expected.add(one.getId() + " " + two.getId() + " INTERSECT: " + (one.doesIntersect(two) ? "Yes" : "No")
+                        + " | CONTAIN: " + (one.doesContain(two) ? "Yes" : "No")
+                        + " | ADJACENT: " + adjacencyText(one.isAdjacent(two)));
+            }
+        }
+
+        assertThat(outputHandler.evaluatePairQueries(testStore, lines, pool, 4)).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    public void testBatchLines() {
+        int idOne = testStore.getId(0);
+        int idTwo = testStore.getId(1);
+        List<String> lines = Arrays.asList(
+                idOne + " " + idTwo + " i",
+                "",
+                "# comment",
+                "  " + idOne + "\t" + idTwo + " c  ",
+                idOne + " 999999 j",
+                idOne + " x",
+                Integer.toString(idOne),
+                idOne + " " + idTwo + " z");
+
+        String[] results = outputHandler.evaluatePairQueries(testStore, lines, pool, 3);
+
+        assertThat(results).hasSize(lines.size());
+        assertThat(results[0]).startsWith(idOne + " " + idTwo + " INTERSECT: ").doesNotContain("CONTAIN");
+        assertThat(results[1]).isNull();
+        assertThat(results[2]).isNull();
+        assertThat(results[3]).startsWith(idOne + " " + idTwo + " CONTAIN: ").doesNotContain("INTERSECT");
+        assertThat(results[4]).contains("ERROR: ID: 999999 was not found");
+        assertThat(results[5]).contains("ERROR");
+        assertThat(results[6]).contains("ERROR");
+        assertThat(results[7]).contains("ERROR");
+    }
+
+    // Helper Functions
+    private String adjacencyText(Rectangle.Adjacency adjacency) {
+        switch (adjacency) {
+            case PROPER:
+                return "Proper";
+            case SUBLINE:
+                return "Sub-Line";
+            case PARTIAL:
+                return "Partial";
+            default:
+                return "None";
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.mhsnodgrass.rectangleparser;
+
+import com.mhsnodgrass.rectangleparser.util.ParserMetrics;
+import com.mhsnodgrass.rectangleparser.util.RectangleUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+public class ParserMetricsTests {
+    @Value("${rectangleparser.default.filename}")
+    private String filename;
+
+    @Autowired
+    private RectangleUtils rectangleUtils;
+
+    @Autowired
+    private RectangleParser rectangleParser;
+
+    @Autowired
+    private ParserMetrics parserMetrics;
+
+    @Test
+    public void testCountsParsedAndSkipped() {
+        // The metrics are shared with every other test in the context, so only the change is checked
+        long parsed = parserMetrics.getParsedCount();
+        long badData = parserMetrics.getSkippedCount(ParserMetrics.BAD_DATA);
+        long duplicateId = parserMetrics.getSkippedCount(ParserMetrics.DUPLICATE_ID);
+        long parses = parserMetrics.getPhaseCount(ParserMetrics.PARSE);
+        long constructs = parserMetrics.getPhaseCount(ParserMetrics.CONSTRUCT);
+
+        File xmlFile = new File(getClass().getClassLoader().getResource(filename).getFile());
+        rectangleUtils.parseXmlToListOfRectangles(xmlFile);
+
+        // Rectangle #3 is missing data and Rectangle #10 reuses an id
+        assertThat(parserMetrics.getParsedCount() - parsed).isEqualTo(22);
+        assertThat(parserMetrics.getSkippedCount(ParserMetrics.BAD_DATA) - badData).isEqualTo(1);
+        assertThat(parserMetrics.getSkippedCount(ParserMetrics.DUPLICATE_ID) - duplicateId).isEqualTo(1);
+        assertThat(parserMetrics.getPhaseCount(ParserMetrics.PARSE) - parses).isEqualTo(1);
+        assertThat(parserMetrics.getPhaseCount(ParserMetrics.CONSTRUCT) - constructs).isEqualTo(1);
+        assertThat(parserMetrics.getRegistry().find("rectangleparser.phase").tag("phase", ParserMetrics.PARSE).timer()).isNotNull();
+    }
+
+    @Test
+    public void testTimesEachCheck() {
+        long filters = parserMetrics.getPhaseCount(ParserMetrics.FILTER);
+        long contains = parserMetrics.getPhaseCount(ParserMetrics.CONTAIN);
+
+        File xmlFile = new File(getClass().getClassLoader().getResource(filename).getFile());
+        rectangleParser.contain(rectangleParser.filterRectanglesListByIds(rectangleUtils.parseXmlToListOfRectangles(xmlFile), 1, 2));
+
+        assertThat(parserMetrics.getPhaseCount(ParserMetrics.FILTER) - filters).isEqualTo(1);
+        assertThat(parserMetrics.getPhaseCount(ParserMetrics.CONTAIN) - contains).isEqualTo(1);
+    }
+
+    @Test
+    public void testSummary(@TempDir Path tempDir) throws IOException {
+        try (ParserMetrics.Phase ignored = parserMetrics.start(ParserMetrics.INTERSECT)) {
+            Arrays.fill(new long[1024], 1L);
+        }
+
+        assertThat(parserMetrics.summary().toText()).contains("STATS", "PHASE: intersect, COUNT: ", "RECTANGLES PARSED: ");
+
+        Path json = tempDir.resolve("stats.json");
+        parserMetrics.writeJson(json);
+        String written = new String(Files.readAllBytes(json), StandardCharsets.UTF_8);
+        assertThat(written).startsWith("{\"type\":\"stats\",").contains("\"intersect.count\":", "\"intersect.allocatedBytes\":", "\"parsed\":");
+    }
+}
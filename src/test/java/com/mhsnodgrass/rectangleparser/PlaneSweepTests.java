@@ -0,0 +1,105 @@
+package com.mhsnodgrass.rectangleparser;
+
+import com.mhsnodgrass.rectangleparser.analysis.PlaneSweep;
+import com.mhsnodgrass.rectangleparser.model.RectangleStore;
+import com.mhsnodgrass.rectangleparser.util.GeometryUtils;
+import com.mhsnodgrass.rectangleparser.util.RectangleUtils;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest
+public class PlaneSweepTests {
+    @Value("${rectangleparser.default.filename}")
+    private String filename;
+
+    @Autowired
+    private RectangleUtils rectangleUtils;
+
+    private RectangleStore testStore;
+
+    @BeforeAll
+    public void loadRectanglesFromFile() {
+        ClassLoader classLoader = getClass().getClassLoader();
+        File xmlFile = new File(classLoader.getResource(filename).getFile());
+        testStore = rectangleUtils.parseXmlToRectangleStore(xmlFile);
+    }
+
+    @Test
+    public void testIntersectingPairsFromFile() {
+        assertThat(sweepIntersecting(testStore)).isEqualTo(bruteForceIntersecting(testStore));
+    }
+
+    @Test
+    public void testIntersectingPairsRandom() {
+        // Small coordinates so there are plenty of touching, overlapping, and zero size Rectangles
+        Random random = new Random(11);
+        RectangleStore store = new RectangleStore();
+        for (int id = 0; id < 400; id++) {
+            store.add(id, random.nextInt(6), random.nextInt(6), random.nextInt(40) - 20, random.nextInt(40) - 20);
+        }
+
+        assertThat(sweepIntersecting(store)).isEqualTo(bruteForceIntersecting(store));
+    }
+
+    @Test
+    public void testTouchingPairsRandom() {
+        Random random = new Random(12);
+        RectangleStore store = new RectangleStore();
+        for (int id = 0; id < 400; id++) {
+            store.add(id, random.nextInt(6), random.nextInt(6), random.nextInt(40), random.nextInt(40));
+        }
+
+        Set<Long> expected = new HashSet<>();
+        for (int a = 0; a < store.size(); a++) {
+            for (int b = a + 1; b < store.size(); b++) {
+                if (GeometryUtils.touches(store.getX(a), store.getY(a), store.getWidth(a), store.getHeight(a),
+                        store.getX(b), store.getY(b), store.getWidth(b), store.getHeight(b))) {
+                    expected.add(pack(a, b));
+                }
+            }
+        }
+
+        Set<Long> actual = new HashSet<>();
+        PlaneSweep.forEachTouchingPair(store, (a, b) -> assertThat(actual.add(pack(a, b))).isTrue());
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    // Helper Functions
+    private Set<Long> sweepIntersecting(RectangleStore store) {
+        Set<Long> pairs = new HashSet<>();
+        long count = PlaneSweep.forEachIntersectingPair(store, (a, b) -> {
+            assertThat(a).isLessThan(b);
+            pairs.add(pack(a, b));
+        });
+        assertThat(count).isEqualTo(pairs.size());
+        return pairs;
+    }
+
+    private Set<Long> bruteForceIntersecting(RectangleStore store) {
+        Set<Long> pairs = new HashSet<>();
+        for (int a = 0; a < store.size(); a++) {
+            for (int b = a + 1; b < store.size(); b++) {
+                if (store.getRectangle(a).doesIntersect(store.getRectangle(b))) {
+                    pairs.add(pack(a, b));
+                }
+            }
+        }
+        return pairs;
+    }
+
+    private long pack(int a, int b) {
+        return ((long) a << 32) | b;
+    }
+}
@@ -0,0 +1,148 @@
+package com.mhsnodgrass.rectangleparser;
+
+import com.mhsnodgrass.rectangleparser.index.RTree;
+import com.mhsnodgrass.rectangleparser.index.SpatialIndex;
+import com.mhsnodgrass.rectangleparser.model.Rectangle;
+import com.mhsnodgrass.rectangleparser.model.RectangleStore;
+import com.mhsnodgrass.rectangleparser.util.GeometryUtils;
+import com.mhsnodgrass.rectangleparser.util.RectangleUtils;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.File;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest
+public class RTreeTests {
+    @Value("${rectangleparser.default.filename}")
+    private String filename;
+
+    @Autowired
+    private RectangleUtils rectangleUtils;
+
+    @Autowired
+    private RectangleParser rectangleParser;
+
+    private RectangleStore testStore;
+    private RectangleStore randomStore;
+
+    @BeforeAll
+    public void loadRectangles() {
+        ClassLoader classLoader = getClass().getClassLoader();
+        File xmlFile = new File(classLoader.getResource(filename).getFile());
+        testStore = rectangleUtils.parseXmlToRectangleStore(xmlFile);
+
+        Random random = new Random(3);
+        randomStore = new RectangleStore();
+        for (int id = 0; id < 5000; id++) {
+            randomStore.add(id, random.nextInt(20), random.nextInt(20), random.nextInt(1000) - 500, random.nextInt(1000) - 500);
+        }
+    }
+
+    @Test
+    public void testWindowMatchesScan() {
+        SpatialIndex index = rectangleParser.buildSpatialIndex(randomStore);
+        assertThat(index.size()).isEqualTo(randomStore.size());
+
+        Random random = new Random(4);
+        for (int i = 0; i < 200; i++) {
+            int x = random.nextInt(1000) - 500;
+            int y = random.nextInt(1000) - 500;
+            int width = random.nextInt(100);
+            int height = random.nextInt(100);
+
+            int[] expected = IntStream.range(0, randomStore.size())
+                    .filter(slot -> GeometryUtils.intersects(x, y, width, height,
+                            randomStore.getX(slot), randomStore.getY(slot), randomStore.getWidth(slot), randomStore.getHeight(slot)))
+                    .toArray();
+            assertThat(rectangleParser.window(randomStore, index, x, y, width, height)).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    public void testPointMatchesScan() {
+        SpatialIndex index = rectangleParser.buildSpatialIndex(randomStore);
+
+        Random random = new Random(5);
+        for (int i = 0; i < 200; i++) {
+            int x = random.nextInt(1000) - 500;
+            int y = random.nextInt(1000) - 500;
+
+            int[] expected = IntStream.range(0, randomStore.size())
+                    .filter(slot -> randomStore.getX(slot) <= x && x <= randomStore.getX(slot) + randomStore.getWidth(slot)
+                            && randomStore.getY(slot) - randomStore.getHeight(slot) <= y && y <= randomStore.getY(slot))
+                    .toArray();
+            assertThat(rectangleParser.containingPoint(index, x, y)).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    public void testRelationsFromFile() {
+        SpatialIndex index = rectangleParser.buildSpatialIndex(testStore);
+        int slot = testStore.indexOf(9);
+
+        for (int other = 0; other < testStore.size(); other++) {
+            Rectangle rect = testStore.getRectangle(slot);
+            Rectangle otherRect = testStore.getRectangle(other);
+            boolean self = other == slot;
+
+            assertThat(contains(rectangleParser.intersecting(testStore, index, slot), other)).isEqualTo(!self && rect.doesIntersect(otherRect));
+            assertThat(contains(rectangleParser.containedBy(testStore, index, slot), other)).isEqualTo(!self && rect.doesContain(otherRect));
+            assertThat(contains(rectangleParser.adjacentTo(testStore, index, slot), other))
+                    .isEqualTo(!self && rect.isAdjacent(otherRect) != Rectangle.Adjacency.NONE);
+        }
+    }
+
+    @Test
+    public void testNearestMatchesScan() {
+        RTree index = rectangleParser.buildRTree(randomStore);
+
+        Random random = new Random(8);
+        for (int i = 0; i < 100; i++) {
+            int slot = random.nextInt(randomStore.size());
+            int k = 1 + random.nextInt(40);
+
+            // Closest first, ties in store order, the Rectangle itself left out
+            int[] expected = IntStream.range(0, randomStore.size())
+                    .filter(other -> other != slot)
+                    .boxed()
+                    .sorted(Comparator.<Integer>comparingDouble(other -> randomStore.distance(slot, other)).thenComparingInt(other -> other))
+                    .limit(k)
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            assertThat(rectangleParser.nearest(randomStore, index, slot, k)).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    public void testNearestFromFile() {
+        RTree index = rectangleParser.buildRTree(testStore);
+        int slot = testStore.indexOf(9);
+
+        int[] all = rectangleParser.nearest(testStore, index, slot, testStore.size() + 5);
+        assertThat(all).hasSize(testStore.size() - 1).doesNotContain(slot);
+        for (int i = 1; i < all.length; i++) {
+            assertThat(testStore.distance(slot, all[i - 1])).isLessThanOrEqualTo(testStore.distance(slot, all[i]));
+        }
+        for (int other : rectangleParser.intersecting(testStore, index, slot)) {
+            assertThat(testStore.distance(slot, other)).isZero();
+        }
+
+        assertThat(rectangleParser.nearest(testStore, index, slot, 0)).isEmpty();
+        assertThat(rectangleParser.nearest(new RectangleStore(), RTree.build(new RectangleStore()), 0, 3)).isEmpty();
+    }
+
+    // Helper Functions
+    private boolean contains(int[] slots, int slot) {
+        return IntStream.of(slots).anyMatch(s -> s == slot);
+    }
+}
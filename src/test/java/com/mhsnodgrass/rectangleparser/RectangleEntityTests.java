@@ -1,10 +1,17 @@
 package com.mhsnodgrass.rectangleparser;
 
 import com.mhsnodgrass.rectangleparser.model.Rectangle;
+import com.mhsnodgrass.rectangleparser.util.GeometryUtils;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -71,4 +78,44 @@ public class RectangleEntityTests {
         assertThat(testCoordinates.get(0)).isNotNull().isEqualTo(10);
         assertThat(testCoordinates.get(1)).isNotNull().isEqualTo(-10);
     }
+
+    @Test
+    public void testRectangleAllCoordinates() {
+        Rectangle rect = new Rectangle(2, 2, 3, 0, 0);
+        List<List<Pair<Integer, Integer>>> sides = rect.getAllCoordinates();
+
+        assertThat(sides).hasSize(4);
+        assertThat(sides.get(0)).containsExactly(point(0, 0), point(1, 0), point(2, 0), point(3, 0));
+        assertThat(sides.get(1)).containsExactly(point(3, -2), point(3, -1), point(3, 0));
+        assertThat(sides.get(2)).containsExactly(point(0, -2), point(1, -2), point(2, -2), point(3, -2));
+        assertThat(sides.get(3)).containsExactly(point(0, -2), point(0, -1), point(0, 0));
+    }
+
+    @Test
+    public void testRectanglePerimeterWalk() {
+        Rectangle rect = new Rectangle(3, 7, 300, -150, 20);
+        List<List<Pair<Integer, Integer>>> sides = rect.getAllCoordinates();
+
+        // The visitor walks the same points in the same order as the lists
+        List<Pair<Integer, Integer>> visited = new ArrayList<>();
+        rect.forEachCoordinate((x, y) -> visited.add(point(x, y)));
+        List<Pair<Integer, Integer>> flattened = new ArrayList<>();
+        sides.forEach(flattened::addAll);
+        assertThat(visited).isEqualTo(flattened);
+
+        // Each side as a Spliterator, walked in order and split across threads
+        for (int edge = GeometryUtils.TOP; edge <= GeometryUtils.LEFT; edge++) {
+            Spliterator.OfLong points = rect.getEdgePoints(edge);
+            assertThat(points.estimateSize()).isEqualTo(sides.get(edge).size());
+            List<Pair<Integer, Integer>> walked = StreamSupport.longStream(rect.getEdgePoints(edge), true)
+                    .mapToObj(p -> point(GeometryUtils.unpackX(p), GeometryUtils.unpackY(p)))
+                    .collect(Collectors.toList());
+            assertThat(walked).isEqualTo(sides.get(edge));
+        }
+    }
+
+    // Helper Functions
+    private Pair<Integer, Integer> point(int x, int y) {
+        return new ImmutablePair<>(x, y);
+    }
 }
@@ -1,6 +1,7 @@
 package com.mhsnodgrass.rectangleparser;
 
 import com.mhsnodgrass.rectangleparser.model.Rectangle;
+import com.mhsnodgrass.rectangleparser.model.RectangleStore;
 import com.mhsnodgrass.rectangleparser.util.RectangleUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.tuple.Pair;
@@ -109,4 +110,32 @@ public class RectangleParserTests {
         Boolean result = rectangleParser.contain(tempList);
         assertThat(result).isFalse();
     }
+
+    @Test
+    public void testFilterRectangleStoreByIds() {
+        RectangleStore store = new RectangleStore();
+        store.add(3, 5, 10, 0, 0);
+        store.add(4, 15, 20, 5, 5);
+
+        List<Rectangle> result = rectangleParser.filterRectangleStoreByIds(store, 4, 3);
+        assertThat(result).isNotNull().hasSize(2);
+        assertThat(result.get(0).getId()).isEqualTo(4);
+        assertThat(result.get(1).getId()).isEqualTo(3);
+        assertThat(store.intersects(0, 1)).isTrue();
+
+        assertThat(rectangleParser.filterRectangleStoreByIds(store, 3, 99)).isNull();
+    }
+
+    @Test
+    public void testFilterByLargeIds() {
+        // Ids above 127 are not cached Integers, so they have to be compared by value
+        List<Rectangle> tempList = new ArrayList<>();
+        tempList.add(new Rectangle(1000, 5, 10, 0, 0));
+        tempList.add(new Rectangle(2000, 15, 20, 5, 5));
+
+        List<Rectangle> result = rectangleParser.filterRectanglesListByIds(tempList, Integer.valueOf(2000), Integer.valueOf(1000));
+        assertThat(result).isNotNull().hasSize(2);
+        assertThat(result.get(0).getId()).isEqualTo(2000);
+        assertThat(result.get(1).getId()).isEqualTo(1000);
+    }
 }
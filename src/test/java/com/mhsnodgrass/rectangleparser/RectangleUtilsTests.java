@@ -1,17 +1,22 @@
 package com.mhsnodgrass.rectangleparser;
 
 import com.mhsnodgrass.rectangleparser.model.Rectangle;
+import com.mhsnodgrass.rectangleparser.model.RectangleStore;
 import com.mhsnodgrass.rectangleparser.util.RectangleUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.context.SpringBootTest;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
 import java.util.List;
+import java.util.Random;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -58,6 +63,113 @@ public class RectangleUtilsTests {
         testRectangleYCoordinates(rect, 10, 10, 0, 0);
     }
 
+    @Test
+    public void testRectangleStore() {
+        ClassLoader classLoader = getClass().getClassLoader();
+        File xmlFile = new File(classLoader.getResource(filename).getFile());
+        RectangleStore store = rectangleUtils.parseXmlToRectangleStore(xmlFile);
+
+        assertThat(store.size()).isEqualTo(testRectangles.size());
+        for (int i = 0; i < store.size(); i++) {
+            Rectangle rect = testRectangles.get(i);
+            testRectangleFields(store.getRectangle(i), rect.getId(), rect.getHeight(), rect.getWidth(), rect.getX(), rect.getY());
+        }
+        assertThat(store.indexOf(2)).isEqualTo(1);
+        assertThat(store.indexOf(99)).isEqualTo(-1);
+    }
+
+    @Test
+    public void testStreamedRectangleStore() {
+        // Streaming has to skip the same bad and duplicate Rectangles as the DOM parse
+        ClassLoader classLoader = getClass().getClassLoader();
+        File xmlFile = new File(classLoader.getResource(filename).getFile());
+        RectangleStore store = rectangleUtils.streamXmlToRectangleStore(xmlFile);
+
+        assertThat(store.size()).isEqualTo(testRectangles.size());
+        for (int i = 0; i < store.size(); i++) {
+            Rectangle rect = testRectangles.get(i);
+            testRectangleFields(store.getRectangle(i), rect.getId(), rect.getHeight(), rect.getWidth(), rect.getX(), rect.getY());
+        }
+    }
+
+    @Test
+    public void testParallelRectangleStore() {
+        // Every chunk size has to give the same store as the DOM parse, down to one Rectangle per chunk
+        ClassLoader classLoader = getClass().getClassLoader();
+        File xmlFile = new File(classLoader.getResource(filename).getFile());
+
+        for (long chunkSize : new long[] {1, 100, 1024 * 1024}) {
+            RectangleStore store = rectangleUtils.parseXmlToRectangleStoreParallel(xmlFile, 4, chunkSize);
+
+            assertThat(store.size()).isEqualTo(testRectangles.size());
+            for (int i = 0; i < store.size(); i++) {
+                Rectangle rect = testRectangles.get(i);
+                testRectangleFields(store.getRectangle(i), rect.getId(), rect.getHeight(), rect.getWidth(), rect.getX(), rect.getY());
+            }
+        }
+    }
+
+    @Test
+    public void testParallelLargeFile(@TempDir File tempDir) throws IOException {
+        // Large enough that chunk starts land across the read buffers of the split, with some bad and duplicate Rectangles mixed in
+        File xmlFile = new File(tempDir, "large.xml");
+        Random random = new Random(7);
+        try (PrintWriter writer = new PrintWriter(xmlFile, "UTF-8")) {
+            writer.println("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+            writer.println("<rectangles>");
+            for (int i = 0; i < 20000; i++) {
+                String id = i % 997 == 0 ? "bad" : Integer.toString(random.nextInt(1000000));
+                writer.println("    <rectangle>");
+                writer.println("        <id>" + id + "</id>");
+                writer.println("        <height>" + random.nextInt(100) + "</height>");
+                writer.println("        <width>" + random.nextInt(100) + "</width>");
+                writer.println("        <x>" + (random.nextInt(2000) - 1000) + "</x>");
+                writer.println("        <y>" + (random.nextInt(2000) - 1000) + "</y>");
+                writer.println("    </rectangle>");
+            }
+            writer.println("</rectangles>");
+        }
+
+        RectangleStore expected = rectangleUtils.streamXmlToRectangleStore(xmlFile);
+        RectangleStore store = rectangleUtils.parseXmlToRectangleStoreParallel(xmlFile, 3, 100000);
+
+        assertThat(store.size()).isEqualTo(expected.size());
+        for (int i = 0; i < store.size(); i++) {
+            Rectangle rect = expected.getRectangle(i);
+            testRectangleFields(store.getRectangle(i), rect.getId(), rect.getHeight(), rect.getWidth(), rect.getX(), rect.getY());
+        }
+    }
+
+    @Test
+    public void testParallelNestedRectangles(@TempDir File tempDir) throws IOException {
+        // Rectangles inside wrapper elements, the chunks hold end tags they never opened so the whole file is streamed instead
+        File xmlFile = new File(tempDir, "nested.xml");
+        try (PrintWriter writer = new PrintWriter(xmlFile, "UTF-8")) {
+            writer.println("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+            writer.println("<rectangles>");
+            for (int group = 0; group < 2; group++) {
+                writer.println("  <group>");
+                for (int id = group * 1000; id < group * 1000 + 1000; id++) {
+                    writer.println("    <rectangle><id>" + id + "</id><height>2</height><width>3</width><x>" + id + "</x><y>" + -id + "</y></rectangle>");
+                }
+                writer.println("  </group>");
+            }
+            writer.println("</rectangles>");
+        }
+
+        RectangleStore expected = rectangleUtils.streamXmlToRectangleStore(xmlFile);
+        assertThat(expected.size()).isEqualTo(2000);
+        for (long chunkSize : new long[] {100, 10000}) {
+            RectangleStore store = rectangleUtils.parseXmlToRectangleStoreParallel(xmlFile, 3, chunkSize);
+
+            assertThat(store.size()).isEqualTo(expected.size());
+            for (int i = 0; i < store.size(); i++) {
+                Rectangle rect = expected.getRectangle(i);
+                testRectangleFields(store.getRectangle(i), rect.getId(), rect.getHeight(), rect.getWidth(), rect.getX(), rect.getY());
+            }
+        }
+    }
+
     // Helper Functions
     public void testRectangleFields(Rectangle rect, Integer id, Integer height, Integer width, Integer x, Integer y) {
         assertThat(rect).isNotNull();
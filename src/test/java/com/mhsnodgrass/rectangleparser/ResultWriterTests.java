@@ -0,0 +1,62 @@
+package com.mhsnodgrass.rectangleparser;
+
+import com.mhsnodgrass.rectangleparser.model.Rectangle;
+import com.mhsnodgrass.rectangleparser.util.ResultWriter;
+import com.mhsnodgrass.rectangleparser.util.ResultWriter.Result;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "rectangleparser.results.file=target/results-test.ndjson",
+        "rectangleparser.results.format=ndjson",
+        "rectangleparser.results.buffer-size=64"
+})
+public class ResultWriterTests {
+    @Autowired
+    private ResultWriter resultWriter;
+
+    @Test
+    public void testResultFormats() {
+        Result result = new Result("pair")
+                .text("1 2 INTERSECT: Yes")
+                .text("second line")
+                .put("idOne", 1)
+                .put("intersects", true)
+                .put("note", "a \"quoted\" \\ value\n")
+                .put("ids", 3, 4)
+                .put("types", Arrays.asList("Proper", "None"));
+
+        assertThat(result.toText()).isEqualTo("1 2 INTERSECT: Yes\nsecond line");
+        assertThat(result.toJson()).isEqualTo("{\"type\":\"pair\",\"idOne\":1,\"intersects\":true,"
+                + "\"note\":\"a \\\"quoted\\\" \\\\ value\\n\",\"ids\":[3,4],\"types\":[\"Proper\",\"None\"]}");
+    }
+
+    @Test
+    public void testWritesEveryResultInOrder() throws IOException {
+        // The buffer is smaller than a few results, so it is written out many times
+        for (int i = 0; i < 1000; i++) {
+            resultWriter.write(new Result("count").text("COUNT: " + i).put("count", i));
+        }
+        resultWriter.writeRectangle(1, new Rectangle(1, 5, 10, 0, 0), true);
+        resultWriter.close();
+
+        List<String> lines = Files.readAllLines(Paths.get("target/results-test.ndjson"), StandardCharsets.UTF_8);
+        assertThat(lines).hasSize(1001);
+        for (int i = 0; i < 1000; i++) {
+            assertThat(lines.get(i)).isEqualTo("{\"type\":\"count\",\"count\":" + i + "}");
+        }
+        // Each side is one segment, not one entry per point
+        assertThat(lines.get(1000)).isEqualTo("{\"type\":\"rectangle\",\"number\":1,\"id\":1,\"height\":5,\"width\":10,\"x\":0,\"y\":0,"
+                + "\"top\":[0,0,10,0],\"right\":[10,-5,10,0],\"bottom\":[0,-5,10,-5],\"left\":[0,-5,0,0]}");
+    }
+}
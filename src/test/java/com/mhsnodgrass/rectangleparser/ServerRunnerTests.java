@@ -0,0 +1,112 @@
+package com.mhsnodgrass.rectangleparser;
+
+import com.mhsnodgrass.rectangleparser.model.RectangleStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "rectangleparser.server.enabled=true",
+        "rectangleparser.server.port=0",
+        "rectangleparser.server.threads=2",
+        "rectangleparser.server.datasets=src/test/resources/testRectangles.xml"})
+public class ServerRunnerTests {
+    private static final String DATASET = "testRectangles.xml";
+
+    @Autowired
+    private ServerRunner serverRunner;
+
+    @Autowired
+    private QueryHandler queryHandler;
+
+    @Autowired
+    private RectangleParser rectangleParser;
+
+    @Test
+    public void testPairQueries() {
+        RectangleStore store = rectangleParser.getRectangleStoreFromFile("src/test/resources/testRectangles.xml");
+
+        assertThat(queryHandler.handle("DATASETS")).isEqualTo("OK " + DATASET + ":" + store.size());
+        for (int one = 0; one < store.size(); one++) {
+            for (int two = 0; two < store.size(); two++) {
+                String ids = store.getId(one) + " " + store.getId(two);
+                assertThat(queryHandler.handle("INTERSECT " + DATASET + " " + ids)).isEqualTo("OK " + (store.intersects(one, two) ? "Yes" : "No"));
+                assertThat(queryHandler.handle("contain " + DATASET + " " + ids)).isEqualTo("OK " + (store.contains(one, two) ? "Yes" : "No"));
+                assertThat(queryHandler.handle("ADJACENT " + DATASET + " " + ids)).isEqualTo("OK " + store.adjacency(one, two));
+            }
+        }
+    }
+
+    @Test
+    public void testErrors() {
+        assertThat(queryHandler.handle("NOPE")).startsWith("ERROR");
+        assertThat(queryHandler.handle("INTERSECT " + DATASET + " 1")).startsWith("ERROR");
+        assertThat(queryHandler.handle("INTERSECT other.xml 1 2")).startsWith("ERROR Dataset other.xml");
+        assertThat(queryHandler.handle("INTERSECT " + DATASET + " 1 x")).startsWith("ERROR");
+        assertThat(queryHandler.handle("INTERSECT " + DATASET + " 1 999999")).isEqualTo("ERROR ID: 999999 was not found in " + DATASET);
+    }
+
+    @Test
+    public void testDuplicateDatasetNames() {
+        // Same filename in two directories, the load is refused and the datasets already loaded are kept
+        String copy = getClass().getClassLoader().getResource(DATASET).getFile();
+        assertThatThrownBy(() -> queryHandler.load(Arrays.asList("src/test/resources/" + DATASET, copy)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("both named " + DATASET);
+        assertThat(queryHandler.handle("DATASETS")).startsWith("OK " + DATASET + ":");
+    }
+
+    @Test
+    public void testConcurrentClients() throws Exception {
+        // More clients than workers, each sends its requests in one write and reads every response back in order
+        ExecutorService clients = Executors.newFixedThreadPool(6);
+        try {
+            List<Future<List<String>>> results = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                results.add(clients.submit(() -> sendRequests("DATASETS\nWINDOW " + DATASET + " -1000 1000 2000 2000\nBAD\nQUIT\n")));
+            }
+
+            String window = queryHandler.handle("WINDOW " + DATASET + " -1000 1000 2000 2000");
+            assertThat(window).startsWith("OK ");
+            for (Future<List<String>> result : results) {
+                assertThat(result.get()).containsExactly(queryHandler.handle("DATASETS"), window, queryHandler.handle("BAD"));
+            }
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    // Helper Functions
+    private List<String> sendRequests(String requests) throws IOException {
+        List<String> responses = new ArrayList<>();
+        try (Socket socket = new Socket("127.0.0.1", serverRunner.getPort());
+             Writer writer = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+             BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))) {
+            writer.write(requests);
+            writer.flush();
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                responses.add(line);
+            }
+        }
+        return responses;
+    }
+}
@@ -0,0 +1,112 @@
+package com.mhsnodgrass.rectangleparser;
+
+import com.mhsnodgrass.rectangleparser.index.SpatialIndex;
+import com.mhsnodgrass.rectangleparser.index.StabbingIndex;
+import com.mhsnodgrass.rectangleparser.model.RectangleStore;
+import com.mhsnodgrass.rectangleparser.util.RectangleUtils;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.File;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest
+public class StabbingIndexTests {
+    @Value("${rectangleparser.default.filename}")
+    private String filename;
+
+    @Autowired
+    private RectangleUtils rectangleUtils;
+
+    @Autowired
+    private RectangleParser rectangleParser;
+
+    private RectangleStore testStore;
+    private RectangleStore randomStore;
+
+    @BeforeAll
+    public void loadRectangles() {
+        ClassLoader classLoader = getClass().getClassLoader();
+        File xmlFile = new File(classLoader.getResource(filename).getFile());
+        testStore = rectangleUtils.parseXmlToRectangleStore(xmlFile);
+
+        // Sizes up to 400 so most points are inside many Rectangles
+        Random random = new Random(6);
+        randomStore = new RectangleStore();
+        for (int id = 0; id < 5000; id++) {
+            randomStore.add(id, random.nextInt(400), random.nextInt(400), random.nextInt(1000) - 500, random.nextInt(1000) - 500);
+        }
+    }
+
+    @Test
+    public void testStabMatchesScan() {
+        StabbingIndex index = rectangleParser.buildStabbingIndex(randomStore);
+        assertThat(index.size()).isEqualTo(randomStore.size());
+
+        Random random = new Random(7);
+        for (int i = 0; i < 300; i++) {
+            int x = random.nextInt(1400) - 600;
+            int y = random.nextInt(1400) - 800;
+            assertThat(rectangleParser.stab(index, x, y)).isEqualTo(scan(randomStore, x, y));
+        }
+    }
+
+    @Test
+    public void testStabEdgesAndCorners() {
+        StabbingIndex index = rectangleParser.buildStabbingIndex(testStore);
+        SpatialIndex spatialIndex = rectangleParser.buildSpatialIndex(testStore);
+
+        for (int slot = 0; slot < testStore.size(); slot++) {
+            int left = testStore.getX(slot);
+            int right = left + testStore.getWidth(slot);
+            int top = testStore.getY(slot);
+            int bottom = top - testStore.getHeight(slot);
+            int[][] points = {{left, top}, {right, top}, {left, bottom}, {right, bottom}, {left - 1, top}, {right + 1, bottom}, {left, top + 1}, {right, bottom - 1}};
+            for (int[] point : points) {
+                int[] found = rectangleParser.stab(index, point[0], point[1]);
+                assertThat(found).isEqualTo(scan(testStore, point[0], point[1]));
+                assertThat(found).isEqualTo(rectangleParser.containingPoint(spatialIndex, point[0], point[1]));
+            }
+        }
+    }
+
+    @Test
+    public void testStabNested() {
+        // Each Rectangle holds the next one, so a point at the center is inside all of them
+        RectangleStore nested = new RectangleStore();
+        for (int id = 0; id < 500; id++) {
+            nested.add(id, 2000 - id * 4, 2000 - id * 4, id * 2, 2000 - id * 2);
+        }
+        StabbingIndex index = rectangleParser.buildStabbingIndex(nested);
+
+        assertThat(rectangleParser.stab(index, 1000, 1000)).isEqualTo(IntStream.range(0, 500).toArray());
+        assertThat(rectangleParser.stab(index, 0, 0)).containsExactly(0);
+        assertThat(rectangleParser.stab(index, 2001, 1000)).isEmpty();
+        for (int x = -5; x < 2005; x += 37) {
+            assertThat(rectangleParser.stab(index, x, x / 2)).isEqualTo(scan(nested, x, x / 2));
+        }
+    }
+
+    @Test
+    public void testStabEmpty() {
+        StabbingIndex index = rectangleParser.buildStabbingIndex(new RectangleStore());
+        assertThat(index.size()).isZero();
+        assertThat(rectangleParser.stab(index, 0, 0)).isEmpty();
+    }
+
+    // Every slot whose closed bounds hold the point, in store order
+    private static int[] scan(RectangleStore store, int x, int y) {
+        return IntStream.range(0, store.size())
+                .filter(slot -> store.getX(slot) <= x && x <= store.getX(slot) + store.getWidth(slot)
+                        && store.getY(slot) - store.getHeight(slot) <= y && y <= store.getY(slot))
+                .toArray();
+    }
+}